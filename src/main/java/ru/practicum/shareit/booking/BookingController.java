@@ -1,12 +1,26 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesCreateDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.booking.dto.WaitlistEntryDto;
+import ru.practicum.shareit.booking.service.BookingSeriesService;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.WaitlistService;
 import ru.practicum.shareit.booking.status.State;
 import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.booking.stream.BookingStreamService;
+import ru.practicum.shareit.fields.FieldSelection;
+import ru.practicum.shareit.fields.SparseFields;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
+import ru.practicum.shareit.user.identity.SharerUserId;
 
 import java.util.List;
 
@@ -16,46 +30,123 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingSeriesService bookingSeriesService;
+    private final WaitlistService waitlistService;
+    private final BookingStreamService bookingStreamService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
+    @SparseFields
     public List<BookingDto> getAllBookings(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(name = "state", defaultValue = "ALL") String stateParam) {
+            @SharerUserId Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+            @RequestParam(name = FieldSelection.PARAM, required = false) String fields) {
         State state = State.from(stateParam);
         if (state == null) {
             throw new IllegalArgumentException("Unknown state: " + stateParam);
         }
-        return bookingService.getAllBookings(userId, stateParam);
+        return bookingService.getAllBookings(userId, stateParam, FieldSelection.parse(fields, BookingDto.FIELDS));
     }
 
     @GetMapping(value = "/owner")
+    @SparseFields
     public List<BookingDto> getAllBookingItemsUser(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(name = "state", defaultValue = "ALL") String stateParam) {
+            @SharerUserId Long userId,
+            @RequestParam(name = "state", defaultValue = "ALL") String stateParam,
+            @RequestParam(name = FieldSelection.PARAM, required = false) String fields) {
         State state = State.from(stateParam);
         if (state == null) {
             throw new IllegalArgumentException("Unknown state: " + stateParam);
         }
-        return bookingService.getAllBookingItemsUser(userId, stateParam);
+        return bookingService.getAllBookingItemsUser(userId, stateParam,
+                FieldSelection.parse(fields, BookingDto.FIELDS));
+    }
+
+    @GetMapping(value = "/owner/summary")
+    public BookingSummaryDto getBookingSummary(
+            @SharerUserId Long userId,
+            @RequestParam(name = "byItem", defaultValue = "false") boolean byItem) {
+        return bookingService.getBookingSummary(userId, byItem);
+    }
+
+    @GetMapping(value = "/owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingItemsUser(
+            @SharerUserId Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return bookingStreamService.subscribe(userId, lastEventId);
     }
 
     @GetMapping(value = "/{bookingId}")
     public BookingDto getBookingById(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @SharerUserId(verify = false) Long userId,
             @PathVariable Long bookingId) {
         return bookingService.getBookingById(userId, bookingId);
     }
 
     @PostMapping
     public BookingDto createBooking(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
-           @RequestBody BookingCreateDto bookingDto) {
-        return bookingService.createBooking(userId, bookingDto);
+            @SharerUserId Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody BookingCreateDto bookingDto) {
+        return idempotencyStore.execute("bookings", userId, idempotencyKey, bookingDto,
+                new TypeReference<>() { }, () -> bookingService.createBooking(userId, bookingDto));
+    }
+
+    @PostMapping(value = "/batch")
+    public List<BookingDto> createBookings(
+            @SharerUserId Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody List<BookingCreateDto> bookingDtos) {
+        return idempotencyStore.execute("bookings-batch", userId, idempotencyKey, bookingDtos,
+                new TypeReference<>() { }, () -> bookingService.createBookings(userId, bookingDtos));
+    }
+
+    @PostMapping(value = "/series")
+    public BookingSeriesDto createSeries(
+            @SharerUserId Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody BookingSeriesCreateDto seriesDto) {
+        return idempotencyStore.execute("bookings-series", userId, idempotencyKey, seriesDto,
+                new TypeReference<>() { }, () -> bookingSeriesService.createSeries(userId, seriesDto));
+    }
+
+    @GetMapping(value = "/series/{seriesId}")
+    public BookingSeriesDto getSeries(
+            @SharerUserId(verify = false) Long userId,
+            @PathVariable Long seriesId) {
+        return bookingSeriesService.getSeries(userId, seriesId);
+    }
+
+    @PatchMapping(value = "/series/{seriesId}")
+    public BookingSeriesDto patchSeries(
+            @SharerUserId(verify = false) Long userId,
+            @PathVariable Long seriesId,
+            @RequestParam Boolean approved) {
+        return bookingSeriesService.patchSeries(userId, seriesId, approved);
+    }
+
+    @PostMapping(value = "/waitlist")
+    public WaitlistEntryDto joinWaitlist(
+            @SharerUserId Long userId,
+            @RequestBody BookingCreateDto bookingDto) {
+        return waitlistService.joinWaitlist(userId, bookingDto);
+    }
+
+    @GetMapping(value = "/waitlist")
+    public List<WaitlistEntryDto> getWaitlistEntries(@SharerUserId Long userId) {
+        return waitlistService.getWaitlistEntries(userId);
+    }
+
+    @DeleteMapping(value = "/waitlist/{entryId}")
+    public void leaveWaitlist(
+            @SharerUserId(verify = false) Long userId,
+            @PathVariable Long entryId) {
+        waitlistService.leaveWaitlist(userId, entryId);
     }
 
     @PatchMapping(value = "/{bookingId}")
     public BookingDto patchBooking(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @SharerUserId(verify = false) Long userId,
             @PathVariable Long bookingId,
             @RequestParam Boolean approved) {
         return bookingService.patchBooking(userId, bookingId, approved);
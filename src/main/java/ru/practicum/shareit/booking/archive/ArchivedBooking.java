@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.status.Status;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ArchivedBooking {
+
+    private final long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final long itemId;
+    private final long bookerId;
+    private final long ownerId;
+    private final Status status;
+
+    public static ArchivedBooking of(Booking booking) {
+        return new ArchivedBooking(
+                booking.getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                booking.getItem().getId(),
+                booking.getBooker().getId(),
+                booking.getItem().getOwner().getId(),
+                booking.getStatus());
+    }
+}
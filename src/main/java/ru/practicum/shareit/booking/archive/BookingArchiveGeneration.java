@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Поколение базы данных, которому принадлежит архив.
+ *
+ * <p>{@code schema.sql} пересоздаёт таблицы при каждом обычном запуске, и id пользователей и вещей
+ * начинаются заново, а файлы архива остаются. Поэтому архив пишется в подкаталог поколения, а поколение
+ * хранится в таблице {@code booking_archive_generation}, которая пересоздаётся вместе с остальными:
+ * после пересоздания схемы появляется новое поколение, и архив прежней базы больше не читается.
+ */
+@Component
+@Slf4j
+public class BookingArchiveGeneration {
+
+    private static final String SELECT = "SELECT generation FROM booking_archive_generation";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookingArchiveGeneration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Возвращает поколение текущей базы, создавая его при первом обращении. Если узлы создают его
+     * одновременно, остальные получают поколение, вставленное первым.
+     */
+    public String current() {
+        List<String> generations = jdbcTemplate.queryForList(SELECT, String.class);
+        if (!generations.isEmpty()) {
+            return generations.get(0);
+        }
+        String generation = UUID.randomUUID().toString();
+        try {
+            jdbcTemplate.update("INSERT INTO booking_archive_generation (singleton, generation) VALUES (TRUE, ?)",
+                    generation);
+            log.info("Новое поколение архива бронирований: {}", generation);
+            return generation;
+        } catch (DuplicateKeyException e) {
+            return jdbcTemplate.queryForObject(SELECT, String.class);
+        }
+    }
+}
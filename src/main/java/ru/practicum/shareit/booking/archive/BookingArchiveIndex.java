@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.archive;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Оглавление месячного архива: диапазон id и отсортированные без повторов id арендаторов,
+ * владельцев и вещей.
+ *
+ * <p>Оглавления всех месяцев держатся в памяти и позволяют не читать файлы месяцев,
+ * где нужного пользователя или вещи нет.
+ */
+class BookingArchiveIndex {
+
+    private static final int MAGIC = 0x53484149;
+    private static final int VERSION = 1;
+
+    private final long minId;
+    private final long maxId;
+    private final long[] bookerIds;
+    private final long[] ownerIds;
+    private final long[] itemIds;
+
+    private BookingArchiveIndex(long minId, long maxId, long[] bookerIds, long[] ownerIds, long[] itemIds) {
+        this.minId = minId;
+        this.maxId = maxId;
+        this.bookerIds = bookerIds;
+        this.ownerIds = ownerIds;
+        this.itemIds = itemIds;
+    }
+
+    static BookingArchiveIndex of(long[] ids, long[] bookerIds, long[] ownerIds, long[] itemIds) {
+        return new BookingArchiveIndex(
+                ids.length == 0 ? 0 : ids[0],
+                ids.length == 0 ? -1 : ids[ids.length - 1],
+                distinct(bookerIds),
+                distinct(ownerIds),
+                distinct(itemIds));
+    }
+
+    static BookingArchiveIndex read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Неизвестный формат оглавления архива бронирований");
+        }
+        return new BookingArchiveIndex(in.readLong(), in.readLong(), readLongs(in), readLongs(in), readLongs(in));
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(minId);
+        out.writeLong(maxId);
+        writeLongs(out, bookerIds);
+        writeLongs(out, ownerIds);
+        writeLongs(out, itemIds);
+    }
+
+    boolean mayContainId(long id) {
+        return id >= minId && id <= maxId;
+    }
+
+    boolean containsBooker(long bookerId) {
+        return Arrays.binarySearch(bookerIds, bookerId) >= 0;
+    }
+
+    boolean containsOwner(long ownerId) {
+        return Arrays.binarySearch(ownerIds, ownerId) >= 0;
+    }
+
+    boolean containsItem(long itemId) {
+        return Arrays.binarySearch(itemIds, itemId) >= 0;
+    }
+
+    private static long[] distinct(long[] column) {
+        return Arrays.stream(column).distinct().sorted().toArray();
+    }
+
+    private static long[] readLongs(DataInputStream in) throws IOException {
+        long[] values = new long[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readLong();
+        }
+        return values;
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking.archive")
+public class BookingArchiveProperties {
+
+    /**
+     * Каталог с архивными файлами бронирований. При нескольких узлах — общий для всех (сетевой диск):
+     * архив пишет один узел, остальные читают те же файлы. Сами файлы лежат в подкаталоге поколения базы.
+     */
+    private String directory = "archive/bookings";
+
+    /**
+     * Завершённые бронирования старше этого срока переносятся в архив.
+     */
+    private Duration horizon = Duration.ofDays(365);
+
+    /**
+     * Сколько бронирований переносится в архив за одну транзакцию.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Сколько месяцев архива держать в памяти; остальные читаются с диска по требованию.
+     */
+    private int cachedMonths = 12;
+
+    /**
+     * Разбивать таблицу bookings на месячные секции по end_date (только PostgreSQL).
+     */
+    private boolean partitioning;
+
+    /**
+     * На сколько месяцев вперёд заранее создавать секции.
+     */
+    private int partitionMonthsAhead = 12;
+}
@@ -0,0 +1,204 @@
+package ru.practicum.shareit.booking.archive;
+
+import ru.practicum.shareit.booking.status.Status;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Архив бронирований за один месяц, хранящийся по столбцам.
+ *
+ * <p>Каждое поле записывается отдельным массивом, строки отсортированы по id. Для поиска по владельцу,
+ * арендатору и вещи при загрузке строятся перестановки строк, упорядоченные по этим столбцам,
+ * поэтому поиск — двоичный, а строки собираются лишь для совпадений.
+ */
+class BookingArchiveSegment {
+
+    private static final int MAGIC = 0x53484241;
+    private static final int VERSION = 1;
+    private static final Status[] STATUSES = Status.values();
+
+    private final long[] ids;
+    private final long[] startSeconds;
+    private final int[] startNanos;
+    private final long[] endSeconds;
+    private final int[] endNanos;
+    private final long[] itemIds;
+    private final long[] bookerIds;
+    private final long[] ownerIds;
+    private final byte[] statuses;
+    private int[] byBooker;
+    private int[] byOwner;
+    private int[] byItem;
+
+    private BookingArchiveSegment(int size) {
+        ids = new long[size];
+        startSeconds = new long[size];
+        startNanos = new int[size];
+        endSeconds = new long[size];
+        endNanos = new int[size];
+        itemIds = new long[size];
+        bookerIds = new long[size];
+        ownerIds = new long[size];
+        statuses = new byte[size];
+    }
+
+    static BookingArchiveSegment of(List<ArchivedBooking> bookings) {
+        List<ArchivedBooking> sorted = new ArrayList<>(bookings);
+        sorted.sort(Comparator.comparingLong(ArchivedBooking::getId));
+        BookingArchiveSegment segment = new BookingArchiveSegment(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            ArchivedBooking booking = sorted.get(i);
+            segment.ids[i] = booking.getId();
+            segment.startSeconds[i] = booking.getStart().toEpochSecond(ZoneOffset.UTC);
+            segment.startNanos[i] = booking.getStart().getNano();
+            segment.endSeconds[i] = booking.getEnd().toEpochSecond(ZoneOffset.UTC);
+            segment.endNanos[i] = booking.getEnd().getNano();
+            segment.itemIds[i] = booking.getItemId();
+            segment.bookerIds[i] = booking.getBookerId();
+            segment.ownerIds[i] = booking.getOwnerId();
+            segment.statuses[i] = (byte) booking.getStatus().ordinal();
+        }
+        segment.buildOrders();
+        return segment;
+    }
+
+    static BookingArchiveSegment read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Неизвестный формат архива бронирований");
+        }
+        BookingArchiveSegment segment = new BookingArchiveSegment(in.readInt());
+        readLongs(in, segment.ids);
+        readLongs(in, segment.startSeconds);
+        readInts(in, segment.startNanos);
+        readLongs(in, segment.endSeconds);
+        readInts(in, segment.endNanos);
+        readLongs(in, segment.itemIds);
+        readLongs(in, segment.bookerIds);
+        readLongs(in, segment.ownerIds);
+        in.readFully(segment.statuses);
+        segment.buildOrders();
+        return segment;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(ids.length);
+        writeLongs(out, ids);
+        writeLongs(out, startSeconds);
+        writeInts(out, startNanos);
+        writeLongs(out, endSeconds);
+        writeInts(out, endNanos);
+        writeLongs(out, itemIds);
+        writeLongs(out, bookerIds);
+        writeLongs(out, ownerIds);
+        out.write(statuses);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    List<ArchivedBooking> all() {
+        List<ArchivedBooking> result = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            result.add(get(i));
+        }
+        return result;
+    }
+
+    ArchivedBooking findById(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? get(index) : null;
+    }
+
+    void findByBookerId(long bookerId, List<ArchivedBooking> result) {
+        collect(bookerIds, byBooker, bookerId, result);
+    }
+
+    void findByOwnerId(long ownerId, List<ArchivedBooking> result) {
+        collect(ownerIds, byOwner, ownerId, result);
+    }
+
+    void findByItemId(long itemId, List<ArchivedBooking> result) {
+        collect(itemIds, byItem, itemId, result);
+    }
+
+    BookingArchiveIndex index() {
+        return BookingArchiveIndex.of(ids, bookerIds, ownerIds, itemIds);
+    }
+
+    private void buildOrders() {
+        byBooker = order(bookerIds);
+        byOwner = order(ownerIds);
+        byItem = order(itemIds);
+    }
+
+    private static int[] order(long[] column) {
+        return IntStream.range(0, column.length)
+                .boxed()
+                .sorted(Comparator.comparingLong(i -> column[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private void collect(long[] column, int[] order, long value, List<ArchivedBooking> result) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (column[order[middle]] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int i = low; i < order.length && column[order[i]] == value; i++) {
+            result.add(get(order[i]));
+        }
+    }
+
+    private ArchivedBooking get(int i) {
+        return new ArchivedBooking(
+                ids[i],
+                LocalDateTime.ofEpochSecond(startSeconds[i], startNanos[i], ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(endSeconds[i], endNanos[i], ZoneOffset.UTC),
+                itemIds[i],
+                bookerIds[i],
+                ownerIds[i],
+                STATUSES[statuses[i]]);
+    }
+
+    private static void readLongs(DataInputStream in, long[] column) throws IOException {
+        for (int i = 0; i < column.length; i++) {
+            column[i] = in.readLong();
+        }
+    }
+
+    private static void readInts(DataInputStream in, int[] column) throws IOException {
+        for (int i = 0; i < column.length; i++) {
+            column[i] = in.readInt();
+        }
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] column) throws IOException {
+        for (long value : column) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] column) throws IOException {
+        for (int value : column) {
+            out.writeInt(value);
+        }
+    }
+}
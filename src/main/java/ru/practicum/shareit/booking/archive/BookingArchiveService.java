@@ -0,0 +1,101 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Чтение архивных бронирований в виде обычных {@link Booking} с подгруженными вещью и арендатором.
+ */
+@Service
+@AllArgsConstructor
+public class BookingArchiveService {
+
+    private final BookingArchiveStore bookingArchiveStore;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+
+    public List<Booking> findByBookerId(Long bookerId) {
+        if (bookingArchiveStore.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return resolve(bookingArchiveStore.findByBookerId(bookerId));
+    }
+
+    public List<Booking> findByItemOwnerId(Long ownerId) {
+        if (bookingArchiveStore.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return resolve(bookingArchiveStore.findByOwnerId(ownerId));
+    }
+
+    /**
+     * Архивные бронирования владельца без подгрузки вещей и арендаторов — для подсчётов.
+     */
+    public List<ArchivedBooking> findArchivedByItemOwnerId(Long ownerId) {
+        if (bookingArchiveStore.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return bookingArchiveStore.findByOwnerId(ownerId);
+    }
+
+    public boolean hasOwner(Long ownerId) {
+        return !bookingArchiveStore.isEmpty() && bookingArchiveStore.hasOwner(ownerId);
+    }
+
+    public Optional<ArchivedBooking> findLastByItemId(Long itemId) {
+        if (bookingArchiveStore.isEmpty()) {
+            return Optional.empty();
+        }
+        return bookingArchiveStore.findLastByItemId(itemId);
+    }
+
+    public boolean existsApprovedByBookerIdAndItemId(Long bookerId, Long itemId) {
+        return !bookingArchiveStore.isEmpty() && bookingArchiveStore.findByBookerId(bookerId).stream()
+                .anyMatch(booking -> booking.getItemId() == itemId && booking.getStatus() == Status.APPROVED);
+    }
+
+    public Optional<Booking> findById(Long bookingId) {
+        if (bookingArchiveStore.isEmpty()) {
+            return Optional.empty();
+        }
+        return bookingArchiveStore.findById(bookingId)
+                .map(booking -> resolve(List.of(booking)))
+                .flatMap(bookings -> bookings.stream().findFirst());
+    }
+
+    private List<Booking> resolve(List<ArchivedBooking> archived) {
+        if (archived.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> itemIds = archived.stream().map(ArchivedBooking::getItemId).collect(Collectors.toSet());
+        Set<Long> userIds = archived.stream().map(ArchivedBooking::getBookerId).collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<Booking> bookings = new ArrayList<>(archived.size());
+        for (ArchivedBooking booking : archived) {
+            Item item = items.get(booking.getItemId());
+            User booker = users.get(booking.getBookerId());
+            if (item != null && booker != null) {
+                bookings.add(new Booking(booking.getId(), booking.getStart(), booking.getEnd(), item, booker,
+                        booking.getStatus(), null));
+            }
+        }
+        return bookings;
+    }
+}
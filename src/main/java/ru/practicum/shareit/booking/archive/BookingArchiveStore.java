@@ -0,0 +1,250 @@
+package ru.practicum.shareit.booking.archive;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Хранилище архивных бронирований: по одному сжатому файлу на месяц окончания бронирования.
+ *
+ * <p>В памяти постоянно лежат только оглавления месяцев ({@link BookingArchiveIndex}), они же хранятся
+ * рядом с файлами месяцев. Сами месяцы читаются по требованию в кеш из {@code cachedMonths} записей,
+ * и читаются только те, где по оглавлению есть нужный пользователь или вещь.
+ *
+ * <p>При нескольких узлах каталог должен быть общим: архиватор работает на одном узле за раз,
+ * а остальные перечитывают изменённый месяц по ключу {@code bookingArchive:<месяц>} шины инвалидации.
+ * Файлы лежат в подкаталоге поколения базы ({@link BookingArchiveGeneration}), поэтому архив
+ * пересозданной базы не смешивается с прежним.
+ */
+@Component
+@Slf4j
+public class BookingArchiveStore implements InvalidationListener {
+
+    private static final Pattern FILE_NAME = Pattern.compile("bookings-(\\d{4}-\\d{2})\\.col\\.gz");
+    private static final String PREFIX = CacheNames.BOOKING_ARCHIVE + ":";
+
+    private final Path directory;
+    private final NavigableMap<YearMonth, BookingArchiveIndex> indexes =
+            new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+    private final Cache<YearMonth, BookingArchiveSegment> segments;
+
+    @Autowired
+    public BookingArchiveStore(BookingArchiveProperties properties, BookingArchiveGeneration generation,
+                               MeterRegistry meterRegistry) {
+        this(Paths.get(properties.getDirectory()).resolve(generation.current()), properties.getCachedMonths(),
+                meterRegistry);
+    }
+
+    BookingArchiveStore(Path directory, int cachedMonths, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segments = Caffeine.newBuilder()
+                .maximumSize(cachedMonths)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, segments, "bookingArchive");
+        scan();
+        log.info("Архив бронирований {}: {} мес.", directory.toAbsolutePath(), indexes.size());
+    }
+
+    public boolean isEmpty() {
+        return indexes.isEmpty();
+    }
+
+    public synchronized void append(YearMonth month, Collection<ArchivedBooking> bookings) {
+        Map<Long, ArchivedBooking> merged = new LinkedHashMap<>();
+        if (indexes.containsKey(month)) {
+            segment(month).all().forEach(booking -> merged.put(booking.getId(), booking));
+        }
+        bookings.forEach(booking -> merged.put(booking.getId(), booking));
+        BookingArchiveSegment segment = BookingArchiveSegment.of(new ArrayList<>(merged.values()));
+        BookingArchiveIndex index = segment.index();
+        try {
+            Files.createDirectories(directory);
+            writeAtomically(file(month), segment::write);
+            writeAtomically(indexFile(month), index::write);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(month, segment);
+        indexes.put(month, index);
+    }
+
+    public Optional<ArchivedBooking> findById(long id) {
+        for (Map.Entry<YearMonth, BookingArchiveIndex> entry : indexes.entrySet()) {
+            if (!entry.getValue().mayContainId(id)) {
+                continue;
+            }
+            ArchivedBooking booking = segment(entry.getKey()).findById(id);
+            if (booking != null) {
+                return Optional.of(booking);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<ArchivedBooking> findByBookerId(long bookerId) {
+        List<ArchivedBooking> result = new ArrayList<>();
+        for (YearMonth month : months(index -> index.containsBooker(bookerId))) {
+            segment(month).findByBookerId(bookerId, result);
+        }
+        return result;
+    }
+
+    public List<ArchivedBooking> findByOwnerId(long ownerId) {
+        List<ArchivedBooking> result = new ArrayList<>();
+        for (YearMonth month : months(index -> index.containsOwner(ownerId))) {
+            segment(month).findByOwnerId(ownerId, result);
+        }
+        return result;
+    }
+
+    public boolean hasOwner(long ownerId) {
+        return indexes.values().stream().anyMatch(index -> index.containsOwner(ownerId));
+    }
+
+    /**
+     * Последнее по окончанию архивное бронирование вещи. Месяцы упорядочены по окончанию,
+     * поэтому достаточно самого позднего месяца, где вещь встречается.
+     */
+    public Optional<ArchivedBooking> findLastByItemId(long itemId) {
+        for (YearMonth month : months(index -> index.containsItem(itemId))) {
+            List<ArchivedBooking> bookings = new ArrayList<>();
+            segment(month).findByItemId(itemId, bookings);
+            return bookings.stream().max(Comparator.comparing(ArchivedBooking::getEnd));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key.startsWith(PREFIX)) {
+            reload(YearMonth.parse(key.substring(PREFIX.length())));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        segments.invalidateAll();
+        scan();
+    }
+
+    private List<YearMonth> months(Predicate<BookingArchiveIndex> filter) {
+        List<YearMonth> result = new ArrayList<>();
+        indexes.forEach((month, index) -> {
+            if (filter.test(index)) {
+                result.add(month);
+            }
+        });
+        return result;
+    }
+
+    private void scan() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    reload(YearMonth.parse(matcher.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Перечитывает оглавление месяца с диска; если оглавления нет, строит его по файлу месяца.
+     */
+    private synchronized void reload(YearMonth month) {
+        segments.invalidate(month);
+        if (!Files.exists(file(month))) {
+            indexes.remove(month);
+            return;
+        }
+        Path indexFile = indexFile(month);
+        try {
+            if (Files.exists(indexFile)) {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(new GZIPInputStream(Files.newInputStream(indexFile))))) {
+                    indexes.put(month, BookingArchiveIndex.read(in));
+                    return;
+                }
+            }
+            BookingArchiveIndex index = segment(month).index();
+            writeAtomically(indexFile, index::write);
+            indexes.put(month, index);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BookingArchiveSegment segment(YearMonth month) {
+        return segments.get(month, this::load);
+    }
+
+    private BookingArchiveSegment load(YearMonth month) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file(month)))))) {
+            return BookingArchiveSegment.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeAtomically(Path target, Writer writer) throws IOException {
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            writer.write(out);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path file(YearMonth month) {
+        return directory.resolve("bookings-" + month + ".col.gz");
+    }
+
+    private Path indexFile(YearMonth month) {
+        return directory.resolve("bookings-" + month + ".idx.gz");
+    }
+
+    private interface Writer {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+}
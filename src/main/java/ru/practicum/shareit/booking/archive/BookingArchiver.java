@@ -0,0 +1,94 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.db.SqlPlatform;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Переносит завершённые бронирования старше горизонта из таблицы bookings в архив.
+ *
+ * <p>Файл архива пишется до удаления строк, а запись в архив идемпотентна по id,
+ * поэтому прерванный перенос безопасно повторяется при следующем запуске.
+ *
+ * <p>На PostgreSQL пачку переносит только узел, взявший advisory-блокировку: файлы архива общие,
+ * и два узла не должны дописывать один месяц одновременно. Остальные узлы перечитывают изменённые
+ * месяцы по инвалидации {@link CacheNames#BOOKING_ARCHIVE}.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class BookingArchiver {
+
+    private static final long ARCHIVE_LOCK = 0x5348415243484956L;
+
+    private final BookingRepository bookingRepository;
+    private final BookingArchiveStore bookingArchiveStore;
+    private final BookingArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<BookingPartitionMaintainer> partitionMaintainer;
+    private final InvalidationBus invalidationBus;
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlPlatform sqlPlatform;
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getHorizon());
+        int total = 0;
+        Integer archived;
+        do {
+            archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            total += archived == null ? 0 : archived;
+        } while (archived != null && archived == properties.getBatchSize());
+        if (total > 0) {
+            log.info("В архив перенесено {} бронирований, завершённых до {}", total, cutoff);
+        }
+        partitionMaintainer.ifAvailable(maintainer -> maintainer.dropEmptyPartitionsBefore(YearMonth.from(cutoff)));
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        if (sqlPlatform.isPostgres() && !Boolean.TRUE.equals(jdbcTemplate
+                .queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ARCHIVE_LOCK))) {
+            log.info("Архив бронирований переносит другой узел");
+            return 0;
+        }
+        List<Booking> bookings = bookingRepository
+                .findByEndBeforeOrderByIdAsc(cutoff, PageRequest.of(0, properties.getBatchSize()));
+        if (bookings.isEmpty()) {
+            return 0;
+        }
+        Map<YearMonth, List<ArchivedBooking>> byMonth = bookings.stream()
+                .map(ArchivedBooking::of)
+                .collect(Collectors.groupingBy(booking -> YearMonth.from(booking.getEnd())));
+        byMonth.forEach((month, archived) -> {
+            bookingArchiveStore.append(month, archived);
+            invalidationBus.invalidate(CacheNames.BOOKING_ARCHIVE, month);
+        });
+        bookings.stream()
+                .map(booking -> booking.getItem().getOwner().getId())
+                .distinct()
+                .forEach(ownerId -> {
+                    invalidationBus.invalidate(CacheNames.BOOKING_SUMMARY, ownerId + ":" + true);
+                    invalidationBus.invalidate(CacheNames.BOOKING_SUMMARY, ownerId + ":" + false);
+                });
+        bookingRepository.deleteAllByIdInBatch(bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList()));
+        return bookings.size();
+    }
+}
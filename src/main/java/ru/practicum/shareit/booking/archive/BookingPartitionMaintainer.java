@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.archive;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Создаёт месячные секции таблицы bookings заранее и удаляет опустевшие секции после архивации.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.archive.partitioning", havingValue = "true")
+@AllArgsConstructor
+@Slf4j
+public class BookingPartitionMaintainer {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'bookings_p'yyyy_MM");
+    private static final Pattern PARTITION_PATTERN = Pattern.compile("bookings_p(\\d{4})_(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingArchiveProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.archive.partition-cron:0 0 3 * * *}")
+    public void createPartitions() {
+        YearMonth from = YearMonth.from(LocalDateTime.now().minus(properties.getHorizon()));
+        ensurePartitions(from, YearMonth.now().plusMonths(properties.getPartitionMonthsAhead()));
+    }
+
+    public void ensurePartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            String name = month.format(PARTITION_NAME);
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF bookings FOR VALUES FROM ('%s') TO ('%s')",
+                        name, month.atDay(1), month.plusMonths(1).atDay(1)));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось создать секцию {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    public void dropEmptyPartitionsBefore(YearMonth month) {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'bookings'", String.class);
+        for (String name : partitions) {
+            Matcher matcher = PARTITION_PATTERN.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth partitionMonth = YearMonth.of(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)));
+            if (partitionMonth.isBefore(month)
+                    && !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class))) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+                log.info("Удалена пустая секция {}", name);
+            }
+        }
+    }
+}
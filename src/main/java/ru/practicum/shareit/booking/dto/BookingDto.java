@@ -1,19 +1,25 @@
 package ru.practicum.shareit.booking.dto;
 
-
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.fields.FieldSelection;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER)
 public class BookingDto {
 
+    public static final Set<String> FIELDS = Set.of("id", "start", "end", "item", "booker", "status",
+            "seriesId");
+
     private Long id;
 
     @NotNull(message = "Дата начала бронирования не может быть пустой")
@@ -27,4 +33,6 @@ public class BookingDto {
     private User booker;
 
     private Status status;
+
+    private Long seriesId;
 }
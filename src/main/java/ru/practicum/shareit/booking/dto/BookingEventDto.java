@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.status.Status;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingEventDto {
+
+    private Long bookingId;
+
+    private Long itemId;
+
+    private Long bookerId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private Status status;
+}
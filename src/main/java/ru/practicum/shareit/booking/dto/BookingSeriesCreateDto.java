@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.status.Frequency;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingSeriesCreateDto {
+
+    private Long itemId;
+
+    @NotNull(message = "Поле не может быть пустым")
+    private LocalDateTime start;
+
+    @NotNull(message = "Поле не может быть пустым")
+    private LocalDateTime end;
+
+    @NotNull(message = "Поле не может быть пустым")
+    private Frequency frequency;
+
+    private Integer occurrences;
+
+    private LocalDateTime until;
+}
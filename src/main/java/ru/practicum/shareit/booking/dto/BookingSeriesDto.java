@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.status.Frequency;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingSeriesDto {
+
+    private Long id;
+
+    private Long itemId;
+
+    private Long bookerId;
+
+    private Frequency frequency;
+
+    private List<BookingDto> bookings;
+}
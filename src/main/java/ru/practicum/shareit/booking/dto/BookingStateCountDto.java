@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingStateCountDto {
+
+    private Long itemId;
+    private Long all;
+    private Long current;
+    private Long past;
+    private Long future;
+    private Long waiting;
+    private Long rejected;
+    private Long approved;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class WaitlistEntryDto {
+
+    private Long id;
+
+    private Long itemId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private int position;
+}
@@ -15,7 +15,8 @@ public class BookingMapper {
                 bookingDto.getEnd(),
                 bookingDto.getItem(),
                 bookingDto.getBooker(),
-                bookingDto.getStatus());
+                bookingDto.getStatus(),
+                bookingDto.getSeriesId());
     }
 
     public static BookingDto toBookingDto(Booking booking) {
@@ -25,7 +26,8 @@ public class BookingMapper {
                 booking.getEnd(),
                 booking.getItem(),
                 booking.getBooker(),
-                booking.getStatus());
+                booking.getStatus(),
+                booking.getSeriesId());
     }
 
     public static Booking toBookingCreate(BookingCreateDto bookingDto) {
@@ -35,7 +37,8 @@ public class BookingMapper {
                 bookingDto.getEnd(),
                 null,
                 null,
-                Status.WAITING);
+                Status.WAITING,
+                null);
     }
 
     public static BookingItemDto toBookingDtoForItem(Booking booking) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.model;
 
 import lombok.*;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.booking.status.Status;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -18,10 +19,14 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity
 @Table(name = "bookings", schema = "public")
+@Where(clause = "NOT EXISTS (SELECT 1 FROM items i WHERE i.item_id = item_id AND (i.deleted "
+        + "OR EXISTS (SELECT 1 FROM users o WHERE o.user_id = i.owner_id AND o.deleted))) "
+        + "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = booker_id AND u.deleted)")
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id")
     private Long id;
 
@@ -35,10 +40,12 @@ public class Booking {
 
     @ManyToOne
     @JoinColumn(name = "item_id", nullable = false)
+    @ToString.Exclude
     private Item item;
 
     @ManyToOne
     @JoinColumn(name = "booker_id", nullable = false)
+    @ToString.Exclude
     private User booker;
 
     @NotNull(message = "Статус бронирования не может быть пустым")
@@ -46,6 +53,9 @@ public class Booking {
     @Column(name = "status")
     private Status status;
 
+    @Column(name = "series_id")
+    private Long seriesId;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+import ru.practicum.shareit.booking.status.Frequency;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Повторяющееся бронирование: первое занятие и правило повторения.
+ * Сами занятия хранятся обычными бронированиями со ссылкой на серию.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "booking_series", schema = "public")
+public class BookingSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "series_id")
+    private Long id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false)
+    private Frequency frequency;
+
+    @Column(name = "occurrences", nullable = false)
+    private int occurrences;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        BookingSeries series = (BookingSeries) o;
+        return id != null && Objects.equals(id, series.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
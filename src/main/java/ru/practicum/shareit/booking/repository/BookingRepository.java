@@ -1,14 +1,20 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.dto.BookingStateCountDto;
+import ru.practicum.shareit.booking.dto.ItemBookingCountDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.status.Status;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     List<Booking> findByBookerIdOrderByStartDesc(Long userId);
 
@@ -27,6 +33,8 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> searchBookingByItemOwnerId(Long id);
 
+    boolean existsByItemOwnerId(Long id);
+
     List<Booking> searchBookingByItemOwnerIdAndStartIsAfterOrderByStartDesc(Long id, LocalDateTime time);
 
     List<Booking> findBookingsByItemOwnerIdOrderByStartDesc(Long id);
@@ -46,4 +54,66 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findBookingsByItemIdAndEndIsBeforeOrderByEndDesc(Long id, LocalDateTime time);
 
     List<Booking> findBookingsByItemIdAndStartIsAfterOrderByStartDesc(Long id, LocalDateTime time);
-}
\ No newline at end of file
+
+    List<Booking> findByEndBeforeOrderByIdAsc(LocalDateTime time, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingStateCountDto(b.item.id, count(b), " +
+            "sum(case when ?2 between b.start and b.end then 1 else 0 end), " +
+            "sum(case when b.end < ?2 then 1 else 0 end), " +
+            "sum(case when b.start > ?2 then 1 else 0 end), " +
+            "sum(case when b.status = ru.practicum.shareit.booking.status.Status.WAITING then 1 else 0 end), " +
+            "sum(case when b.status = ru.practicum.shareit.booking.status.Status.REJECTED then 1 else 0 end), " +
+            "sum(case when b.status = ru.practicum.shareit.booking.status.Status.APPROVED then 1 else 0 end)) " +
+            "from Booking b " +
+            "where b.item.owner.id = ?1 " +
+            "group by b.item.id " +
+            "order by b.item.id")
+    List<BookingStateCountDto> countBookingsByItemOwnerIdGroupByItem(Long userId, LocalDateTime time);
+
+    @Query("select new ru.practicum.shareit.booking.dto.ItemBookingCountDto(b.item.id, count(b)) " +
+            "from Booking b " +
+            "group by b.item.id")
+    List<ItemBookingCountDto> countBookingsGroupByItem();
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingEventDto(b.id, b.item.id, b.booker.id, " +
+            "b.start, b.end, b.status) " +
+            "from Booking b " +
+            "where b.status = ?1 and b.id > ?2 " +
+            "order by b.id")
+    List<BookingEventDto> findEventsByStatusAndIdGreaterThan(Status status, Long id, Pageable pageable);
+
+    @Query("select b from Booking b join fetch b.booker " +
+            "where b.item.id in ?1 " +
+            "and ((b.end < ?2 and b.end = (select max(l.end) from Booking l " +
+            "where l.item = b.item and l.end < ?2)) " +
+            "or (b.start > ?2 and b.start = (select max(n.start) from Booking n " +
+            "where n.item = b.item and n.start > ?2))) " +
+            "order by b.id")
+    List<Booking> findLastAndNextBookingsByItemIdIn(Collection<Long> itemIds, LocalDateTime time);
+
+    @Query("select b from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.status = ?2 " +
+            "and b.start < ?4 and b.end > ?3")
+    List<Booking> findByItemIdInAndStatusOverlapping(Collection<Long> itemIds, Status status,
+                                                     LocalDateTime from, LocalDateTime to);
+
+    @Query("select b from Booking b " +
+            "where b.item.id = ?1 " +
+            "and b.status in ?2 " +
+            "and b.start < ?4 and b.end > ?3")
+    List<Booking> findByItemIdAndStatusInOverlapping(Long itemId, Collection<Status> statuses,
+                                                     LocalDateTime from, LocalDateTime to);
+
+    List<Booking> findBySeriesIdOrderByStartAsc(Long seriesId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = ?2 where b.seriesId = ?1 and b.status = ?3")
+    int updateStatusBySeriesId(Long seriesId, Status status, Status currentStatus);
+
+    @Query(value = "SELECT booking_id FROM bookings WHERE item_id = ?1 ORDER BY booking_id", nativeQuery = true)
+    List<Long> findIdsByItemId(Long itemId, Pageable pageable);
+
+    @Query(value = "SELECT booking_id FROM bookings WHERE booker_id = ?1 ORDER BY booking_id", nativeQuery = true)
+    List<Long> findIdsByBookerId(Long bookerId, Pageable pageable);
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.status.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Бронирования арендатора или, при {@code byOwner}, владельца вещей в состоянии {@code state},
+     * отсортированные по началу от поздних к ранним. Выбираются только столбцы самого бронирования:
+     * вещь, её владелец и арендатор не загружаются, поля {@code item} и {@code booker} остаются пустыми.
+     */
+    List<BookingDto> findWithoutRelations(Long userId, boolean byOwner, State state, LocalDateTime now);
+}
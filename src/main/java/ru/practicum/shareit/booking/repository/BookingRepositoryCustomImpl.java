@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.AllArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.status.State;
+import ru.practicum.shareit.booking.status.Status;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@AllArgsConstructor
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+
+    private static final String COLUMNS = "select b.id, b.start, b.end, b.status, b.seriesId from Booking b ";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findWithoutRelations(Long userId, boolean byOwner, State state, LocalDateTime now) {
+        StringBuilder jpql = new StringBuilder(COLUMNS)
+                .append(byOwner ? "where b.item.owner.id = :userId " : "where b.booker.id = :userId ");
+        switch (state) {
+            case CURRENT:
+                jpql.append("and :now between b.start and b.end ");
+                break;
+            case PAST:
+                jpql.append("and b.end < :now ");
+                break;
+            case FUTURE:
+                jpql.append("and b.start > :now ");
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append("and b.status = :status ");
+                break;
+            default:
+                break;
+        }
+        jpql.append("order by b.start desc");
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("userId", userId);
+        if (jpql.indexOf(":now") >= 0) {
+            query.setParameter("now", now);
+        }
+        if (jpql.indexOf(":status") >= 0) {
+            query.setParameter("status", Status.valueOf(state.name()));
+        }
+        return query.getResultList().stream()
+                .map(row -> new BookingDto((Long) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2], null, null,
+                        (Status) row[3], (Long) row[4]))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.BookingSeries;
+
+public interface BookingSeriesRepository extends JpaRepository<BookingSeries, Long> {
+
+    @Modifying
+    @Query("delete from BookingSeries s where s.itemId = ?1")
+    int deleteByItemId(Long itemId);
+
+    @Modifying
+    @Query("delete from BookingSeries s where s.bookerId = ?1")
+    int deleteByBookerId(Long bookerId);
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingSeriesCreateDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+
+public interface BookingSeriesService {
+
+    BookingSeriesDto createSeries(Long userId, BookingSeriesCreateDto seriesDto);
+
+    BookingSeriesDto getSeries(Long userId, Long seriesId);
+
+    BookingSeriesDto patchSeries(Long userId, Long seriesId, Boolean approved);
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingSeriesCreateDto;
+import ru.practicum.shareit.booking.dto.BookingSeriesDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingSeries;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSeriesRepository;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.exceptions.BookingException;
+import ru.practicum.shareit.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class BookingSeriesServiceImpl implements BookingSeriesService {
+
+    private static final int MAX_OCCURRENCES = 104;
+
+    private final BookingRepository bookingRepository;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final OutboxService outboxService;
+
+    @Override
+    @Transactional
+    public BookingSeriesDto createSeries(Long userId, BookingSeriesCreateDto seriesDto) {
+        validateSeries(seriesDto);
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Пользователь %s не существует.", userId)));
+        itemRepository.lockByIdIn(List.of(seriesDto.getItemId()));
+        Item item = itemRepository.findById(seriesDto.getItemId())
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Вещь %s не существует.", seriesDto.getItemId())));
+        if (item.getOwner().getId().equals(userId)) {
+            log.error("Владелец вещи не может забронировать свою вещь");
+            throw new EntityNotFoundException("Владелец вещи не может забронировать свою вещь");
+        }
+        if (!item.getAvailable()) {
+            log.error("Вещь {} не доступна для бронирования.", item.getId());
+            throw new ValidationException(String.format("Вещь %s не доступна для бронирования.", item.getId()));
+        }
+        List<Booking> occurrences = expand(seriesDto, booker, item);
+        Booking last = occurrences.get(occurrences.size() - 1);
+        List<Booking> taken = bookingRepository.findByItemIdInAndStatusOverlapping(List.of(item.getId()),
+                Status.APPROVED, seriesDto.getStart(), last.getEnd());
+        for (Booking occurrence : occurrences) {
+            for (Booking other : taken) {
+                if (other.getStart().isBefore(occurrence.getEnd()) && other.getEnd().isAfter(occurrence.getStart())) {
+                    log.error("Вещь {} уже забронирована на {}", item.getId(), occurrence.getStart());
+                    throw new BookingException(String.format("Вещь %s уже забронирована на %s.",
+                            item.getId(), occurrence.getStart()));
+                }
+            }
+        }
+        BookingSeries series = bookingSeriesRepository.save(new BookingSeries(null, item.getId(), userId,
+                seriesDto.getStart(), seriesDto.getEnd(), seriesDto.getFrequency(), occurrences.size()));
+        occurrences.forEach(booking -> booking.setSeriesId(series.getId()));
+        List<Booking> created = bookingRepository.saveAll(occurrences);
+        created.forEach(booking -> outboxService.publish(booking, OutboxEventType.CREATED));
+        log.info("Создана серия бронирований с id {} из {} занятий", series.getId(), created.size());
+        return toSeriesDto(series, created);
+    }
+
+    @Override
+    public BookingSeriesDto getSeries(Long userId, Long seriesId) {
+        BookingSeries series = findSeries(seriesId);
+        Item item = itemRepository.findById(series.getItemId())
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Вещь %s не существует.", series.getItemId())));
+        if (!series.getBookerId().equals(userId) && !item.getOwner().getId().equals(userId)) {
+            log.error("Пользователь {} не осущетвлял бронирование", userId);
+            throw new EntityNotFoundException(String.format("Пользователь %s не осуществлял бронирование.", userId));
+        }
+        log.info("Серия бронирований с id {}", seriesId);
+        return toSeriesDto(series, bookingRepository.findBySeriesIdOrderByStartAsc(seriesId));
+    }
+
+    @Override
+    @Transactional
+    public BookingSeriesDto patchSeries(Long userId, Long seriesId, Boolean approved) {
+        if (approved == null) {
+            log.error("Необходимо указать статус возможности аренды (approved).");
+            throw new BookingException("Необходимо указать статус возможности аренды (approved).");
+        }
+        BookingSeries series = findSeries(seriesId);
+        Item item = itemRepository.findById(series.getItemId())
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Вещь %s не существует.", series.getItemId())));
+        if (!item.getOwner().getId().equals(userId)) {
+            log.error("Подтвердить бронирование может только владелец вещи");
+            throw new EntityNotFoundException("Подтвердить бронирование может только владелец вещи");
+        }
+        List<Booking> bookings = bookingRepository.findBySeriesIdOrderByStartAsc(seriesId);
+        List<Booking> waiting = bookings.stream()
+                .filter(booking -> booking.getStatus() == Status.WAITING)
+                .collect(Collectors.toList());
+        if (waiting.isEmpty()) {
+            log.error("В серии {} нет бронирований, ожидающих подтверждения", seriesId);
+            throw new BookingException("В серии нет бронирований, ожидающих подтверждения");
+        }
+        if (approved) {
+            itemRepository.lockByIdIn(List.of(item.getId()));
+        }
+        Status status = approved ? Status.APPROVED : Status.REJECTED;
+        OutboxEventType eventType = approved ? OutboxEventType.APPROVED : OutboxEventType.REJECTED;
+        bookingRepository.updateStatusBySeriesId(seriesId, status, Status.WAITING);
+        for (Booking booking : waiting) {
+            booking.setStatus(status);
+            outboxService.publish(booking, eventType);
+        }
+        log.info("Серия бронирований с id {}: {} занятий переведены в {}", seriesId, waiting.size(), status);
+        return toSeriesDto(series, bookings);
+    }
+
+    private BookingSeries findSeries(Long seriesId) {
+        return bookingSeriesRepository.findById(seriesId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Серия бронирований %s не существует.", seriesId)));
+    }
+
+    private List<Booking> expand(BookingSeriesCreateDto seriesDto, User booker, Item item) {
+        List<Booking> occurrences = new ArrayList<>();
+        Duration length = Duration.between(seriesDto.getStart(), seriesDto.getEnd());
+        for (int n = 0; ; n++) {
+            LocalDateTime start = seriesDto.getFrequency().shift(seriesDto.getStart(), n);
+            if (seriesDto.getOccurrences() != null ? n >= seriesDto.getOccurrences()
+                    : start.isAfter(seriesDto.getUntil())) {
+                break;
+            }
+            if (n == MAX_OCCURRENCES) {
+                log.error("В серии больше {} занятий", MAX_OCCURRENCES);
+                throw new ValidationException(
+                        String.format("В серии не может быть больше %s занятий.", MAX_OCCURRENCES));
+            }
+            occurrences.add(new Booking(null, start, start.plus(length), item, booker, Status.WAITING, null));
+        }
+        return occurrences;
+    }
+
+    private BookingSeriesDto toSeriesDto(BookingSeries series, List<Booking> bookings) {
+        return new BookingSeriesDto(series.getId(), series.getItemId(), series.getBookerId(), series.getFrequency(),
+                bookings.stream()
+                        .map(BookingMapper::toBookingDto)
+                        .collect(Collectors.toList()));
+    }
+
+    private void validateSeries(BookingSeriesCreateDto seriesDto) {
+        if (seriesDto.getStart().isBefore(LocalDateTime.now())) {
+            log.error("ValidationException (Нельзя забронировать вещь в прошедшем времени)");
+            throw new ValidationException("Бронь в прошедшем времени");
+        }
+        if (seriesDto.getEnd().isBefore(seriesDto.getStart())) {
+            log.error("ValidationException (Нельзя завершить бронь раньше ее регистрации)");
+            throw new ValidationException("Завершение брони раньше ее регистрации");
+        }
+        if ((seriesDto.getOccurrences() == null) == (seriesDto.getUntil() == null)) {
+            log.error("ValidationException (Нужно указать либо число занятий, либо дату окончания серии)");
+            throw new ValidationException("Нужно указать либо число занятий, либо дату окончания серии");
+        }
+        if (seriesDto.getOccurrences() != null && seriesDto.getOccurrences() < 1) {
+            log.error("ValidationException (Число занятий должно быть положительным)");
+            throw new ValidationException("Число занятий должно быть положительным");
+        }
+        if (seriesDto.getFrequency().shift(seriesDto.getStart(), 1).isBefore(seriesDto.getEnd())) {
+            log.error("ValidationException (Занятия серии пересекаются)");
+            throw new ValidationException("Занятие длиннее интервала повторения");
+        }
+    }
+}
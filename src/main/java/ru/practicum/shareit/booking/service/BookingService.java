@@ -3,20 +3,26 @@ package ru.practicum.shareit.booking.service;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
+import ru.practicum.shareit.fields.FieldSelection;
 
 import java.util.List;
 
 @Service
 public interface BookingService {
 
-    List<BookingDto> getAllBookings(Long userId, String stateParam);
+    List<BookingDto> getAllBookings(Long userId, String stateParam, FieldSelection fields);
 
     BookingDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingDto> getAllBookingItemsUser(Long userId, String stateParam);
+    List<BookingDto> getAllBookingItemsUser(Long userId, String stateParam, FieldSelection fields);
+
+    BookingSummaryDto getBookingSummary(Long userId, boolean byItem);
 
     BookingDto createBooking(Long userId, BookingCreateDto bookingDto);
 
+    List<BookingDto> createBookings(Long userId, List<BookingCreateDto> bookingDtos);
+
     BookingDto patchBooking(Long userId, Long bookingId, Boolean approved);
 
     void removeBookingById(Long bookingId);
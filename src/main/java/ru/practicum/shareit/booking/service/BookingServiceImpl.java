@@ -2,25 +2,43 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.archive.ArchivedBooking;
+import ru.practicum.shareit.booking.archive.BookingArchiveService;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStateCountDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.status.State;
 import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.cache.CacheNames;
 import ru.practicum.shareit.exceptions.BookingException;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSelection;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.logging.EventLog;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxService;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingDto;
@@ -31,130 +49,159 @@ import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingDto;
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    private static final int MAX_CART_SIZE = 50;
+
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final OutboxService outboxService;
+    private final BookingArchiveService bookingArchiveService;
+    private final EventLog eventLog;
 
     @Override
-    public List<BookingDto> getAllBookings(Long userId, String stateParam) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Пользователь %s не существует.", userId)));
+    public List<BookingDto> getAllBookings(Long userId, String stateParam, FieldSelection fields) {
+        if (!fields.includes("item") && !fields.includes("booker")) {
+            eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
+            return withoutRelations(userId, false, State.valueOf(stateParam),
+                    () -> bookingArchiveService.findByBookerId(userId));
+        }
         switch (State.valueOf(stateParam)) {
             case CURRENT:
-                log.info("Все бронирования пользователя {} со статусом {}", userId, stateParam);
+                eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
                 return bookingRepository
                         .findCurrentBookingsByBookerIdOrderByStartDesc(userId, LocalDateTime.now())
                         .stream()
                         .map(BookingMapper::toBookingDto)
                         .collect(Collectors.toList());
             case PAST:
-                log.info("Все бронирования пользователя {} со статусом {}", userId, stateParam);
-                return bookingRepository
-                        .findBookingsByBookerIdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now())
-                        .stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
+                return withArchived(bookingRepository
+                        .findBookingsByBookerIdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now()),
+                        bookingArchiveService.findByBookerId(userId));
             case FUTURE:
-                log.info("Все бронирования пользователя {} со статусом {}", userId, stateParam);
+                eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
                 return bookingRepository
                         .findByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now())
                         .stream()
                         .map(BookingMapper::toBookingDto)
                         .collect(Collectors.toList());
             case WAITING:
-                log.info("Все бронирования пользователя {} со статусом {}", userId, stateParam);
-                return bookingRepository
-                        .findBookingsByBookerIdAndStatusOrderByStartDesc(userId, Status.WAITING)
-                        .stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
+                return withArchived(bookingRepository
+                        .findBookingsByBookerIdAndStatusOrderByStartDesc(userId, Status.WAITING),
+                        withStatus(bookingArchiveService.findByBookerId(userId), Status.WAITING));
             case REJECTED:
-                log.info("Все бронирования пользователя {} со статусом {}", userId, stateParam);
-                return bookingRepository
-                        .findBookingsByBookerIdAndStatusOrderByStartDesc(userId, Status.REJECTED)
-                        .stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
+                return withArchived(bookingRepository
+                        .findBookingsByBookerIdAndStatusOrderByStartDesc(userId, Status.REJECTED),
+                        withStatus(bookingArchiveService.findByBookerId(userId), Status.REJECTED));
             default:
-                log.info("Все бронирования пользователя {} ", userId);
-                return bookingRepository
-                        .findByBookerIdOrderByStartDesc(userId)
-                        .stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("bookings-listed", "bookerId", userId, "state", stateParam);
+                return withArchived(bookingRepository
+                        .findByBookerIdOrderByStartDesc(userId),
+                        bookingArchiveService.findByBookerId(userId));
         }
     }
 
     @Override
     public BookingDto getBookingById(Long userId, Long bookingId) {
 
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException(
-                String.format("Бронирование %s не существует.", bookingId)));
+        Booking booking = bookingRepository.findById(bookingId)
+                .or(() -> bookingArchiveService.findById(bookingId))
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Бронирование %s не существует.", bookingId)));
         if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
             log.error("Пользователь {} не осущетвлял бронирование", userId);
             throw new EntityNotFoundException(String.format("Пользователь %s не осуществлял бронирование.", userId));
         }
-        log.info("Бронироавние с id {}: {}", userId, booking);
+        eventLog.log("booking-viewed", "bookingId", bookingId, "userId", userId);
         return toBookingDto(booking);
     }
 
     @Override
-    public List<BookingDto> getAllBookingItemsUser(Long userId, String stateParam) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Пользователь %s не существует.", userId)));
-        List<BookingDto> bookingsUserList = bookingRepository.searchBookingByItemOwnerId(userId)
-                .stream()
-                .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
-
-        if (bookingsUserList.isEmpty()) {
+    public List<BookingDto> getAllBookingItemsUser(Long userId, String stateParam, FieldSelection fields) {
+        if (!bookingRepository.existsByItemOwnerId(userId) && !bookingArchiveService.hasOwner(userId)) {
             throw new EntityNotFoundException("У пользователя нет вещей");
         }
+        if (!fields.includes("item") && !fields.includes("booker")) {
+            eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
+            return withoutRelations(userId, true, State.valueOf(stateParam),
+                    () -> bookingArchiveService.findByItemOwnerId(userId));
+        }
 
         switch (State.valueOf(stateParam)) {
             case CURRENT:
-                log.info("Текущие бронирования владельца с id {} ", userId);
+                eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
                 return bookingRepository
                         .findCurrentBookingsByItemOwnerIdOrderByStartDesc(userId, LocalDateTime.now())
                         .stream()
                         .map(BookingMapper::toBookingDto)
                         .collect(Collectors.toList());
             case PAST:
-                log.info("Прошедшие бронирования владельца с id {} ", userId);
-                return bookingRepository
-                        .findBookingsByItemOwnerIdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now())
-                        .stream()
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
+                return withArchived(bookingRepository
+                        .findBookingsByItemOwnerIdAndEndIsBeforeOrderByStartDesc(userId, LocalDateTime.now()),
+                        bookingArchiveService.findByItemOwnerId(userId));
             case FUTURE:
-                log.info("Будущие бронирования владельца с id {} ", userId);
+                eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
                 return bookingRepository
                         .searchBookingByItemOwnerIdAndStartIsAfterOrderByStartDesc(userId, LocalDateTime.now())
                         .stream()
                         .map(BookingMapper::toBookingDto)
                         .collect(Collectors.toList());
             case WAITING:
-                log.info("Бронирования в ожидании владельца с id {} ", userId);
-                return bookingRepository
-                        .findBookingsByItemOwnerIdOrderByStartDesc(userId)
-                        .stream()
-                        .filter(booking -> booking.getStatus().equals(Status.WAITING))
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
+                return withArchived(withStatus(bookingRepository
+                        .findBookingsByItemOwnerIdOrderByStartDesc(userId), Status.WAITING),
+                        withStatus(bookingArchiveService.findByItemOwnerId(userId), Status.WAITING));
             case REJECTED:
-                log.info("Отклонённые бронирования владельца с id {} ", userId);
-                return bookingRepository
-                        .findBookingsByItemOwnerIdOrderByStartDesc(userId).stream()
-                        .filter(booking -> booking.getStatus().equals(Status.REJECTED))
-                        .map(BookingMapper::toBookingDto)
-                        .collect(Collectors.toList());
+                eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
+                return withArchived(withStatus(bookingRepository
+                        .findBookingsByItemOwnerIdOrderByStartDesc(userId), Status.REJECTED),
+                        withStatus(bookingArchiveService.findByItemOwnerId(userId), Status.REJECTED));
             default:
-                log.info("Все бронирования владельца с id {} ", userId);
-                bookingsUserList.sort(Comparator.comparing(BookingDto::getStart).reversed());
-                return bookingsUserList;
+                eventLog.log("owner-bookings-listed", "ownerId", userId, "state", stateParam);
+                return withArchived(bookingRepository.searchBookingByItemOwnerId(userId),
+                        bookingArchiveService.findByItemOwnerId(userId));
+        }
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheNames.BOOKING_SUMMARY, key = "#userId + ':' + #byItem")
+    public BookingSummaryDto getBookingSummary(Long userId, boolean byItem) {
+        Map<Long, BookingStateCountDto> byItemId = new TreeMap<>();
+        for (BookingStateCountDto itemCount : bookingRepository
+                .countBookingsByItemOwnerIdGroupByItem(userId, LocalDateTime.now())) {
+            byItemId.put(itemCount.getItemId(), itemCount);
+        }
+        for (ArchivedBooking booking : bookingArchiveService.findArchivedByItemOwnerId(userId)) {
+            BookingStateCountDto itemCount = byItemId.computeIfAbsent(booking.getItemId(),
+                    itemId -> new BookingStateCountDto(itemId, 0L, 0L, 0L, 0L, 0L, 0L, 0L));
+            itemCount.setAll(itemCount.getAll() + 1);
+            itemCount.setPast(itemCount.getPast() + 1);
+            if (booking.getStatus() == Status.WAITING) {
+                itemCount.setWaiting(itemCount.getWaiting() + 1);
+            } else if (booking.getStatus() == Status.REJECTED) {
+                itemCount.setRejected(itemCount.getRejected() + 1);
+            } else if (booking.getStatus() == Status.APPROVED) {
+                itemCount.setApproved(itemCount.getApproved() + 1);
+            }
+        }
+        Map<State, Long> counts = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            counts.put(state, 0L);
         }
+        for (BookingStateCountDto itemCount : byItemId.values()) {
+            counts.merge(State.ALL, itemCount.getAll(), Long::sum);
+            counts.merge(State.CURRENT, itemCount.getCurrent(), Long::sum);
+            counts.merge(State.PAST, itemCount.getPast(), Long::sum);
+            counts.merge(State.FUTURE, itemCount.getFuture(), Long::sum);
+            counts.merge(State.WAITING, itemCount.getWaiting(), Long::sum);
+            counts.merge(State.REJECTED, itemCount.getRejected(), Long::sum);
+            counts.merge(State.APPROVED, itemCount.getApproved(), Long::sum);
+        }
+        eventLog.log("owner-summary-viewed", "ownerId", userId, "byItem", byItem);
+        return new BookingSummaryDto(counts, byItem ? new ArrayList<>(byItemId.values()) : null);
     }
 
     @Override
@@ -175,7 +222,9 @@ public class BookingServiceImpl implements BookingService {
         if (item.getAvailable()) {
             booking.setItem(item);
             Booking bookingCreate = bookingRepository.save(booking);
-            log.info("Создано бронирование с id {}:{}", bookingCreate.getId(), bookingCreate);
+            outboxService.publish(bookingCreate, OutboxEventType.CREATED);
+            eventLog.log("booking-created", "bookingId", bookingCreate.getId(), "itemId", item.getId(),
+                    "bookerId", userId);
             return toBookingDto(bookingCreate);
         } else {
             log.error("Вещь {} не доступна для бронирования.", item.getId());
@@ -185,6 +234,71 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
+    public List<BookingDto> createBookings(Long userId, List<BookingCreateDto> bookingDtos) {
+        if (bookingDtos.isEmpty() || bookingDtos.size() > MAX_CART_SIZE) {
+            log.error("В корзине должно быть от 1 до {} бронирований.", MAX_CART_SIZE);
+            throw new ValidationException(
+                    String.format("В корзине должно быть от 1 до %s бронирований.", MAX_CART_SIZE));
+        }
+        bookingDtos.forEach(this::validateBooking);
+        User booker = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Пользователь %s не существует.", userId)));
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingCreateDto::getItemId)
+                .collect(Collectors.toSet());
+        itemRepository.lockByIdIn(itemIds);
+        Map<Long, Item> items = itemRepository.findAllWithOwnerByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Long itemId : itemIds) {
+            Item item = items.get(itemId);
+            if (item == null) {
+                throw new EntityNotFoundException(String.format("Вещь %s не существует.", itemId));
+            }
+            if (item.getOwner().getId().equals(userId)) {
+                log.error("Владелец вещи не может забронировать свою вещь");
+                throw new EntityNotFoundException("Владелец вещи не может забронировать свою вещь");
+            }
+            if (!item.getAvailable()) {
+                log.error("Вещь {} не доступна для бронирования.", itemId);
+                throw new ValidationException(String.format("Вещь %s не доступна для бронирования.", itemId));
+            }
+        }
+        LocalDateTime from = bookingDtos.stream().map(BookingCreateDto::getStart)
+                .min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = bookingDtos.stream().map(BookingCreateDto::getEnd)
+                .max(Comparator.naturalOrder()).orElseThrow();
+        Map<Long, List<Booking>> taken = bookingRepository
+                .findByItemIdInAndStatusOverlapping(itemIds, Status.APPROVED, from, to).stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        List<Booking> bookings = new ArrayList<>(bookingDtos.size());
+        for (BookingCreateDto bookingDto : bookingDtos) {
+            List<Booking> itemBookings = taken.computeIfAbsent(bookingDto.getItemId(), id -> new ArrayList<>());
+            for (Booking other : itemBookings) {
+                if (other.getStart().isBefore(bookingDto.getEnd()) && other.getEnd().isAfter(bookingDto.getStart())) {
+                    log.error("Вещь {} уже забронирована на это время.", bookingDto.getItemId());
+                    throw new BookingException(
+                            String.format("Вещь %s уже забронирована на это время.", bookingDto.getItemId()));
+                }
+            }
+            Booking booking = BookingMapper.toBookingCreate(bookingDto);
+            booking.setId(null);
+            booking.setBooker(booker);
+            booking.setItem(items.get(bookingDto.getItemId()));
+            itemBookings.add(booking);
+            bookings.add(booking);
+        }
+        List<Booking> created = bookingRepository.saveAll(bookings);
+        created.forEach(booking -> outboxService.publish(booking, OutboxEventType.CREATED));
+        eventLog.log("bookings-created", "bookerId", userId, "count", created.size());
+        return created.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
     public BookingDto patchBooking(Long userId, Long bookingId, Boolean approved) {
         BookingDto bookingDto = toBookingDto(bookingRepository.findById(bookingId).orElseThrow());
         Booking booking = BookingMapper.toBooking(bookingDto);
@@ -200,15 +314,18 @@ public class BookingServiceImpl implements BookingService {
             log.error("Необходимо указать статус возможности аренды (approved).");
             throw new BookingException("Необходимо указать статус возможности аренды (approved).");
         } else if (approved) {
+            itemRepository.lockByIdIn(List.of(bookingDto.getItem().getId()));
             booking.setStatus(Status.APPROVED);
             Booking bookingSave = bookingRepository.save(booking);
-            log.info("Бронирование с id {} обновлено {}", bookingSave.getId(), bookingSave);
+            outboxService.publish(bookingSave, OutboxEventType.APPROVED);
+            eventLog.log("booking-approved", "bookingId", bookingSave.getId(), "ownerId", userId);
             return toBookingDto(bookingSave);
         } else {
             booking.setStatus(Status.REJECTED);
             booking.setItem(bookingDto.getItem());
             Booking bookingSave = bookingRepository.save(booking);
-            log.info("Бронирование с id {} обновлено :{}", bookingSave.getId(), bookingSave);
+            outboxService.publish(bookingSave, OutboxEventType.REJECTED);
+            eventLog.log("booking-rejected", "bookingId", bookingSave.getId(), "ownerId", userId);
             return toBookingDto(bookingSave);
         }
     }
@@ -216,12 +333,56 @@ public class BookingServiceImpl implements BookingService {
     @Override
     @Transactional
     public void removeBookingById(Long bookingId) {
-        bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException(
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new EntityNotFoundException(
                 String.format("Бронирование %s не существует.", bookingId)));
-        log.info("Бронирование с id {} удалено", bookingId);
+        outboxService.publish(booking, OutboxEventType.DELETED);
+        eventLog.log("booking-deleted", "bookingId", bookingId);
         bookingRepository.deleteById(bookingId);
     }
 
+    /**
+     * Список для {@code fields} без {@code item} и {@code booker}: бронирования читаются одним запросом
+     * по их собственным столбцам, без выборок вещей, владельцев и арендаторов. Архивные добавляются
+     * для тех же состояний, что и в полном списке.
+     */
+    private List<BookingDto> withoutRelations(Long userId, boolean byOwner, State state,
+                                              Supplier<List<Booking>> archive) {
+        List<BookingDto> bookings = new ArrayList<>(
+                bookingRepository.findWithoutRelations(userId, byOwner, state, LocalDateTime.now()));
+        List<Booking> archived;
+        switch (state) {
+            case CURRENT:
+            case FUTURE:
+                return bookings;
+            case WAITING:
+                archived = withStatus(archive.get(), Status.WAITING);
+                break;
+            case REJECTED:
+                archived = withStatus(archive.get(), Status.REJECTED);
+                break;
+            default:
+                archived = archive.get();
+        }
+        archived.forEach(booking -> bookings.add(toBookingDto(booking)));
+        bookings.sort(Comparator.comparing(BookingDto::getStart).reversed());
+        return bookings;
+    }
+
+    private List<BookingDto> withArchived(List<Booking> bookings, List<Booking> archived) {
+        List<Booking> merged = new ArrayList<>(bookings);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(Booking::getStart).reversed());
+        return merged.stream()
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<Booking> withStatus(List<Booking> bookings, Status status) {
+        return bookings.stream()
+                .filter(booking -> booking.getStatus().equals(status))
+                .collect(Collectors.toList());
+    }
+
     private void validateBooking(BookingCreateDto booking) {
         if (booking.getStart().isBefore(LocalDateTime.now())) {
             log.error("ValidationException (Нельзя забронировать вещь в прошедшем времени)");
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+
+/**
+ * Сбрасывает закешированную сводку владельца при любом изменении его бронирований.
+ *
+ * <p>Состояния CURRENT, PAST и FUTURE зависят от текущего времени, поэтому кеш
+ * дополнительно целиком очищается по расписанию.
+ */
+@Component
+@AllArgsConstructor
+public class BookingSummaryCacheEvictor implements OutboxEventListener {
+
+    private final CacheManager cacheManager;
+    private final InvalidationBus invalidationBus;
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        invalidationBus.invalidate(CacheNames.BOOKING_SUMMARY, event.getOwnerId() + ":" + true);
+        invalidationBus.invalidate(CacheNames.BOOKING_SUMMARY, event.getOwnerId() + ":" + false);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.summary.ttl-ms:60000}")
+    public void expire() {
+        Cache cache = cacheManager.getCache(CacheNames.BOOKING_SUMMARY);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
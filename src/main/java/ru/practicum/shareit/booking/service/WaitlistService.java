@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.WaitlistEntryDto;
+
+import java.util.List;
+
+public interface WaitlistService {
+
+    WaitlistEntryDto joinWaitlist(Long userId, BookingCreateDto bookingDto);
+
+    List<WaitlistEntryDto> getWaitlistEntries(Long userId);
+
+    void leaveWaitlist(Long userId, Long entryId);
+}
@@ -0,0 +1,106 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.WaitlistEntryDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.booking.waitlist.WaitlistEntry;
+import ru.practicum.shareit.booking.waitlist.WaitlistEntryRepository;
+import ru.practicum.shareit.booking.waitlist.WaitlistProperties;
+import ru.practicum.shareit.booking.waitlist.WaitlistRegistry;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.exceptions.BookingException;
+import ru.practicum.shareit.exceptions.EntityNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private static final List<Status> ACTIVE = List.of(Status.WAITING, Status.APPROVED);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final WaitlistRegistry registry;
+    private final WaitlistProperties properties;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final InvalidationBus invalidationBus;
+
+    @Override
+    @Transactional
+    public WaitlistEntryDto joinWaitlist(Long userId, BookingCreateDto bookingDto) {
+        if (bookingDto.getStart().isBefore(LocalDateTime.now())) {
+            log.error("ValidationException (Нельзя забронировать вещь в прошедшем времени)");
+            throw new ValidationException("Бронь в прошедшем времени");
+        }
+        if (bookingDto.getEnd().isBefore(bookingDto.getStart())) {
+            log.error("ValidationException (Нельзя завершить бронь раньше ее регистрации)");
+            throw new ValidationException("Завершение брони раньше ее регистрации");
+        }
+        Item item = itemRepository.findById(bookingDto.getItemId())
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Вещь %s не существует.", bookingDto.getItemId())));
+        if (item.getOwner().getId().equals(userId)) {
+            log.error("Владелец вещи не может забронировать свою вещь");
+            throw new EntityNotFoundException("Владелец вещи не может забронировать свою вещь");
+        }
+        if (!item.getAvailable()) {
+            log.error("Вещь {} не доступна для бронирования.", item.getId());
+            throw new ValidationException(String.format("Вещь %s не доступна для бронирования.", item.getId()));
+        }
+        if (bookingRepository.findByItemIdAndStatusInOverlapping(item.getId(), ACTIVE,
+                bookingDto.getStart(), bookingDto.getEnd()).isEmpty()) {
+            log.error("Вещь {} свободна на запрошенное время", item.getId());
+            throw new BookingException("Вещь свободна на это время, забронируйте её напрямую");
+        }
+        if (waitlistRepository.countByItemId(item.getId()) >= properties.getMaxEntriesPerItem()) {
+            log.error("Лист ожидания вещи {} заполнен", item.getId());
+            throw new BookingException("Лист ожидания вещи заполнен");
+        }
+        WaitlistEntry entry = waitlistRepository.save(new WaitlistEntry(null, item.getId(), userId,
+                bookingDto.getStart(), bookingDto.getEnd(), LocalDateTime.now()));
+        invalidationBus.invalidate(CacheNames.WAITLIST, item.getId());
+        log.info("Пользователь {} встал в лист ожидания вещи {}, заявка {}", userId, item.getId(), entry.getId());
+        return toWaitlistEntryDto(entry);
+    }
+
+    @Override
+    public List<WaitlistEntryDto> getWaitlistEntries(Long userId) {
+        return registry.findByBookerId(userId).stream()
+                .map(this::toWaitlistEntryDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public void leaveWaitlist(Long userId, Long entryId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .filter(found -> found.getBookerId().equals(userId))
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Заявка %s в листе ожидания не существует.", entryId)));
+        waitlistRepository.delete(entry);
+        invalidationBus.invalidate(CacheNames.WAITLIST, entry.getItemId());
+        log.info("Заявка {} удалена из листа ожидания вещи {}", entryId, entry.getItemId());
+    }
+
+    /**
+     * Позиция берётся из копии листа в памяти. Только что созданной заявки в ней ещё нет,
+     * но она последняя в очереди, поэтому счёт от этого не меняется.
+     */
+    private WaitlistEntryDto toWaitlistEntryDto(WaitlistEntry entry) {
+        return new WaitlistEntryDto(entry.getId(), entry.getItemId(), entry.getStart(), entry.getEnd(),
+                registry.getPosition(entry));
+    }
+}
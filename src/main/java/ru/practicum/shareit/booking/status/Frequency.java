@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.status;
+
+import java.time.LocalDateTime;
+
+public enum Frequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * Время начала занятия с номером {@code n}, считая от первого: так месячная серия,
+     * начатая 31-го, не сползает на 28-е после февраля.
+     */
+    public LocalDateTime shift(LocalDateTime first, long n) {
+        switch (this) {
+            case DAILY:
+                return first.plusDays(n);
+            case WEEKLY:
+                return first.plusWeeks(n);
+            default:
+                return first.plusMonths(n);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking.stream")
+public class BookingStreamProperties {
+
+    /**
+     * Сколько неотправленных событий может накопиться у одного подключения, прежде чем оно будет закрыто.
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * Число потоков, пишущих события в подключения.
+     */
+    private int senderThreads = 4;
+
+    /**
+     * Время жизни подключения; после него клиент переподключается с Last-Event-ID.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
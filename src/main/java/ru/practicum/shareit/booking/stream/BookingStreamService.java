@@ -0,0 +1,126 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Рассылает владельцам вещей события о бронированиях через SSE.
+ *
+ * <p>События приходят из outbox уже после коммита. При переподключении с {@code Last-Event-ID}
+ * пропущенные события досылаются из той же таблицы outbox.
+ */
+@Component
+@Slf4j
+public class BookingStreamService implements OutboxEventListener {
+
+    private static final Set<OutboxEventType> STREAMED_TYPES =
+            EnumSet.of(OutboxEventType.CREATED, OutboxEventType.APPROVED, OutboxEventType.REJECTED);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final BookingStreamProperties properties;
+    private final ExecutorService sender;
+    private final Map<Long, Set<OwnerConnection>> connections = new ConcurrentHashMap<>();
+
+    public BookingStreamService(OutboxEventRepository outboxEventRepository,
+                                BookingStreamProperties properties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.properties = properties;
+        this.sender = Executors.newFixedThreadPool(properties.getSenderThreads(),
+                runnable -> new Thread(runnable, "booking-stream-sender"));
+    }
+
+    public SseEmitter subscribe(Long ownerId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        OwnerConnection connection = new OwnerConnection(emitter, properties.getQueueCapacity(), sender);
+        Runnable remove = () -> removeConnection(ownerId, connection);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        if (lastEventId != null) {
+            connection.startReplay();
+        }
+        connections.computeIfAbsent(ownerId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        if (lastEventId != null) {
+            replay(connection, ownerId, lastEventId);
+        }
+        log.info("Владелец {} подписался на события бронирований", ownerId);
+        return emitter;
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        if (!STREAMED_TYPES.contains(event.getType())) {
+            return;
+        }
+        Set<OwnerConnection> ownerConnections = connections.get(event.getOwnerId());
+        if (ownerConnections == null) {
+            return;
+        }
+        for (OwnerConnection connection : ownerConnections) {
+            connection.offer(event);
+        }
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Set<OwnerConnection> ownerConnections : connections.values()) {
+            for (OwnerConnection connection : ownerConnections) {
+                connection.heartbeat();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(ownerConnections -> ownerConnections.forEach(OwnerConnection::close));
+        sender.shutdown();
+    }
+
+    /**
+     * Досылает события после {@code lastEventId}. Если их больше, чем помещается в очередь подключения,
+     * или часть истории уже удалена из outbox, вместо истории отправляется {@code RESET}: клиент должен
+     * перечитать бронирования и продолжить с id из этого события.
+     */
+    private void replay(OwnerConnection connection, Long ownerId, Long lastEventId) {
+        int capacity = properties.getQueueCapacity();
+        Long firstRetained = outboxEventRepository.findMinId();
+        List<OutboxEvent> history = outboxEventRepository.findByOwnerIdAndIdGreaterThanAndTypeInOrderByIdAsc(
+                ownerId, lastEventId, STREAMED_TYPES, PageRequest.of(0, capacity));
+        if (history.size() < capacity && (firstRetained == null || firstRetained <= lastEventId + 1)) {
+            connection.finishReplay(history);
+            return;
+        }
+        long resetId = outboxEventRepository.findMaxId();
+        log.info("Владельцу {} отправлен сброс потока: история после события {} недоступна целиком",
+                ownerId, lastEventId);
+        connection.finishReplayWithReset(resetId);
+    }
+
+    private void removeConnection(Long ownerId, OwnerConnection connection) {
+        connections.computeIfPresent(ownerId, (id, ownerConnections) -> {
+            ownerConnections.remove(connection);
+            return ownerConnections.isEmpty() ? null : ownerConnections;
+        });
+    }
+}
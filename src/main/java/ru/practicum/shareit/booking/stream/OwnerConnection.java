@@ -0,0 +1,170 @@
+package ru.practicum.shareit.booking.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Одно SSE-подключение владельца с ограниченной очередью неотправленных событий.
+ */
+@Slf4j
+class OwnerConnection {
+
+    static final String RESET = "RESET";
+
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+    private final Executor sender;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final Set<Long> replayed = new HashSet<>();
+    private List<OutboxEvent> heldBack;
+    private long resetBefore;
+    private volatile boolean closed;
+
+    OwnerConnection(SseEmitter emitter, int capacity, Executor sender) {
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sender = sender;
+    }
+
+    synchronized void startReplay() {
+        heldBack = new ArrayList<>();
+    }
+
+    synchronized void finishReplay(List<OutboxEvent> history) {
+        for (OutboxEvent event : history) {
+            replayed.add(event.getId());
+            enqueue(toSseEvent(event));
+        }
+        releaseHeldBack();
+    }
+
+    /**
+     * Вместо пропущенных событий отправляет {@code RESET} с id, с которого клиент продолжит после
+     * перечитывания бронирований. События до этого id больше не досылаются.
+     */
+    synchronized void finishReplayWithReset(long resetId) {
+        resetBefore = resetId;
+        enqueue(SseEmitter.event()
+                .id(String.valueOf(resetId))
+                .name(RESET)
+                .data(Map.of("lastEventId", resetId), MediaType.APPLICATION_JSON));
+        releaseHeldBack();
+    }
+
+    private void releaseHeldBack() {
+        List<OutboxEvent> live = heldBack;
+        heldBack = null;
+        for (OutboxEvent event : live) {
+            offer(event);
+        }
+    }
+
+    synchronized void offer(OutboxEvent event) {
+        if (closed || replayed.contains(event.getId()) || event.getId() <= resetBefore) {
+            return;
+        }
+        if (heldBack != null) {
+            if (heldBack.size() >= capacity) {
+                close();
+            } else {
+                heldBack.add(event);
+            }
+            return;
+        }
+        enqueue(toSseEvent(event));
+    }
+
+    void heartbeat() {
+        enqueue(SseEmitter.event().comment("ping"));
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            queue.clear();
+            emitter.complete();
+        }
+    }
+
+    private void enqueue(SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return;
+        }
+        if (!queue.offer(event)) {
+            log.warn("Подключение не успевает получать события и будет закрыто");
+            close();
+            return;
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed && (event = queue.poll()) != null) {
+                emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            closed = true;
+            queue.clear();
+            emitter.completeWithError(e);
+        } finally {
+            draining.set(false);
+        }
+        if (!closed && !queue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSseEvent(OutboxEvent event) {
+        BookingEventDto data = new BookingEventDto(
+                event.getBookingId(),
+                event.getItemId(),
+                event.getBookerId(),
+                event.getStart(),
+                event.getEnd(),
+                toStatus(event));
+        return SseEmitter.event()
+                .id(String.valueOf(event.getId()))
+                .name(event.getType().name())
+                .data(data, MediaType.APPLICATION_JSON);
+    }
+
+    private static Status toStatus(OutboxEvent event) {
+        switch (event.getType()) {
+            case APPROVED:
+                return Status.APPROVED;
+            case REJECTED:
+                return Status.REJECTED;
+            default:
+                return Status.WAITING;
+        }
+    }
+}
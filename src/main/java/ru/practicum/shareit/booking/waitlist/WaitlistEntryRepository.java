@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.waitlist;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findAllByOrderByIdAsc();
+
+    List<WaitlistEntry> findByItemIdOrderByIdAsc(Long itemId);
+
+    long countByItemId(Long itemId);
+
+    List<WaitlistEntry> findByBookerId(Long bookerId);
+
+    @Modifying
+    @Query("delete from WaitlistEntry e where e.itemId = ?1")
+    int deleteByItemId(Long itemId);
+
+    @Modifying
+    @Query("delete from WaitlistEntry e where e.id = ?1")
+    int deleteEntry(Long entryId);
+}
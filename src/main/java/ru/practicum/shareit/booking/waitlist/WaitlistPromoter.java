@@ -0,0 +1,171 @@
+package ru.practicum.shareit.booking.waitlist;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+import ru.practicum.shareit.outbox.service.OutboxService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отдаёт освободившиеся окна вещей заявкам из листа ожидания.
+ *
+ * <p>Отклонение или удаление бронирования только помечает вещь; сами продвижения выполняет
+ * фоновый проход пачками по помеченным вещам. Каждая вещь обрабатывается в своей транзакции:
+ * заявки перебираются по порядку, и первая, чьё окно не пересекается с действующими
+ * бронированиями, превращается в бронирование со статусом {@link Status#WAITING}. Заявка
+ * удаляется в той же транзакции, поэтому при гонке узлов её получит только один из них.
+ */
+@Component
+@Slf4j
+public class WaitlistPromoter implements OutboxEventListener {
+
+    private static final List<Status> ACTIVE = List.of(Status.WAITING, Status.APPROVED);
+
+    private final WaitlistEntryRepository waitlistRepository;
+    private final WaitlistRegistry registry;
+    private final WaitlistProperties properties;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final InvalidationBus invalidationBus;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Long> dirtyItems = ConcurrentHashMap.newKeySet();
+
+    public WaitlistPromoter(WaitlistEntryRepository waitlistRepository, WaitlistRegistry registry,
+                            WaitlistProperties properties, BookingRepository bookingRepository,
+                            ItemRepository itemRepository, UserRepository userRepository,
+                            OutboxService outboxService, InvalidationBus invalidationBus,
+                            PlatformTransactionManager transactionManager) {
+        this.waitlistRepository = waitlistRepository;
+        this.registry = registry;
+        this.properties = properties;
+        this.bookingRepository = bookingRepository;
+        this.itemRepository = itemRepository;
+        this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.invalidationBus = invalidationBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        if (event.getType() == OutboxEventType.REJECTED || event.getType() == OutboxEventType.DELETED) {
+            dirtyItems.add(event.getItemId());
+        }
+    }
+
+    /**
+     * Окна могли освободиться, пока узел не работал, поэтому после старта проверяются все листы.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void sweep() {
+        dirtyItems.addAll(registry.getItemIds());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.waitlist.promote-interval-ms:1000}")
+    public void promote() {
+        if (dirtyItems.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>();
+        for (Iterator<Long> iterator = dirtyItems.iterator(); iterator.hasNext()
+                && batch.size() < properties.getBatchSize(); ) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        int promoted = 0;
+        for (Long itemId : batch) {
+            try {
+                Integer count = transactionTemplate.execute(status -> promoteItem(itemId));
+                promoted += count == null ? 0 : count;
+            } catch (RuntimeException e) {
+                log.warn("Не удалось продвинуть лист ожидания вещи {}, повтор при следующем проходе", itemId, e);
+                dirtyItems.add(itemId);
+            }
+        }
+        if (promoted > 0) {
+            log.info("Из листа ожидания создано {} бронирований по {} вещам", promoted, batch.size());
+        }
+    }
+
+    private int promoteItem(Long itemId) {
+        List<WaitlistEntry> entries = waitlistRepository.findByItemIdOrderByIdAsc(itemId);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Optional<Item> item = itemRepository.findById(itemId);
+        if (item.isEmpty()) {
+            waitlistRepository.deleteAll(entries);
+            invalidationBus.invalidate(CacheNames.WAITLIST, itemId);
+            return 0;
+        }
+        if (!item.get().getAvailable()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<WaitlistEntry> candidates = new ArrayList<>();
+        for (WaitlistEntry entry : entries) {
+            if (entry.getStart().isBefore(now)) {
+                waitlistRepository.deleteEntry(entry.getId());
+            } else {
+                candidates.add(entry);
+            }
+        }
+        if (candidates.size() < entries.size()) {
+            invalidationBus.invalidate(CacheNames.WAITLIST, itemId);
+        }
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime from = candidates.stream().map(WaitlistEntry::getStart).min(LocalDateTime::compareTo).get();
+        LocalDateTime to = candidates.stream().map(WaitlistEntry::getEnd).max(LocalDateTime::compareTo).get();
+        List<Booking> taken = new ArrayList<>(
+                bookingRepository.findByItemIdAndStatusInOverlapping(itemId, ACTIVE, from, to));
+        int promoted = 0;
+        for (WaitlistEntry entry : candidates) {
+            if (taken.stream().anyMatch(booking -> entry.overlaps(booking.getStart(), booking.getEnd()))) {
+                continue;
+            }
+            if (waitlistRepository.deleteEntry(entry.getId()) == 0) {
+                continue;
+            }
+            invalidationBus.invalidate(CacheNames.WAITLIST, itemId);
+            Optional<User> booker = userRepository.findById(entry.getBookerId());
+            if (booker.isEmpty()) {
+                continue;
+            }
+            Booking booking = bookingRepository.save(new Booking(null, entry.getStart(), entry.getEnd(),
+                    item.get(), booker.get(), Status.WAITING, null));
+            outboxService.publish(booking, OutboxEventType.CREATED);
+            taken.add(booking);
+            promoted++;
+            log.info("Заявка {} из листа ожидания вещи {} стала бронированием {}",
+                    entry.getId(), itemId, booking.getId());
+        }
+        return promoted;
+    }
+}
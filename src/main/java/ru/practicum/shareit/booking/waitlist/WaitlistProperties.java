@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.waitlist;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.booking.waitlist")
+public class WaitlistProperties {
+
+    /**
+     * Максимальная длина листа ожидания одной вещи.
+     */
+    private int maxEntriesPerItem = 100;
+
+    /**
+     * Сколько вещей обрабатывает один проход продвижения очереди.
+     */
+    private int batchSize = 100;
+}
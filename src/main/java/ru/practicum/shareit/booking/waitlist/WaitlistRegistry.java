@@ -0,0 +1,116 @@
+package ru.practicum.shareit.booking.waitlist;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Копия листов ожидания в памяти узла, по которой считаются позиции в очереди.
+ *
+ * <p>Позиция заявки — число более ранних заявок той же вещи с пересекающимся окном плюс один.
+ * После любого изменения листа вещи сервис публикует ключ {@code waitlist:<itemId>}, и каждый
+ * узел перечитывает из базы заявки только этой вещи. Списки заменяются целиком, поэтому чтение
+ * обходится без блокировок.
+ */
+@Component
+@Slf4j
+public class WaitlistRegistry implements InvalidationListener {
+
+    private static final String PREFIX = CacheNames.WAITLIST + ":";
+
+    private final WaitlistEntryRepository repository;
+    private final Map<Long, List<WaitlistEntry>> byItem = new ConcurrentHashMap<>();
+    private final Map<Long, List<WaitlistEntry>> byBooker = new ConcurrentHashMap<>();
+
+    public WaitlistRegistry(WaitlistEntryRepository repository) {
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Map<Long, List<WaitlistEntry>> entries = repository.findAllByOrderByIdAsc().stream()
+                .collect(Collectors.groupingBy(WaitlistEntry::getItemId));
+        byItem.clear();
+        byBooker.clear();
+        entries.forEach(this::replace);
+        log.info("Загружены листы ожидания {} вещей", byItem.size());
+    }
+
+    public Set<Long> getItemIds() {
+        return Collections.unmodifiableSet(byItem.keySet());
+    }
+
+    public List<WaitlistEntry> findByItemId(long itemId) {
+        return byItem.getOrDefault(itemId, Collections.emptyList());
+    }
+
+    public List<WaitlistEntry> findByBookerId(long bookerId) {
+        return byBooker.getOrDefault(bookerId, Collections.emptyList());
+    }
+
+    public int getPosition(WaitlistEntry entry) {
+        int position = 1;
+        for (WaitlistEntry other : findByItemId(entry.getItemId())) {
+            if (other.getId() >= entry.getId()) {
+                break;
+            }
+            if (other.overlaps(entry.getStart(), entry.getEnd())) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key.startsWith(PREFIX)) {
+            reload(Long.parseLong(key.substring(PREFIX.length())));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        load();
+    }
+
+    private synchronized void reload(long itemId) {
+        replace(itemId, repository.findByItemIdOrderByIdAsc(itemId));
+    }
+
+    private void replace(Long itemId, List<WaitlistEntry> entries) {
+        List<WaitlistEntry> previous = byItem.remove(itemId);
+        if (previous != null) {
+            for (Long bookerId : previous.stream().map(WaitlistEntry::getBookerId).collect(Collectors.toSet())) {
+                List<WaitlistEntry> rest = byBooker.getOrDefault(bookerId, Collections.emptyList()).stream()
+                        .filter(entry -> !entry.getItemId().equals(itemId))
+                        .collect(Collectors.toList());
+                if (rest.isEmpty()) {
+                    byBooker.remove(bookerId);
+                } else {
+                    byBooker.put(bookerId, rest);
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        byItem.put(itemId, List.copyOf(entries));
+        for (WaitlistEntry entry : entries) {
+            List<WaitlistEntry> own = new ArrayList<>(byBooker.getOrDefault(entry.getBookerId(),
+                    Collections.emptyList()));
+            own.add(entry);
+            byBooker.put(entry.getBookerId(), List.copyOf(own));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.cache;
+
+import lombok.AllArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Применяет инвалидации к кешам Spring: ключ {@code <кеш>:<ключ>} вытесняет одну запись.
+ *
+ * <p>Ключи записей в таких кешах должны быть строками.
+ */
+@Component
+@AllArgsConstructor
+public class CacheManagerInvalidationListener implements InvalidationListener {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    public void invalidate(String key) {
+        int separator = key.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(key.substring(0, separator));
+        if (cache != null) {
+            cache.evict(key.substring(separator + 1));
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
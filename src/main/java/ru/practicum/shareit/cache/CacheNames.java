@@ -0,0 +1,13 @@
+package ru.practicum.shareit.cache;
+
+public final class CacheNames {
+
+    public static final String USERS = "users";
+    public static final String ITEMS = "items";
+    public static final String BOOKING_SUMMARY = "bookingSummary";
+    public static final String WAITLIST = "waitlist";
+    public static final String BOOKING_ARCHIVE = "bookingArchive";
+
+    private CacheNames() {
+    }
+}
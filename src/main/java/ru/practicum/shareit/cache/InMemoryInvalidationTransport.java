@@ -0,0 +1,37 @@
+package ru.practicum.shareit.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт внутри одной JVM: все контексты приложения в процессе получают сообщения друг друга.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.invalidation.transport", havingValue = "memory")
+public class InMemoryInvalidationTransport implements InvalidationTransport {
+
+    private static final List<Consumer<InvalidationMessage>> SUBSCRIBERS = new CopyOnWriteArrayList<>();
+
+    private Consumer<InvalidationMessage> subscriber;
+
+    @Override
+    public void start(Consumer<InvalidationMessage> onMessage, Runnable onResync) {
+        subscriber = onMessage;
+        SUBSCRIBERS.add(onMessage);
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        SUBSCRIBERS.forEach(subscriber -> subscriber.accept(message));
+    }
+
+    @PreDestroy
+    public void stop() {
+        SUBSCRIBERS.remove(subscriber);
+    }
+}
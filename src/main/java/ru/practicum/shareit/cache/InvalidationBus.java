@@ -0,0 +1,94 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шина инвалидации локальных кешей на всех узлах.
+ *
+ * <p>Ключи применяются к кешам своего узла сразу после коммита, а другим узлам отправляются
+ * пачками: повторы одного ключа между отправками схлопываются.
+ */
+@Component
+@Slf4j
+public class InvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final ObjectProvider<InvalidationListener> listeners;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public InvalidationBus(InvalidationTransport transport, ObjectProvider<InvalidationListener> listeners) {
+        this.transport = transport;
+        this.listeners = listeners;
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.start(this::onMessage, this::onResync);
+    }
+
+    public void invalidate(String cacheName, Object key) {
+        String invalidationKey = cacheName + ":" + key;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(invalidationKey);
+                }
+            });
+        } else {
+            submit(invalidationKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.invalidation.flush-interval-ms:50}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        for (Iterator<String> iterator = pending.iterator(); iterator.hasNext(); ) {
+            keys.add(iterator.next());
+            iterator.remove();
+        }
+        try {
+            transport.publish(new InvalidationMessage(nodeId, keys));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось разослать {} ключей инвалидации, повтор при следующей отправке", keys.size(), e);
+            pending.addAll(keys);
+        }
+    }
+
+    private void submit(String key) {
+        apply(List.of(key));
+        pending.add(key);
+    }
+
+    private void onMessage(InvalidationMessage message) {
+        if (!nodeId.equals(message.getNodeId())) {
+            apply(message.getKeys());
+        }
+    }
+
+    private void onResync() {
+        listeners.orderedStream().forEach(InvalidationListener::invalidateAll);
+    }
+
+    private void apply(Collection<String> keys) {
+        listeners.orderedStream().forEach(listener -> keys.forEach(listener::invalidate));
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.cache;
+
+public interface InvalidationListener {
+
+    void invalidate(String key);
+
+    void invalidateAll();
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Пачка ключей инвалидации от одного узла. Ключ имеет вид {@code <кеш>:<ключ в кеше>}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InvalidationMessage {
+
+    private static final String SEPARATOR = "\n";
+
+    private final String nodeId;
+    private final List<String> keys;
+
+    public String encode() {
+        return nodeId + SEPARATOR + String.join(SEPARATOR, keys);
+    }
+
+    public static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split(SEPARATOR);
+        return new InvalidationMessage(parts[0], Arrays.asList(parts).subList(1, parts.length));
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.invalidation")
+public class InvalidationProperties {
+
+    /**
+     * Транспорт рассылки инвалидаций между узлами: postgres или memory.
+     */
+    private String transport = "postgres";
+
+    /**
+     * Канал LISTEN/NOTIFY.
+     */
+    private String channel = "shareit_invalidation";
+
+    /**
+     * Пауза перед повторным подключением слушателя после обрыва соединения.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
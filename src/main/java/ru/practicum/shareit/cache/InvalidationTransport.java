@@ -0,0 +1,19 @@
+package ru.practicum.shareit.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Способ доставки инвалидаций на все узлы, включая отправителя.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Начинает приём сообщений.
+     *
+     * @param onMessage вызывается для каждого полученного сообщения
+     * @param onResync  вызывается после переподключения, когда часть сообщений могла быть потеряна
+     */
+    void start(Consumer<InvalidationMessage> onMessage, Runnable onResync);
+
+    void publish(InvalidationMessage message);
+}
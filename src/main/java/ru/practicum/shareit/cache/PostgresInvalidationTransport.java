@@ -0,0 +1,123 @@
+package ru.practicum.shareit.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Транспорт на PostgreSQL LISTEN/NOTIFY.
+ *
+ * <p>Слушатель держит отдельное соединение. После его обрыва и переподключения вызывается resync,
+ * так как уведомления, отправленные в промежутке, не доставляются.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+@Slf4j
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final int MAX_PAYLOAD_BYTES = 7000;
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationProperties properties;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationTransport(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                         InvalidationProperties properties) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start(Consumer<InvalidationMessage> onMessage, Runnable onResync) {
+        running = true;
+        listenerThread = new Thread(() -> listen(onMessage, onResync), "invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        List<String> chunk = new ArrayList<>();
+        int size = message.getNodeId().length();
+        for (String key : message.getKeys()) {
+            int keySize = key.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (!chunk.isEmpty() && size + keySize > MAX_PAYLOAD_BYTES) {
+                notify(new InvalidationMessage(message.getNodeId(), chunk));
+                chunk = new ArrayList<>();
+                size = message.getNodeId().length();
+            }
+            chunk.add(key);
+            size += keySize;
+        }
+        if (!chunk.isEmpty()) {
+            notify(new InvalidationMessage(message.getNodeId(), chunk));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    private void notify(InvalidationMessage message) {
+        jdbcTemplate.queryForRowSet("SELECT pg_notify(?, ?)", properties.getChannel(), message.encode());
+    }
+
+    private void listen(Consumer<InvalidationMessage> onMessage, Runnable onResync) {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + properties.getChannel());
+                }
+                if (reconnect) {
+                    log.info("Слушатель инвалидаций переподключён, локальные кеши сброшены");
+                    onResync.run();
+                }
+                reconnect = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        onMessage.accept(InvalidationMessage.decode(notification.getParameter()));
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Соединение слушателя инвалидаций потеряно: {}", e.getMessage());
+                try {
+                    Thread.sleep(properties.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.datagen;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.db.SqlPlatform;
+
+import javax.sql.DataSource;
+
+/**
+ * Открывает самый быстрый для текущей базы путь массовой загрузки:
+ * {@code COPY FROM STDIN} в PostgreSQL и многострочные INSERT в H2.
+ */
+@Component
+@AllArgsConstructor
+public class BulkLoader {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlPlatform sqlPlatform;
+    private final DataGenProperties properties;
+
+    public BulkWriter open(String table, String... columns) {
+        if (sqlPlatform.isPostgres()) {
+            return new CopyBulkWriter(dataSource, table, columns, properties.getCopyBufferBytes());
+        }
+        return new MultiRowInsertBulkWriter(jdbcTemplate, table, columns, properties.getRowsPerStatement());
+    }
+}
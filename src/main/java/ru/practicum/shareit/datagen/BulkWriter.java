@@ -0,0 +1,18 @@
+package ru.practicum.shareit.datagen;
+
+/**
+ * Потоковая запись строк одной таблицы. Строки копятся и уходят в базу пачками;
+ * {@link #close()} дописывает остаток.
+ */
+public interface BulkWriter extends AutoCloseable {
+
+    /**
+     * Значения в порядке столбцов, переданных при открытии.
+     */
+    void write(Object... row);
+
+    long getRows();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.datagen;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Пишет строки в PostgreSQL одной командой {@code COPY ... FROM STDIN} в текстовом формате.
+ * Данные уходят на сервер кусками по {@code bufferBytes}, вся таблица грузится одной транзакцией.
+ */
+class CopyBulkWriter implements BulkWriter {
+
+    private final DataSource dataSource;
+    private final Connection connection;
+    private final CopyIn copyIn;
+    private final int bufferBytes;
+    private final StringBuilder buffer = new StringBuilder();
+    private long rows;
+
+    CopyBulkWriter(DataSource dataSource, String table, String[] columns, int bufferBytes) {
+        this.dataSource = dataSource;
+        this.bufferBytes = bufferBytes;
+        this.connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(String.format("COPY %s (%s) FROM STDIN", table, String.join(", ", columns)));
+        } catch (SQLException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw new IllegalStateException("Не удалось начать COPY в " + table, e);
+        }
+    }
+
+    @Override
+    public void write(Object... row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            append(row[i]);
+        }
+        buffer.append('\n');
+        rows++;
+        if (buffer.length() >= bufferBytes) {
+            flush();
+        }
+    }
+
+    @Override
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+            copyIn.endCopy();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось завершить COPY", e);
+        } finally {
+            if (copyIn.isActive()) {
+                cancel();
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void flush() {
+        if (buffer.length() == 0) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.setLength(0);
+        try {
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось передать данные COPY", e);
+        }
+    }
+
+    private void cancel() {
+        try {
+            copyIn.cancelCopy();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось отменить COPY", e);
+        }
+    }
+
+    /**
+     * Текстовый формат COPY: NULL — {@code \N}, обратная косая черта, табуляция и переводы строк экранируются.
+     */
+    private void append(Object value) {
+        if (value == null) {
+            buffer.append("\\N");
+            return;
+        }
+        String text = value instanceof LocalDateTime ? Timestamp.valueOf((LocalDateTime) value).toString()
+                : value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                default:
+                    buffer.append(c);
+            }
+        }
+    }
+}
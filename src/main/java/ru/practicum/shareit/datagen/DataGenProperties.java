@@ -0,0 +1,76 @@
+package ru.practicum.shareit.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datagen")
+public class DataGenProperties {
+
+    /**
+     * Зерно генератора: при одинаковых зерне, размерах и {@code anchor} данные совпадают построчно.
+     */
+    private long seed = 42;
+
+    /**
+     * Дата, относительно которой строится история бронирований; по умолчанию — сегодня.
+     */
+    private LocalDate anchor;
+
+    private int users = 10_000;
+
+    private int requests = 5_000;
+
+    private int items = 100_000;
+
+    private int bookings = 1_000_000;
+
+    private int comments = 200_000;
+
+    /**
+     * Показатель Ципфа для владельцев вещей: чем больше, тем сильнее каталоги сосредоточены у немногих.
+     */
+    private double ownerSkew = 1.1;
+
+    /**
+     * Показатель Ципфа для популярности вещей среди бронирований и комментариев.
+     */
+    private double itemSkew = 1.0;
+
+    /**
+     * Показатель Ципфа для арендаторов: немногие пользователи набирают длинную историю бронирований.
+     */
+    private double bookerSkew = 0.8;
+
+    /**
+     * Сколько дней истории до {@code anchor} и сколько дней будущих бронирований после него.
+     */
+    private int historyDays = 730;
+
+    private int futureDays = 90;
+
+    /**
+     * Строк в одном многострочном INSERT для H2.
+     */
+    private int rowsPerStatement = 500;
+
+    /**
+     * Размер куска данных, передаваемого в COPY для PostgreSQL.
+     */
+    private int copyBufferBytes = 1 << 20;
+
+    /**
+     * Завершить приложение после генерации — для запуска из командной строки.
+     */
+    private boolean exitWhenDone;
+
+    /**
+     * Пропускать скрипты схемы при запуске, если в базе есть сгенерированные данные;
+     * см. {@link GeneratedDataSchemaConfig}.
+     */
+    private boolean protectSchema = true;
+}
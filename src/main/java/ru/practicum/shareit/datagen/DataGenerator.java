@@ -0,0 +1,318 @@
+package ru.practicum.shareit.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.archive.BookingPartitionMaintainer;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.db.SqlPlatform;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Random;
+
+/**
+ * Наполняет базу синтетическими данными производственного масштаба при запуске с профилем {@code datagen}:
+ * {@code --spring.profiles.active=datagen --shareit.datagen.bookings=20000000}.
+ *
+ * <p>Распределения перекошены, как в работе: каталоги сосредоточены у немногих владельцев, бронирования и
+ * комментарии — у популярных вещей, у немногих арендаторов длинная история. Бронирования одной вещи
+ * идут друг за другом без пересечений с интервалом, обратным её популярности; заявки, не поместившиеся
+ * в окно, записываются отклонёнными. Комментарии оставляют арендаторы по равномерной выборке
+ * одобренных завершившихся бронирований, поэтому каждый из них прошёл бы проверку API. Строки пишутся
+ * через {@link BulkLoader} с явными id после уже существующих, затем счётчики id сдвигаются за
+ * сгенерированные строки. Генератор рассчитан на простаивающий экземпляр: параллельные вставки через
+ * API могут получить те же id.
+ *
+ * <p>По окончании прогон записывается в таблицу-метку, и следующие запуски не пересоздают схему,
+ * см. {@link GeneratedDataSchemaConfig}.
+ */
+@Component
+@Profile("datagen")
+@Slf4j
+public class DataGenerator implements ApplicationRunner {
+
+    private static final String[] VOCABULARY = {
+        "дрель", "drill", "перфоратор", "лестница", "ladder", "палатка", "tent", "велосипед", "bike",
+        "шуруповёрт", "saw", "пила", "каяк", "kayak", "проектор", "projector", "гитара", "guitar"
+    };
+
+    private static final String[] CONDITIONS = {"новая", "как новая", "б/у", "с царапинами", "после ремонта"};
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int MAX_BOOKING_MINUTES = 14 * MINUTES_PER_DAY;
+
+    private final BulkLoader bulkLoader;
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlPlatform sqlPlatform;
+    private final DataGenProperties properties;
+    private final ObjectProvider<BookingPartitionMaintainer> partitionMaintainer;
+    private final ConfigurableApplicationContext context;
+
+    public DataGenerator(BulkLoader bulkLoader, JdbcTemplate jdbcTemplate, SqlPlatform sqlPlatform,
+                         DataGenProperties properties, ObjectProvider<BookingPartitionMaintainer> partitionMaintainer,
+                         ConfigurableApplicationContext context) {
+        this.bulkLoader = bulkLoader;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sqlPlatform = sqlPlatform;
+        this.properties = properties;
+        this.partitionMaintainer = partitionMaintainer;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        LocalDate anchorDate = properties.getAnchor() != null ? properties.getAnchor() : LocalDate.now();
+        LocalDateTime windowStart = anchorDate.atStartOfDay().minusDays(properties.getHistoryDays());
+        LocalDateTime windowEnd = anchorDate.atStartOfDay().plusDays(properties.getFutureDays());
+        partitionMaintainer.ifAvailable(maintainer -> maintainer.ensurePartitions(YearMonth.from(windowStart),
+                YearMonth.from(windowEnd.plusMinutes(MAX_BOOKING_MINUTES))));
+
+        long userBase = maxId("users", "user_id");
+        long requestBase = maxId("requests", "requests_id");
+        long itemBase = maxId("items", "item_id");
+        long bookingBase = Math.max(maxId("bookings", "booking_id"), nextBookingSequenceValue() + 49);
+        long commentBase = maxId("comments", "comment_id");
+
+        generateUsers(userBase);
+        generateRequests(requestBase, userBase);
+        int[] itemOwners = generateItems(itemBase, userBase, requestBase);
+        PastBookingSample pastBookings = generateBookings(bookingBase, itemBase, userBase, itemOwners,
+                anchorDate.atStartOfDay(), windowStart, windowEnd);
+        int comments = generateComments(commentBase, itemBase, userBase, pastBookings, windowStart,
+                anchorDate.atStartOfDay());
+
+        restartIdentity("users", "user_id", userBase + properties.getUsers());
+        restartIdentity("requests", "requests_id", requestBase + properties.getRequests());
+        restartIdentity("items", "item_id", itemBase + properties.getItems());
+        restartIdentity("comments", "comment_id", commentBase + comments);
+        jdbcTemplate.execute(String.format("ALTER SEQUENCE bookings_seq RESTART WITH %d",
+                bookingBase + properties.getBookings() + 1));
+        markRun(anchorDate);
+        log.info("Генерация данных завершена за {} с", seconds(started));
+
+        if (properties.isExitWhenDone()) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void generateUsers(long base) {
+        long started = System.nanoTime();
+        try (BulkWriter writer = bulkLoader.open("users", "user_id", "user_name", "email")) {
+            for (int i = 1; i <= properties.getUsers(); i++) {
+                long id = base + i;
+                writer.write(id, "user" + id, "user" + id + "@datagen.test");
+            }
+            logTable("users", writer, started);
+        }
+    }
+
+    private void generateRequests(long base, long userBase) {
+        long started = System.nanoTime();
+        Random random = random(1);
+        try (BulkWriter writer = bulkLoader.open("requests", "requests_id", "description", "requestor_id")) {
+            for (int i = 1; i <= properties.getRequests(); i++) {
+                writer.write(base + i, "Нужна " + VOCABULARY[random.nextInt(VOCABULARY.length)] + " на выходные",
+                        userBase + 1 + random.nextInt(properties.getUsers()));
+            }
+            logTable("requests", writer, started);
+        }
+    }
+
+    /**
+     * Возвращает ранг владельца каждой вещи: он нужен, чтобы владелец не бронировал свою вещь.
+     */
+    private int[] generateItems(long base, long userBase, long requestBase) {
+        long started = System.nanoTime();
+        Random random = random(2);
+        ZipfDistribution owners = new ZipfDistribution(properties.getUsers(), properties.getOwnerSkew());
+        int[] itemOwners = new int[properties.getItems()];
+        try (BulkWriter writer = bulkLoader.open("items", "item_id", "item_name", "description", "available",
+                "owner_id", "request_id")) {
+            for (int i = 0; i < properties.getItems(); i++) {
+                long id = base + 1 + i;
+                String word = VOCABULARY[random.nextInt(VOCABULARY.length)];
+                itemOwners[i] = owners.sample(random);
+                Long requestId = properties.getRequests() > 0 && random.nextInt(10) == 0
+                        ? requestBase + 1 + random.nextInt(properties.getRequests()) : null;
+                writer.write(id, word + " " + id,
+                        word + ", " + CONDITIONS[random.nextInt(CONDITIONS.length)],
+                        random.nextInt(10) != 0, userBase + 1 + itemOwners[i], requestId);
+            }
+            logTable("items", writer, started);
+        }
+        return itemOwners;
+    }
+
+    /**
+     * Возвращает выборку одобренных завершившихся бронирований размером до {@code comments}: по ней пишутся
+     * комментарии.
+     */
+    private PastBookingSample generateBookings(long base, long itemBase, long userBase, int[] itemOwners,
+                                               LocalDateTime anchor, LocalDateTime windowStart,
+                                               LocalDateTime windowEnd) {
+        long started = System.nanoTime();
+        Random random = random(3);
+        PastBookingSample pastBookings = new PastBookingSample(properties.getComments(), random(5));
+        ZipfDistribution items = new ZipfDistribution(properties.getItems(), properties.getItemSkew());
+        ZipfDistribution bookers = new ZipfDistribution(properties.getUsers(), properties.getBookerSkew());
+        int windowMinutes = (int) Duration.between(windowStart, windowEnd).toMinutes();
+        int[] cursors = new int[properties.getItems()];
+        try (BulkWriter writer = bulkLoader.open("bookings", "booking_id", "start_date", "end_date", "item_id",
+                "booker_id", "status")) {
+            for (int i = 1; i <= properties.getBookings(); i++) {
+                int item = items.sample(random);
+                int booker = bookers.sample(random);
+                if (booker == itemOwners[item] && properties.getUsers() > 1) {
+                    booker = (booker + 1) % properties.getUsers();
+                }
+                double expected = Math.max(1.0, properties.getBookings() * items.probability(item));
+                int slot = (int) Math.min(windowMinutes, windowMinutes / expected);
+                int duration = 60 + random.nextInt(Math.max(1, Math.min(slot / 2, MAX_BOOKING_MINUTES)));
+                int offset = cursors[item] + random.nextInt(Math.max(1, 2 * (slot - duration)));
+                Status status;
+                if (offset + duration <= windowMinutes) {
+                    cursors[item] = offset + duration;
+                    status = statusAt(windowStart.plusMinutes(offset), windowStart.plusMinutes(offset + duration),
+                            anchor, random);
+                } else {
+                    offset = random.nextInt(windowMinutes);
+                    status = Status.REJECTED;
+                }
+                LocalDateTime start = windowStart.plusMinutes(offset);
+                LocalDateTime end = start.plusMinutes(duration);
+                writer.write(base + i, start, end, itemBase + 1 + item, userBase + 1 + booker, status.name());
+                if (status == Status.APPROVED && end.isBefore(anchor)) {
+                    pastBookings.offer(item, booker, offset + duration);
+                }
+            }
+            logTable("bookings", writer, started);
+        }
+        return pastBookings;
+    }
+
+    /**
+     * Пишет по комментарию на каждое бронирование выборки: автор — арендатор, время — между окончанием
+     * бронирования и {@code anchor}. Комментариев может получиться меньше {@code comments}, если столько
+     * подходящих бронирований не набралось.
+     */
+    private int generateComments(long base, long itemBase, long userBase, PastBookingSample pastBookings,
+                                 LocalDateTime windowStart, LocalDateTime anchor) {
+        long started = System.nanoTime();
+        Random random = random(4);
+        int anchorMinute = (int) Duration.between(windowStart, anchor).toMinutes();
+        try (BulkWriter writer = bulkLoader.open("comments", "comment_id", "comment_text", "item_id", "author_id",
+                "created")) {
+            for (int i = 0; i < pastBookings.size(); i++) {
+                int endMinute = pastBookings.endMinutes[i];
+                writer.write(base + 1 + i, "Отзыв: " + CONDITIONS[random.nextInt(CONDITIONS.length)],
+                        itemBase + 1 + pastBookings.items[i], userBase + 1 + pastBookings.bookers[i],
+                        windowStart.plusMinutes(endMinute + random.nextInt(Math.max(1, anchorMinute - endMinute))));
+            }
+            if (pastBookings.size() < properties.getComments()) {
+                log.warn("Одобренных завершившихся бронирований {}, комментариев будет столько же вместо {}",
+                        pastBookings.size(), properties.getComments());
+            }
+            logTable("comments", writer, started);
+        }
+        return pastBookings.size();
+    }
+
+    private void markRun(LocalDate anchorDate) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + GeneratedDataSchemaConfig.MARKER_TABLE
+                + " (seed BIGINT NOT NULL, anchor DATE NOT NULL, finished TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO " + GeneratedDataSchemaConfig.MARKER_TABLE
+                + " (seed, anchor, finished) VALUES (?, ?, ?)", properties.getSeed(), anchorDate, LocalDateTime.now());
+    }
+
+    private static Status statusAt(LocalDateTime start, LocalDateTime end, LocalDateTime anchor, Random random) {
+        int roll = random.nextInt(100);
+        if (end.isBefore(anchor)) {
+            return roll < 90 ? Status.APPROVED : roll < 97 ? Status.CANCELED : Status.REJECTED;
+        }
+        if (start.isAfter(anchor)) {
+            return roll < 30 ? Status.WAITING : roll < 95 ? Status.APPROVED : Status.CANCELED;
+        }
+        return Status.APPROVED;
+    }
+
+    /**
+     * Отдельный поток случайных чисел на таблицу: изменение размера одной таблицы не сдвигает остальные.
+     */
+    private Random random(int stream) {
+        return new Random(properties.getSeed() * 1_000_003L + stream);
+    }
+
+    private long maxId(String table, String column) {
+        Long max = jdbcTemplate.queryForObject(String.format("SELECT MAX(%s) FROM %s", column, table), Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Hibernate выдаёт id бронирований блоками по 50 от значения последовательности, поэтому
+     * сгенерированные id начинаются за концом уже выданного блока.
+     */
+    private long nextBookingSequenceValue() {
+        Long value = jdbcTemplate.queryForObject(sqlPlatform.isPostgres()
+                ? "SELECT nextval('bookings_seq')" : "SELECT NEXT VALUE FOR bookings_seq", Long.class);
+        return value == null ? 0 : value;
+    }
+
+    private void restartIdentity(String table, String column, long lastId) {
+        jdbcTemplate.execute(String.format("ALTER TABLE %s ALTER COLUMN %s RESTART WITH %d", table, column,
+                lastId + 1));
+    }
+
+    private static void logTable(String table, BulkWriter writer, long started) {
+        double seconds = seconds(started);
+        log.info("Сгенерировано {}: {} строк за {} с ({} строк/с)", table, writer.getRows(),
+                String.format("%.1f", seconds), Math.round(writer.getRows() / Math.max(seconds, 0.001)));
+    }
+
+    private static double seconds(long started) {
+        return (System.nanoTime() - started) / 1_000_000_000.0;
+    }
+
+    /**
+     * Равномерная выборка фиксированного размера из потока бронирований (алгоритм R): память не зависит
+     * от числа бронирований, а популярные вещи попадают в выборку чаще, как и в самих бронированиях.
+     */
+    private static final class PastBookingSample {
+
+        private final int[] items;
+        private final int[] bookers;
+        private final int[] endMinutes;
+        private final Random random;
+        private long seen;
+
+        private PastBookingSample(int capacity, Random random) {
+            this.items = new int[capacity];
+            this.bookers = new int[capacity];
+            this.endMinutes = new int[capacity];
+            this.random = random;
+        }
+
+        void offer(int item, int booker, int endMinute) {
+            seen++;
+            int slot = seen <= items.length ? (int) seen - 1 : (int) (random.nextDouble() * seen);
+            if (slot < items.length) {
+                items[slot] = item;
+                bookers[slot] = booker;
+                endMinutes[slot] = endMinute;
+            }
+        }
+
+        int size() {
+            return (int) Math.min(seen, items.length);
+        }
+    }
+}
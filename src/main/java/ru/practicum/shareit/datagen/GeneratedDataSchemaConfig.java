@@ -0,0 +1,50 @@
+package ru.practicum.shareit.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Не даёт {@code schema.sql} пересоздать таблицы поверх сгенерированных данных.
+ *
+ * <p>{@link DataGenerator} по окончании записывает прогон в таблицу {@value #MARKER_TABLE}. Пока она
+ * есть, скрипты схемы при запуске не выполняются, поэтому после
+ * {@code --spring.profiles.active=datagen --shareit.datagen.exit-when-done=true} приложение можно
+ * запускать как обычно. Чтобы начать с чистой базы, один раз запустите с
+ * {@code --shareit.datagen.protect-schema=false}: {@code schema.sql} удалит и таблицу-метку.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+@Slf4j
+public class GeneratedDataSchemaConfig {
+
+    static final String MARKER_TABLE = "datagen_runs";
+
+    @Bean
+    SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource, SqlInitializationProperties properties, DataGenProperties dataGenProperties) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties) {
+            @Override
+            public boolean initializeDatabase() {
+                if (dataGenProperties.isProtectSchema() && hasGeneratedData(jdbcTemplate)) {
+                    log.warn("В базе есть сгенерированные данные ({}), скрипты схемы пропущены", MARKER_TABLE);
+                    return false;
+                }
+                return super.initializeDatabase();
+            }
+        };
+    }
+
+    private static boolean hasGeneratedData(JdbcTemplate jdbcTemplate) {
+        Long tables = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE LOWER(table_name) = '" + MARKER_TABLE + "'", Long.class);
+        return tables != null && tables > 0;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.db;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Различия SQL между PostgreSQL в работе и H2 в тестах.
+ */
+@Component
+public class SqlPlatform {
+
+    private final boolean postgres;
+
+    public SqlPlatform(DataSource dataSource) {
+        try {
+            String name = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            this.postgres = "PostgreSQL".equals(JdbcUtils.commonDatabaseName(name));
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Не удалось определить тип базы данных", e);
+        }
+    }
+
+    public boolean isPostgres() {
+        return postgres;
+    }
+
+    /**
+     * Оборачивает UPDATE так, чтобы один запрос вернул изменённые строки целиком.
+     */
+    public String returning(String update) {
+        return postgres ? update + " RETURNING *" : "SELECT * FROM FINAL TABLE (" + update + ")";
+    }
+
+    /**
+     * Блокирует выбранные строки до конца транзакции, пропуская строки, заблокированные другими.
+     * H2 пропускать не умеет и ждёт снятия блокировки.
+     */
+    public String forUpdateSkipLocked(String select) {
+        return select + (postgres ? " FOR UPDATE SKIP LOCKED" : " FOR UPDATE");
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class IdempotencyException extends RuntimeException {
+    public IdempotencyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.exceptions;
+
+public class SingleFlightTimeoutException extends RuntimeException {
+    public SingleFlightTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.fields;
+
+import ru.practicum.shareit.exceptions.ValidationException;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Поля ответа, перечисленные в параметре {@code fields} через запятую.
+ *
+ * <p>Без параметра выбраны все поля. Поле {@code id} отдаётся всегда, даже если его не перечислили.
+ */
+public final class FieldSelection {
+
+    public static final String PARAM = "fields";
+
+    /**
+     * Идентификатор {@link com.fasterxml.jackson.annotation.JsonFilter} для ответов с выбором полей.
+     */
+    public static final String FILTER = "fields";
+
+    public static final String ID = "id";
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> names;
+
+    private FieldSelection(Set<String> names) {
+        this.names = names;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    /**
+     * Разбирает параметр {@code fields}; {@code null} означает все поля.
+     *
+     * @throws ValidationException если названо поле, которого нет в {@code allowed}
+     */
+    public static FieldSelection parse(String fields, Set<String> allowed) {
+        return parse(fields, allowed::contains, allowed);
+    }
+
+    /**
+     * Разбирает уже проверенный контроллером параметр.
+     */
+    static FieldSelection parse(String fields) {
+        return parse(fields, name -> true, Collections.emptySet());
+    }
+
+    private static FieldSelection parse(String fields, Predicate<String> known, Set<String> allowed) {
+        if (fields == null) {
+            return ALL;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add(ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!known.test(trimmed)) {
+                throw new ValidationException(String.format("Неизвестное поле %s. Доступные поля: %s.",
+                        trimmed, String.join(", ", new TreeSet<>(allowed))));
+            }
+            names.add(trimmed);
+        }
+        return new FieldSelection(Collections.unmodifiableSet(names));
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String name) {
+        return names == null || names.contains(name);
+    }
+
+    /**
+     * Выбранные поля; для {@link #all()} — {@code null}.
+     */
+    public Set<String> getNames() {
+        return names;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.fields;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Отмечает обработчик, ответ которого сокращается до полей из параметра {@code fields}.
+ *
+ * <p>Сокращаются только классы с {@code @JsonFilter(FieldSelection.FILTER)}; вложенные объекты
+ * остальных классов отдаются целиком.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SparseFields {
+}
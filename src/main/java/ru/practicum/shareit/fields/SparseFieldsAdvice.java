@@ -0,0 +1,37 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Оставляет в ответах обработчиков с {@link SparseFields} только поля из параметра {@code fields}.
+ *
+ * <p>Сам параметр проверяет контроллер, здесь он уже допустим.
+ */
+@RestControllerAdvice
+public class SparseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!returnType.hasMethodAnnotation(SparseFields.class) || !(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(FieldSelection.PARAM);
+        FieldSelection selection = FieldSelection.parse(fields);
+        if (selection.isAll()) {
+            return;
+        }
+        bodyContainer.setFilters(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selection.getNames())));
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.fields;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SparseFieldsConfig {
+
+    /**
+     * Без выбора полей фильтр {@link FieldSelection#FILTER} пропускает всё: так DTO с ним
+     * сериализуются и вне {@link SparseFieldsAdvice} — в кэше идемпотентности, потоке событий и т.п.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+}
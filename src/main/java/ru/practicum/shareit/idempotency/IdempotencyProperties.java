@@ -0,0 +1,28 @@
+package ru.practicum.shareit.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Сколько хранится ответ на запрос с Idempotency-Key.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Максимальное число хранимых ключей.
+     */
+    private int maxEntries = 100_000;
+
+    /**
+     * Сколько повторный запрос ждёт завершения первого с тем же ключом.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,249 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.IdempotencyException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище результатов запросов с заголовком {@code Idempotency-Key}.
+ *
+ * <p>Первый запрос с ключом выполняет действие, повторные получают сохранённый результат. Ключ — строка
+ * таблицы {@code idempotency_keys}, общей для всех узлов: она вставляется в той же транзакции, что и
+ * само действие, вместе с его ответом. Повтор, пришедший на другой узел, пока первый запрос ещё
+ * выполняется, упирается в уникальный ключ и ждёт его коммита, а не выполняет действие заново.
+ * Неуспешный результат откатывается вместе с ключом, чтобы клиент мог повторить запрос.
+ *
+ * <p>Caffeine — только локальный кеш перед таблицей: повтор на тот же узел не ходит в базу.
+ *
+ * <p>Запрос сравнивается по SHA-256 от его JSON-представления. Ключи живут {@code ttl} с момента
+ * первого запроса; просроченные строки удаляются в фоне.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final long RETRY_PAUSE_MS = 20;
+
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyStore(IdempotencyProperties properties, ObjectMapper objectMapper, JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String scope, Long userId, String key, Object request, TypeReference<T> responseType,
+                         Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String storeKey = scope + ":" + userId + ":" + key;
+        String fingerprint = fingerprint(request);
+        Entry entry = new Entry(fingerprint);
+        Entry existing = entries.asMap().putIfAbsent(storeKey, entry);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint, fingerprint, key);
+            log.info("Повторный запрос {} с ключом идемпотентности {}", scope, key);
+            return (T) await(existing, key);
+        }
+        try {
+            T result = executeShared(scope, userId, key, fingerprint, responseType, action);
+            entry.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.asMap().remove(storeKey, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.idempotency.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        int removed = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?",
+                Timestamp.valueOf(LocalDateTime.now()));
+        if (removed > 0) {
+            log.info("Удалено просроченных ключей идемпотентности: {}", removed);
+        }
+    }
+
+    /**
+     * Выполняет действие в одной транзакции с вставкой ключа или возвращает ответ, сохранённый другим
+     * запросом с тем же ключом, возможно на другом узле.
+     */
+    private <T> T executeShared(String scope, Long userId, String key, String fingerprint,
+                                TypeReference<T> responseType, Supplier<T> action) {
+        long deadline = System.currentTimeMillis() + properties.getWaitTimeout().toMillis();
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    claim(scope, userId, key, fingerprint);
+                    T result = action.get();
+                    jdbcTemplate.update("UPDATE idempotency_keys SET response = ? "
+                            + "WHERE scope = ? AND user_id = ? AND idem_key = ?", write(result), scope, userId, key);
+                    return result;
+                });
+            } catch (KeyTakenException e) {
+                StoredKey stored = find(scope, userId, key);
+                if (stored != null) {
+                    checkFingerprint(stored.fingerprint, fingerprint, key);
+                    if (stored.response != null) {
+                        log.info("Повторный запрос {} с ключом идемпотентности {}", scope, key);
+                        return read(stored.response, responseType);
+                    }
+                }
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotencyException(
+                        String.format("Запрос с ключом идемпотентности %s ещё выполняется.", key));
+            }
+            pause();
+        }
+    }
+
+    private void claim(String scope, Long userId, String key, String fingerprint) {
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (scope, user_id, idem_key, fingerprint, expires_at) "
+                            + "VALUES (?, ?, ?, ?, ?)", scope, userId, key, fingerprint,
+                    Timestamp.valueOf(LocalDateTime.now().plus(properties.getTtl())));
+        } catch (DuplicateKeyException | PessimisticLockingFailureException e) {
+            throw new KeyTakenException();
+        }
+    }
+
+    /**
+     * Читает действующий ключ. Просроченный удаляется, чтобы следующая попытка заняла его заново.
+     */
+    private StoredKey find(String scope, Long userId, String key) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND user_id = ? AND idem_key = ? "
+                + "AND expires_at <= ?", scope, userId, key, now);
+        List<StoredKey> rows = jdbcTemplate.query("SELECT fingerprint, response FROM idempotency_keys "
+                        + "WHERE scope = ? AND user_id = ? AND idem_key = ?",
+                (rs, rowNum) -> new StoredKey(rs.getString("fingerprint"), rs.getString("response")),
+                scope, userId, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private void checkFingerprint(String stored, String fingerprint, String key) {
+        if (!MessageDigest.isEqual(stored.getBytes(), fingerprint.getBytes())) {
+            throw new IdempotencyException(
+                    String.format("Ключ идемпотентности %s уже использован для другого запроса.", key));
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return Base64.getEncoder().encodeToString(
+                    MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Не удалось вычислить отпечаток запроса", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ на запрос", e);
+        }
+    }
+
+    private <T> T read(String response, TypeReference<T> responseType) {
+        try {
+            return objectMapper.readValue(response, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохранённый ответ на запрос", e);
+        }
+    }
+
+    private Object await(Entry entry, String key) {
+        try {
+            return entry.result.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyException(
+                    String.format("Запрос с ключом идемпотентности %s ещё выполняется.", key));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(RETRY_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final String fingerprint;
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class StoredKey {
+
+        private final String fingerprint;
+        private final String response;
+
+        StoredKey(String fingerprint, String response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+        }
+    }
+
+    /**
+     * Ключ уже занят другим запросом; отличает конфликт ключа от нарушений уникальности внутри действия.
+     */
+    private static class KeyTakenException extends RuntimeException {
+    }
+}
@@ -1,13 +1,24 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.fields.FieldSelection;
+import ru.practicum.shareit.fields.SparseFields;
+import ru.practicum.shareit.idempotency.IdempotencyStore;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.dto.ItemOccupancyDto;
+import ru.practicum.shareit.item.dto.ItemSuggestDto;
+import ru.practicum.shareit.item.dto.ItemTrendingDto;
 import ru.practicum.shareit.item.service.CommentService;
+import ru.practicum.shareit.item.service.ItemOccupancyService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.identity.SharerUserId;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,15 +27,43 @@ import java.util.List;
 public class ItemController {
     private final ItemService itemService;
     private final CommentService commentService;
+    private final ItemOccupancyService itemOccupancyService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
-    public List<ItemDtoWithBooking> getItemsByUserId(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.getAllByUserId(userId);
+    @SparseFields
+    public List<ItemDtoWithBooking> getItemsByUserId(
+            @SharerUserId(verify = false) Long userId,
+            @RequestParam(name = FieldSelection.PARAM, required = false) String fields) {
+        return itemService.getAllByUserId(userId, FieldSelection.parse(fields, ItemDtoWithBooking.FIELDS));
+    }
+
+    @GetMapping(params = "ids")
+    public List<ItemDtoWithBooking> getItemsByIds(@SharerUserId(verify = false) Long userId,
+                                                  @RequestParam(name = "ids") List<Long> ids) {
+        return itemService.getItemsByIds(userId, ids);
     }
 
     @GetMapping(value = "/{itemId}")
-    public ItemDtoWithBooking getItemById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
-        return itemService.getItemById(userId, itemId);
+    @SparseFields
+    public ItemDtoWithBooking getItemById(@SharerUserId(verify = false) Long userId,
+                                          @PathVariable Long itemId,
+                                          @RequestParam(name = FieldSelection.PARAM, required = false) String fields) {
+        return itemService.getItemById(userId, itemId, FieldSelection.parse(fields, ItemDtoWithBooking.FIELDS));
+    }
+
+    @GetMapping(value = "/occupancy")
+    public List<ItemOccupancyDto> getOccupancy(
+            @SharerUserId Long userId,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "itemId", required = false) Long itemId) {
+        return itemOccupancyService.getOccupancy(userId, itemId, from, to);
+    }
+
+    @GetMapping(value = "/{itemId}/related")
+    public List<ItemDto> getRelatedItems(@PathVariable Long itemId) {
+        return itemService.getRelatedItems(itemId);
     }
 
     @GetMapping(value = "/search")
@@ -32,16 +71,32 @@ public class ItemController {
         return itemService.getItemsByText(text);
     }
 
+    @GetMapping(value = "/suggest")
+    public List<ItemSuggestDto> getSuggestions(
+            @RequestParam(name = "prefix") String prefix,
+            @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+        return itemService.getSuggestions(prefix, limit);
+    }
+
+    @GetMapping(value = "/trending")
+    public List<ItemTrendingDto> getTrending(
+            @RequestParam(name = "window", defaultValue = "DAY") String window,
+            @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        return itemService.getTrending(window, size);
+    }
+
     @PostMapping
     public ItemDto createItem(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @SharerUserId Long userId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody ItemDto itemDto) {
-        return itemService.createItem(itemDto, userId);
+        return idempotencyStore.execute("items", userId, idempotencyKey, itemDto,
+                new TypeReference<>() { }, () -> itemService.createItem(itemDto, userId));
     }
 
     @PostMapping(value = "/{itemId}/comment")
     public CommentDto createComment(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @SharerUserId Long userId,
             @PathVariable Long itemId,
             @RequestBody CommentDto commentDto) {
         return commentService.createComment(commentDto, itemId, userId);
@@ -53,7 +108,7 @@ public class ItemController {
     }
 
     @PatchMapping(value = "/{itemId}")
-    public ItemDto updateItem(@RequestBody ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") Long userId,
+    public ItemDto updateItem(@RequestBody ItemDto itemDto, @SharerUserId(verify = false) Long userId,
             @PathVariable Long itemId) {
         return itemService.updateItem(itemDto, userId, itemId);
     }
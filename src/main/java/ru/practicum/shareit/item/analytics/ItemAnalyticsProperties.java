@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.analytics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.analytics")
+public class ItemAnalyticsProperties {
+
+    /**
+     * Заполнить дневные сводки по бронированиям, которые ещё не учтены, при запуске.
+     */
+    private boolean backfill;
+
+    /**
+     * Сколько бронирований учитывается одной транзакцией заполнения.
+     */
+    private int backfillBatchSize = 1000;
+
+    /**
+     * Сколько хранится учтённое состояние бронирования после его окончания. Событие о бронировании
+     * старше этого срока будет учтено как о новом.
+     */
+    private Duration stateRetention = Duration.ofDays(400);
+
+    /**
+     * Наибольший период одного отчёта в днях.
+     */
+    private int maxRangeDays = 366;
+}
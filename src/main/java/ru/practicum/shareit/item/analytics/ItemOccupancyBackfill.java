@@ -0,0 +1,133 @@
+package ru.practicum.shareit.item.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.item.analytics.OccupancyContribution.DailyDelta;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Заполняет дневные сводки по бронированиям, которые ещё не учтены: по существующей истории
+ * при первом включении и по всему, что не дошло через события.
+ *
+ * <p>Бронирования обходятся по возрастанию id пачками по {@code backfill-batch-size}, каждая пачка —
+ * одна транзакция. Время от заявки до начала для них неизвестно и в средний срок не входит.
+ * Учтённое состояние записывается с id события 0, поэтому все ещё не доставленные события
+ * этих бронирований применятся поверх. Пачка, столкнувшаяся с одновременной записью события,
+ * повторяется. Бронирования, уже перенесённые в архив, не учитываются.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.item.analytics.backfill", havingValue = "true")
+@Slf4j
+public class ItemOccupancyBackfill {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String PENDING_BOOKINGS = "SELECT b.booking_id, b.item_id, i.owner_id, b.start_date, "
+            + "b.end_date, b.status FROM bookings b "
+            + "JOIN items i ON i.item_id = b.item_id "
+            + "WHERE b.booking_id > ? "
+            + "AND NOT EXISTS (SELECT 1 FROM item_stats_bookings s WHERE s.booking_id = b.booking_id) "
+            + "ORDER BY b.booking_id "
+            + "FETCH FIRST ? ROWS ONLY";
+
+    private static final String INSERT_STATE = "INSERT INTO item_stats_bookings "
+            + "(booking_id, status, requested_at, end_date, last_event_id) VALUES (?, ?, NULL, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemOccupancyRollup rollup;
+    private final ItemAnalyticsProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemOccupancyBackfill(JdbcTemplate jdbcTemplate, ItemOccupancyRollup rollup,
+                                 ItemAnalyticsProperties properties, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollup = rollup;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long started = System.nanoTime();
+        long lastId = 0;
+        long total = 0;
+        int attempts = 0;
+        while (true) {
+            long after = lastId;
+            List<PendingBooking> batch;
+            try {
+                batch = transactionTemplate.execute(status -> backfillBatch(after));
+            } catch (DataAccessException e) {
+                if (++attempts >= MAX_ATTEMPTS) {
+                    log.error("Заполнение сводок остановлено на бронировании {}", after, e);
+                    return;
+                }
+                log.warn("Пачка заполнения сводок после бронирования {} будет повторена: {}", after, e.getMessage());
+                continue;
+            }
+            attempts = 0;
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            total += batch.size();
+            lastId = batch.get(batch.size() - 1).bookingId;
+        }
+        log.info("Сводки заполнены по {} бронированиям за {} мс", total, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<PendingBooking> backfillBatch(long afterId) {
+        List<PendingBooking> batch = jdbcTemplate.query(PENDING_BOOKINGS, (rs, rowNum) -> new PendingBooking(
+                        rs.getLong("booking_id"), rs.getLong("item_id"), rs.getLong("owner_id"),
+                        rs.getTimestamp("start_date").toLocalDateTime(), rs.getTimestamp("end_date").toLocalDateTime(),
+                        Status.valueOf(rs.getString("status"))),
+                afterId, properties.getBackfillBatchSize());
+        Map<Long, Map<LocalDate, DailyDelta>> byItem = new HashMap<>();
+        Map<Long, Long> owners = new HashMap<>();
+        List<Object[]> states = new ArrayList<>();
+        for (PendingBooking booking : batch) {
+            Map<LocalDate, DailyDelta> total = byItem.computeIfAbsent(booking.itemId, id -> new HashMap<>());
+            OccupancyContribution.of(booking.status, booking.start, booking.end, null)
+                    .forEach((date, delta) -> total.computeIfAbsent(date, d -> new DailyDelta()).add(delta, 1));
+            owners.put(booking.itemId, booking.ownerId);
+            states.add(new Object[]{booking.bookingId, booking.status.name(), Timestamp.valueOf(booking.end)});
+        }
+        byItem.forEach((itemId, deltas) -> rollup.add(itemId, owners.get(itemId), deltas));
+        jdbcTemplate.batchUpdate(INSERT_STATE, states);
+        return batch;
+    }
+
+    private static final class PendingBooking {
+
+        private final long bookingId;
+        private final long itemId;
+        private final long ownerId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final Status status;
+
+        private PendingBooking(long bookingId, long itemId, long ownerId, LocalDateTime start, LocalDateTime end,
+                               Status status) {
+            this.bookingId = bookingId;
+            this.itemId = itemId;
+            this.ownerId = ownerId;
+            this.start = start;
+            this.end = end;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.item.analytics.OccupancyContribution.DailyDelta;
+import ru.practicum.shareit.item.model.ItemStatsBooking;
+import ru.practicum.shareit.item.repository.ItemDailyStatsRepository;
+import ru.practicum.shareit.item.repository.ItemStatsBookingRepository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Поддерживает дневные сводки {@code item_daily_stats} по событиям бронирований.
+ *
+ * <p>Для каждого бронирования хранится учтённое состояние и id последнего события. Новое событие
+ * вычитает прежний вклад бронирования и добавляет вклад нового статуса одной транзакцией,
+ * а событие с id не больше учтённого пропускается — так повторная доставка ничего не удваивает.
+ * Состояние читается с блокировкой строки, поэтому одновременная обработка событий одного
+ * бронирования идёт по очереди. Первое состояние и новые строки сводок вставляются без чтения:
+ * одновременная вставка падает на первичном ключе, транзакция откатывается целиком, и событие
+ * повторяется на следующем проходе.
+ * Окончание бронирования отдельного события не требует: занятые минуты распределяются по дням
+ * уже при подтверждении.
+ */
+@Component
+@Slf4j
+public class ItemOccupancyRollup implements OutboxEventListener {
+
+    private final ItemDailyStatsRepository statsRepository;
+    private final ItemStatsBookingRepository stateRepository;
+    private final ItemAnalyticsProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemOccupancyRollup(ItemDailyStatsRepository statsRepository, ItemStatsBookingRepository stateRepository,
+                               ItemAnalyticsProperties properties, PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.stateRepository = stateRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        transactionTemplate.executeWithoutResult(status -> apply(event));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.analytics.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        LocalDateTime horizon = LocalDateTime.now().minus(properties.getStateRetention());
+        Integer deleted = transactionTemplate.execute(status -> stateRepository.deleteEndedBefore(horizon));
+        log.info("Удалено учтённых состояний бронирований для сводок: {}", deleted);
+    }
+
+    /**
+     * Добавляет вклад к сводкам вещи; вызывается внутри транзакции.
+     */
+    void add(Long itemId, Long ownerId, Map<LocalDate, DailyDelta> deltas) {
+        deltas.forEach((date, delta) -> {
+            if (statsRepository.increment(itemId, date, delta.requested, delta.approved, delta.rejected,
+                    delta.canceled, delta.bookedMinutes, delta.leadMinutes, delta.leadCount) == 0) {
+                statsRepository.insert(itemId, date, ownerId, delta.requested, delta.approved, delta.rejected,
+                        delta.canceled, delta.bookedMinutes, delta.leadMinutes, delta.leadCount);
+            }
+        });
+    }
+
+    private void apply(OutboxEvent event) {
+        ItemStatsBooking state = stateRepository.findByIdForUpdate(event.getBookingId()).orElse(null);
+        if (state != null && state.getLastEventId() >= event.getId()) {
+            return;
+        }
+        Status next = toStatus(event.getType());
+        LocalDateTime requestedAt = state != null ? state.getRequestedAt() : null;
+        if (requestedAt == null && event.getType() == OutboxEventType.CREATED) {
+            requestedAt = event.getCreated();
+        }
+        Map<LocalDate, DailyDelta> previous = state == null ? Collections.emptyMap()
+                : OccupancyContribution.of(state.getStatus(), event.getStart(), event.getEnd(),
+                state.getRequestedAt());
+        if (state == null) {
+            stateRepository.insert(event.getBookingId(), next.name(), requestedAt, event.getEnd(), event.getId());
+        } else {
+            state.setStatus(next);
+            state.setRequestedAt(requestedAt);
+            state.setEnd(event.getEnd());
+            state.setLastEventId(event.getId());
+        }
+        add(event.getItemId(), event.getOwnerId(), OccupancyContribution.difference(previous,
+                OccupancyContribution.of(next, event.getStart(), event.getEnd(), requestedAt)));
+    }
+
+    private static Status toStatus(OutboxEventType type) {
+        switch (type) {
+            case APPROVED:
+                return Status.APPROVED;
+            case REJECTED:
+                return Status.REJECTED;
+            case DELETED:
+                return Status.CANCELED;
+            default:
+                return Status.WAITING;
+        }
+    }
+}
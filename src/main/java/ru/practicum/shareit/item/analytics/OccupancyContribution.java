@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.analytics;
+
+import ru.practicum.shareit.booking.status.Status;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Вклад одного бронирования в дневные сводки его вещи.
+ *
+ * <p>Каждая заявка считается в день начала бронирования, там же — решение по ней и время от заявки
+ * до начала, если оно известно. Подтверждённое бронирование добавляет занятые минуты каждому дню,
+ * который покрывает. Отменённое подтверждение перестаёт занимать дни и считается отменой.
+ */
+final class OccupancyContribution {
+
+    private OccupancyContribution() {
+    }
+
+    static Map<LocalDate, DailyDelta> of(Status status, LocalDateTime start, LocalDateTime end,
+                                         LocalDateTime requestedAt) {
+        Map<LocalDate, DailyDelta> deltas = new HashMap<>();
+        if (status == null) {
+            return deltas;
+        }
+        DailyDelta first = deltas.computeIfAbsent(start.toLocalDate(), date -> new DailyDelta());
+        first.requested = 1;
+        switch (status) {
+            case APPROVED:
+                first.approved = 1;
+                if (requestedAt != null) {
+                    first.leadMinutes = Math.max(0, Duration.between(requestedAt, start).toMinutes());
+                    first.leadCount = 1;
+                }
+                LocalDateTime from = start;
+                while (from.isBefore(end)) {
+                    LocalDateTime midnight = from.toLocalDate().plusDays(1).atStartOfDay();
+                    LocalDateTime until = midnight.isBefore(end) ? midnight : end;
+                    deltas.computeIfAbsent(from.toLocalDate(), date -> new DailyDelta()).bookedMinutes +=
+                            Duration.between(from, until).toMinutes();
+                    from = until;
+                }
+                break;
+            case REJECTED:
+                first.rejected = 1;
+                break;
+            case CANCELED:
+                first.canceled = 1;
+                break;
+            default:
+                break;
+        }
+        return deltas;
+    }
+
+    /**
+     * Разность вкладов {@code next - previous} по дням; дни без изменений отбрасываются.
+     */
+    static Map<LocalDate, DailyDelta> difference(Map<LocalDate, DailyDelta> previous,
+                                                 Map<LocalDate, DailyDelta> next) {
+        Map<LocalDate, DailyDelta> result = new HashMap<>();
+        next.forEach((date, delta) -> result.computeIfAbsent(date, d -> new DailyDelta()).add(delta, 1));
+        previous.forEach((date, delta) -> result.computeIfAbsent(date, d -> new DailyDelta()).add(delta, -1));
+        result.values().removeIf(DailyDelta::isZero);
+        return result;
+    }
+
+    static final class DailyDelta {
+
+        int requested;
+        int approved;
+        int rejected;
+        int canceled;
+        long bookedMinutes;
+        long leadMinutes;
+        int leadCount;
+
+        void add(DailyDelta other, int sign) {
+            requested += sign * other.requested;
+            approved += sign * other.approved;
+            rejected += sign * other.rejected;
+            canceled += sign * other.canceled;
+            bookedMinutes += sign * other.bookedMinutes;
+            leadMinutes += sign * other.leadMinutes;
+            leadCount += sign * other.leadCount;
+        }
+
+        boolean isZero() {
+            return requested == 0 && approved == 0 && rejected == 0 && canceled == 0
+                    && bookedMinutes == 0 && leadMinutes == 0 && leadCount == 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class DailyOccupancyDto {
+
+    private LocalDate date;
+    private double bookedHours;
+    private double utilization;
+    private int requested;
+    private int approved;
+    private int rejected;
+    private int canceled;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Карточка вещи, собранная одним запросом. Последнее и следующее бронирования в {@link #item}
+ * заполнены всегда, а показывать ли их, решает сервис по {@link #ownerId}.
+ */
+@Data
+@AllArgsConstructor
+public class ItemDetailDto {
+
+    private Long ownerId;
+
+    private ItemDtoWithBooking item;
+}
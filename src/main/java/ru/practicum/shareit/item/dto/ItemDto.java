@@ -16,4 +16,5 @@ public class ItemDto {
     private Boolean available;
     private User owner;
     private Long request;
+    private Long version;
 }
@@ -1,15 +1,23 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.fields.FieldSelection;
 
 import javax.validation.constraints.NotBlank;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
+@JsonFilter(FieldSelection.FILTER)
 public class ItemDtoWithBooking {
+
+    public static final Set<String> FIELDS = Set.of("id", "name", "description", "available",
+            "lastBooking", "nextBooking", "comments");
+
     private Long id;
 
     @NotBlank(message = "Имя не должно быть пустым")
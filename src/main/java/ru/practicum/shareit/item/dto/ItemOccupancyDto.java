@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Загрузка вещи за период. {@code approvalRate} — доля подтверждённых среди заявок с решением,
+ * {@code averageLeadHours} — среднее время от заявки до начала подтверждённых бронирований;
+ * оба {@code null}, если считать не по чему. В {@code days} только дни, в которых что-то было.
+ */
+@Data
+@AllArgsConstructor
+public class ItemOccupancyDto {
+
+    private Long itemId;
+    private LocalDate from;
+    private LocalDate to;
+    private double bookedHours;
+    private double utilization;
+    private long requested;
+    private long approved;
+    private long rejected;
+    private long canceled;
+    private Double approvalRate;
+    private Double averageLeadHours;
+    private List<DailyOccupancyDto> days;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemSuggestDto {
+
+    private Long id;
+    private String name;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemTrendingDto {
+
+    private Long id;
+    private String name;
+    private String description;
+    private Long bookings;
+}
@@ -15,7 +15,8 @@ public class ItemMapper {
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
                 itemDto.getOwner(),
-                itemDto.getRequest());
+                itemDto.getRequest(),
+                itemDto.getVersion());
     }
 
     public static ItemDto toItemDto(Item item) {
@@ -25,7 +26,8 @@ public class ItemMapper {
                 item.getDescription(),
                 item.getAvailable(),
                 item.getOwner(),
-                item.getRequest());
+                item.getRequest(),
+                item.getVersion());
     }
 
     public static ItemDtoWithBooking toItemDtoWithBooking(Item item) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.model;
 
 import lombok.*;
 import org.hibernate.Hibernate;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -15,6 +16,7 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity
 @Table(name = "comments", schema = "public")
+@Where(clause = "NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = author_id AND u.deleted)")
 public class Comment {
 
     @Id
@@ -27,10 +29,12 @@ public class Comment {
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "item_id")
+    @ToString.Exclude
     private Item item;
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "author_id")
+    @ToString.Exclude
     private User author;
 
     @Column(name = "created")
@@ -3,6 +3,8 @@ package ru.practicum.shareit.item.model;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -12,6 +14,8 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Entity
 @Table(name = "items", schema = "public")
+@Where(clause = "deleted = false "
+        + "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = owner_id AND u.deleted)")
 public class Item {
 
     @Id
@@ -30,8 +34,13 @@ public class Item {
 
     @ManyToOne(optional = false)
     @JoinColumn(name = "owner_id")
+    @ToString.Exclude
     private User owner;
 
     @Column(name = "request_id")
     private Long request;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
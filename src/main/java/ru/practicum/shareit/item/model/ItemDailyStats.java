@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Сводка бронирований вещи за один день.
+ *
+ * <p>Заявки, решения и время от заявки до начала относятся ко дню начала бронирования,
+ * занятые минуты подтверждённых бронирований — к каждому дню, который они покрывают.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(ItemDailyStatsId.class)
+@Table(name = "item_daily_stats", schema = "public")
+public class ItemDailyStats {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate date;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "requested", nullable = false)
+    private int requested;
+
+    @Column(name = "approved", nullable = false)
+    private int approved;
+
+    @Column(name = "rejected", nullable = false)
+    private int rejected;
+
+    @Column(name = "canceled", nullable = false)
+    private int canceled;
+
+    @Column(name = "booked_minutes", nullable = false)
+    private long bookedMinutes;
+
+    @Column(name = "lead_minutes", nullable = false)
+    private long leadMinutes;
+
+    @Column(name = "lead_count", nullable = false)
+    private int leadCount;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemDailyStats stats = (ItemDailyStats) o;
+        return itemId != null && Objects.equals(itemId, stats.itemId)
+                && Objects.equals(date, stats.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Число бронирований вещи за один час.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(ItemPopularityId.class)
+@Table(name = "item_popularity", schema = "public")
+public class ItemPopularity {
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    @Column(name = "bucket")
+    private LocalDateTime bucket;
+
+    @Column(name = "bookings", nullable = false)
+    private long bookings;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemPopularity popularity = (ItemPopularity) o;
+        return itemId != null && Objects.equals(itemId, popularity.itemId)
+                && Objects.equals(bucket, popularity.bucket);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+import ru.practicum.shareit.booking.status.Status;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Что бронирование уже внесло в {@link ItemDailyStats}: по этому состоянию следующее событие
+ * вычитает старый вклад и добавляет новый, а повторно доставленное событие пропускается.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "item_stats_bookings", schema = "public")
+public class ItemStatsBooking {
+
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "requested_at")
+    private LocalDateTime requestedAt;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime end;
+
+    @Column(name = "last_event_id", nullable = false)
+    private long lastEventId;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        ItemStatsBooking state = (ItemStatsBooking) o;
+        return bookingId != null && Objects.equals(bookingId, state.bookingId);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
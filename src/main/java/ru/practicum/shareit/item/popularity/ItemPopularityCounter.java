@@ -0,0 +1,189 @@
+package ru.practicum.shareit.item.popularity;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingCountDto;
+import ru.practicum.shareit.item.dto.ItemTrendingDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemPopularity;
+import ru.practicum.shareit.item.model.ItemPopularityId;
+import ru.practicum.shareit.item.repository.ItemPopularityRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Популярность вещей по часовым счётчикам бронирований.
+ *
+ * <p>Создание и подтверждение бронирования увеличивают счётчик часа, в котором произошло
+ * событие. Счётчики копятся в памяти без блокировок и периодически добавляются в таблицу
+ * {@code item_popularity}, общую для всех узлов. После сброса по таблице пересчитываются
+ * рейтинги окон {@link TrendingWindow}, из которых отвечают запросы.
+ *
+ * <p>Слушатель не привязан к узлу: событие доставляется одному узлу, захватившему его в outbox,
+ * поэтому при нескольких узлах бронирование считается один раз.
+ */
+@Component
+@Slf4j
+public class ItemPopularityCounter implements OutboxEventListener {
+
+    private static final long RETIRED = Long.MIN_VALUE;
+    private static final Comparator<ItemBookingCountDto> BY_BOOKINGS = Comparator
+            .comparingLong(ItemBookingCountDto::getCount)
+            .thenComparing(ItemBookingCountDto::getItemId, Comparator.reverseOrder());
+
+    private final ItemPopularityRepository popularityRepository;
+    private final ItemRepository itemRepository;
+    private final ItemPopularityProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<ItemPopularityId, AtomicLong> pending = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(new EnumMap<>(TrendingWindow.class), Collections.emptyMap());
+
+    public ItemPopularityCounter(ItemPopularityRepository popularityRepository, ItemRepository itemRepository,
+                                 ItemPopularityProperties properties, PlatformTransactionManager transactionManager) {
+        this.popularityRepository = popularityRepository;
+        this.itemRepository = itemRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        if (event.getType() == OutboxEventType.CREATED || event.getType() == OutboxEventType.APPROVED) {
+            add(new ItemPopularityId(event.getItemId(), event.getCreated().truncatedTo(ChronoUnit.HOURS)), 1);
+        }
+    }
+
+    public List<ItemTrendingDto> getTrending(TrendingWindow window, int size) {
+        List<ItemTrendingDto> ranking = snapshot.rankings.getOrDefault(window, Collections.emptyList());
+        return new ArrayList<>(ranking.subList(0, Math.min(size, ranking.size())));
+    }
+
+    public long getScore(Long itemId) {
+        return snapshot.scores.getOrDefault(itemId, 0L);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.popularity.flush-interval-ms:60000}")
+    public void flush() {
+        Map<ItemPopularityId, Long> deltas = new HashMap<>();
+        for (Map.Entry<ItemPopularityId, AtomicLong> entry : pending.entrySet()) {
+            long delta = entry.getValue().getAndSet(RETIRED);
+            pending.remove(entry.getKey(), entry.getValue());
+            if (delta > 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        if (!deltas.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> deltas.forEach((key, delta) -> {
+                    if (popularityRepository.increment(key.getItemId(), key.getBucket(), delta) == 0) {
+                        popularityRepository.save(new ItemPopularity(key.getItemId(), key.getBucket(), delta));
+                    }
+                }));
+            } catch (DataAccessException e) {
+                log.warn("Не удалось сохранить счётчики популярности, повтор при следующем сбросе", e);
+                deltas.forEach(this::add);
+            }
+        }
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.popularity.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        LocalDateTime horizon = LocalDateTime.now().minus(properties.getRetention());
+        Integer deleted = transactionTemplate.execute(status -> popularityRepository.deleteBefore(horizon));
+        log.info("Удалено устаревших счётчиков популярности: {}", deleted);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<TrendingWindow, List<ItemTrendingDto>> rankings = new EnumMap<>(TrendingWindow.class);
+        Map<Long, Long> scores = Collections.emptyMap();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            List<ItemBookingCountDto> counts = popularityRepository.sumBookingsSince(now.minus(window.getDuration()));
+            rankings.put(window, rank(counts));
+            if (window == TrendingWindow.WEEK) {
+                scores = counts.stream()
+                        .collect(Collectors.toMap(ItemBookingCountDto::getItemId, ItemBookingCountDto::getCount));
+            }
+        }
+        snapshot = new Snapshot(rankings, scores);
+    }
+
+    private List<ItemTrendingDto> rank(List<ItemBookingCountDto> counts) {
+        PriorityQueue<ItemBookingCountDto> heap = new PriorityQueue<>(BY_BOOKINGS);
+        for (ItemBookingCountDto count : counts) {
+            heap.offer(count);
+            if (heap.size() > properties.getRankingSize()) {
+                heap.poll();
+            }
+        }
+        List<ItemBookingCountDto> top = new ArrayList<>(heap);
+        top.sort(BY_BOOKINGS.reversed());
+        Map<Long, Item> items = itemRepository.findAllById(top.stream()
+                        .map(ItemBookingCountDto::getItemId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemTrendingDto> ranking = new ArrayList<>();
+        for (ItemBookingCountDto count : top) {
+            Item item = items.get(count.getItemId());
+            if (item != null && Boolean.TRUE.equals(item.getAvailable())) {
+                ranking.add(new ItemTrendingDto(item.getId(), item.getName(), item.getDescription(),
+                        count.getCount()));
+            }
+        }
+        return Collections.unmodifiableList(ranking);
+    }
+
+    /**
+     * Добавляет к счётчику без блокировок. Счётчик, забранный сбросом, помечается
+     * {@link #RETIRED}, и запись повторяется в новый счётчик.
+     */
+    private void add(ItemPopularityId key, long delta) {
+        while (true) {
+            AtomicLong counter = pending.computeIfAbsent(key, k -> new AtomicLong());
+            long value = counter.get();
+            if (value == RETIRED) {
+                pending.remove(key, counter);
+                continue;
+            }
+            if (counter.compareAndSet(value, value + delta)) {
+                return;
+            }
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final Map<TrendingWindow, List<ItemTrendingDto>> rankings;
+        private final Map<Long, Long> scores;
+
+        private Snapshot(Map<TrendingWindow, List<ItemTrendingDto>> rankings, Map<Long, Long> scores) {
+            this.rankings = rankings;
+            this.scores = scores;
+        }
+    }
+}
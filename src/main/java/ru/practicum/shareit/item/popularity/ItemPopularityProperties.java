@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.popularity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.popularity")
+public class ItemPopularityProperties {
+
+    /**
+     * Сколько вещей держится в рейтинге каждого окна.
+     */
+    private int rankingSize = 100;
+
+    /**
+     * Сколько хранятся часовые счётчики; должно покрывать самое длинное окно.
+     */
+    private Duration retention = Duration.ofDays(8);
+}
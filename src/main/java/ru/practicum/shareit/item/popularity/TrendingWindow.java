@@ -0,0 +1,27 @@
+package ru.practicum.shareit.item.popularity;
+
+import java.time.Duration;
+
+public enum TrendingWindow {
+    DAY(Duration.ofHours(24)),
+    WEEK(Duration.ofDays(7));
+
+    private final Duration duration;
+
+    TrendingWindow(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public static TrendingWindow from(String window) {
+        for (TrendingWindow value : values()) {
+            if (value.name().equalsIgnoreCase(window)) {
+                return value;
+            }
+        }
+        return null;
+    }
+}
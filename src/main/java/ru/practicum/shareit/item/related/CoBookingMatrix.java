@@ -0,0 +1,207 @@
+package ru.practicum.shareit.item.related;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Разреженная матрица совместных бронирований вещей.
+ *
+ * <p>Для каждого арендатора хранится ограниченная история вещей, для каждой вещи — счётчики
+ * вещей, которые бронировали те же люди, и готовый список из {@code topK} лидеров. Счётчики
+ * только растут, поэтому список лидеров обновляется за один проход по нему. Если строка
+ * переполнена, из неё вытесняются вещи с наименьшим счётчиком. Класс не потокобезопасен.
+ */
+class CoBookingMatrix {
+
+    private static final int MAGIC = 0x53484352;
+    private static final int VERSION = 1;
+    private static final long[] EMPTY = new long[0];
+
+    private final int topK;
+    private final int maxRowSize;
+    private final int maxHistory;
+    private final LongObjectHashMap<long[]> histories = new LongObjectHashMap<>(1024);
+    private final LongObjectHashMap<Row> rows = new LongObjectHashMap<>(1024);
+
+    CoBookingMatrix(int topK, int maxRowSize, int maxHistory) {
+        this.topK = topK;
+        this.maxRowSize = maxRowSize;
+        this.maxHistory = maxHistory;
+    }
+
+    /**
+     * Учитывает, что арендатор забронировал вещь. Повторное бронирование той же вещи
+     * ничего не меняет, поэтому одно событие можно применять несколько раз.
+     */
+    boolean record(long bookerId, long itemId) {
+        long[] history = histories.get(bookerId);
+        if (history == null) {
+            history = EMPTY;
+        }
+        for (long other : history) {
+            if (other == itemId) {
+                return false;
+            }
+        }
+        for (long other : history) {
+            increment(itemId, other);
+            increment(other, itemId);
+        }
+        long[] updated;
+        if (history.length < maxHistory) {
+            updated = Arrays.copyOf(history, history.length + 1);
+        } else {
+            updated = new long[maxHistory];
+            System.arraycopy(history, 1, updated, 0, maxHistory - 1);
+        }
+        updated[updated.length - 1] = itemId;
+        histories.put(bookerId, updated);
+        return true;
+    }
+
+    long[] top(long itemId) {
+        Row row = rows.get(itemId);
+        return row == null ? EMPTY : Arrays.copyOf(row.topIds, row.topSize);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(histories.size());
+        for (int slot = 0; slot < histories.capacity(); slot++) {
+            if (histories.keyAt(slot) != 0) {
+                long[] history = histories.valueAt(slot);
+                out.writeLong(histories.keyAt(slot));
+                out.writeInt(history.length);
+                for (long itemId : history) {
+                    out.writeLong(itemId);
+                }
+            }
+        }
+        out.writeInt(rows.size());
+        for (int slot = 0; slot < rows.capacity(); slot++) {
+            if (rows.keyAt(slot) != 0) {
+                LongIntHashMap counts = rows.valueAt(slot).counts;
+                out.writeLong(rows.keyAt(slot));
+                out.writeInt(counts.size());
+                for (int i = 0; i < counts.capacity(); i++) {
+                    if (counts.keyAt(i) != 0) {
+                        out.writeLong(counts.keyAt(i));
+                        out.writeInt(counts.valueAt(i));
+                    }
+                }
+            }
+        }
+    }
+
+    void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Неизвестный формат снимка рекомендаций");
+        }
+        int historyCount = in.readInt();
+        for (int i = 0; i < historyCount; i++) {
+            long bookerId = in.readLong();
+            long[] history = new long[in.readInt()];
+            for (int j = 0; j < history.length; j++) {
+                history[j] = in.readLong();
+            }
+            histories.put(bookerId, history);
+        }
+        int rowCount = in.readInt();
+        for (int i = 0; i < rowCount; i++) {
+            long itemId = in.readLong();
+            int size = in.readInt();
+            Row row = new Row(size);
+            for (int j = 0; j < size; j++) {
+                long other = in.readLong();
+                int count = in.readInt();
+                row.counts.addTo(other, count);
+                row.offer(other, count);
+            }
+            rows.put(itemId, row);
+        }
+    }
+
+    private void increment(long itemId, long other) {
+        Row row = rows.get(itemId);
+        if (row == null) {
+            row = new Row(16);
+            rows.put(itemId, row);
+        }
+        if (row.counts.size() >= maxRowSize && row.counts.get(other) == 0) {
+            row.prune();
+        }
+        row.offer(other, row.counts.addTo(other, 1));
+    }
+
+    private final class Row {
+
+        private final LongIntHashMap counts;
+        private final long[] topIds = new long[topK];
+        private final int[] topCounts = new int[topK];
+        private int topSize;
+
+        private Row(int expectedSize) {
+            counts = new LongIntHashMap(expectedSize);
+        }
+
+        private void offer(long itemId, int count) {
+            int index = -1;
+            for (int i = 0; i < topSize; i++) {
+                if (topIds[i] == itemId) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                if (topSize < topK) {
+                    index = topSize++;
+                } else if (topK > 0 && count > topCounts[topK - 1]) {
+                    index = topK - 1;
+                } else {
+                    return;
+                }
+                topIds[index] = itemId;
+            }
+            topCounts[index] = count;
+            while (index > 0 && topCounts[index - 1] < topCounts[index]) {
+                long id = topIds[index];
+                topIds[index] = topIds[index - 1];
+                topIds[index - 1] = id;
+                int value = topCounts[index];
+                topCounts[index] = topCounts[index - 1];
+                topCounts[index - 1] = value;
+                index--;
+            }
+        }
+
+        private void prune() {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < counts.capacity(); i++) {
+                if (counts.keyAt(i) != 0) {
+                    min = Math.min(min, counts.valueAt(i));
+                }
+            }
+            List<Long> evicted = new ArrayList<>();
+            for (int i = 0; i < counts.capacity(); i++) {
+                if (counts.keyAt(i) != 0 && counts.valueAt(i) == min && !inTop(counts.keyAt(i))) {
+                    evicted.add(counts.keyAt(i));
+                }
+            }
+            evicted.forEach(counts::remove);
+        }
+
+        private boolean inTop(long itemId) {
+            for (int i = 0; i < topSize; i++) {
+                if (topIds[i] == itemId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
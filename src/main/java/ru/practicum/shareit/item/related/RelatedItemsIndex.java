@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.related;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.outbox.config.OutboxProperties;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Рекомендации «с этой вещью также бронируют».
+ *
+ * <p>Матрица совместных бронирований обновляется по событиям подтверждения бронирований
+ * и периодически сохраняется на диск. При старте загружается снимок, если он не старше срока
+ * хранения событий outbox, и поверх него применяются все сохранившиеся события; иначе
+ * матрица строится заново по подтверждённым бронированиям.
+ */
+@Component
+@Slf4j
+public class RelatedItemsIndex implements OutboxEventListener {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final BookingRepository bookingRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final RelatedItemsProperties properties;
+    private final OutboxProperties outboxProperties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private CoBookingMatrix matrix;
+    private boolean ready;
+    private volatile boolean dirty;
+
+    public RelatedItemsIndex(BookingRepository bookingRepository, OutboxEventRepository outboxEventRepository,
+                             RelatedItemsProperties properties, OutboxProperties outboxProperties) {
+        this.bookingRepository = bookingRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.properties = properties;
+        this.outboxProperties = outboxProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        CoBookingMatrix loaded = readSnapshot();
+        if (loaded == null) {
+            loaded = newMatrix();
+            rebuild(loaded);
+        }
+        lock.writeLock().lock();
+        try {
+            replay(loaded);
+            matrix = loaded;
+            ready = true;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long[] related(long itemId) {
+        lock.readLock().lock();
+        try {
+            return ready ? matrix.top(itemId) : EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        if (event.getType() != OutboxEventType.APPROVED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready && matrix.record(event.getBookerId(), event.getItemId())) {
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return true;
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${shareit.item.related.snapshot-interval-ms:300000}")
+    public synchronized void snapshot() {
+        if (!dirty || properties.getSnapshot().isBlank()) {
+            return;
+        }
+        Path target = Paths.get(properties.getSnapshot());
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            dirty = false;
+            Path directory = target.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeLong(Instant.now().toEpochMilli());
+                matrix.write(out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Не удалось сохранить снимок рекомендаций {}", target, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private CoBookingMatrix readSnapshot() {
+        if (properties.getSnapshot().isBlank()) {
+            return null;
+        }
+        Path file = Paths.get(properties.getSnapshot());
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            Instant created = Instant.ofEpochMilli(in.readLong());
+            if (created.plus(outboxProperties.getRetention()).isBefore(Instant.now())) {
+                log.info("Снимок рекомендаций {} устарел", file);
+                return null;
+            }
+            CoBookingMatrix loaded = newMatrix();
+            loaded.read(in);
+            log.info("Загружен снимок рекомендаций от {}", created);
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать снимок рекомендаций {}", file, e);
+            return null;
+        }
+    }
+
+    private void rebuild(CoBookingMatrix target) {
+        long lastId = 0;
+        long count = 0;
+        List<BookingEventDto> page;
+        do {
+            page = bookingRepository.findEventsByStatusAndIdGreaterThan(Status.APPROVED, lastId,
+                    PageRequest.of(0, properties.getBatchSize()));
+            for (BookingEventDto booking : page) {
+                target.record(booking.getBookerId(), booking.getItemId());
+                lastId = booking.getBookingId();
+            }
+            count += page.size();
+        } while (page.size() == properties.getBatchSize());
+        log.info("Матрица рекомендаций построена по {} бронированиям", count);
+    }
+
+    private void replay(CoBookingMatrix target) {
+        long lastId = 0;
+        List<OutboxEvent> page;
+        do {
+            page = outboxEventRepository.findByTypeAndIdGreaterThanOrderByIdAsc(OutboxEventType.APPROVED, lastId,
+                    PageRequest.of(0, properties.getBatchSize()));
+            for (OutboxEvent event : page) {
+                target.record(event.getBookerId(), event.getItemId());
+                lastId = event.getId();
+            }
+        } while (page.size() == properties.getBatchSize());
+    }
+
+    private CoBookingMatrix newMatrix() {
+        return new CoBookingMatrix(properties.getTopK(), properties.getMaxRowSize(), properties.getMaxHistory());
+    }
+}
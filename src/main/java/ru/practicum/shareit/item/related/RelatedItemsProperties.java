@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.related;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.related")
+public class RelatedItemsProperties {
+
+    /**
+     * Файл снимка матрицы; пустое значение отключает снимки.
+     */
+    private String snapshot = "data/related-items.bin.gz";
+
+    /**
+     * Сколько рекомендаций хранится для каждой вещи.
+     */
+    private int topK = 20;
+
+    /**
+     * Максимальное число счётчиков в строке матрицы.
+     */
+    private int maxRowSize = 1000;
+
+    /**
+     * Сколько последних вещей арендатора участвуют в подсчёте.
+     */
+    private int maxHistory = 100;
+
+    /**
+     * Размер страницы при построении матрицы из базы.
+     */
+    private int batchSize = 1000;
+}
@@ -1,11 +1,23 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findAllByItemId(long id);
+
+    @Query("select c from Comment c join fetch c.author where c.item.id in ?1 order by c.id")
+    List<Comment> findAllByItemIdIn(Collection<Long> itemIds);
+
+    @Query(value = "SELECT comment_id FROM comments WHERE item_id = ?1 ORDER BY comment_id", nativeQuery = true)
+    List<Long> findIdsByItemId(Long itemId, Pageable pageable);
+
+    @Query(value = "SELECT comment_id FROM comments WHERE author_id = ?1 ORDER BY comment_id", nativeQuery = true)
+    List<Long> findIdsByAuthorId(Long authorId, Pageable pageable);
 }
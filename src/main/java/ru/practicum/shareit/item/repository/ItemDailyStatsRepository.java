@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.model.ItemDailyStatsId;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ItemDailyStatsRepository extends JpaRepository<ItemDailyStats, ItemDailyStatsId> {
+
+    @Modifying
+    @Query("update ItemDailyStats s set s.requested = s.requested + ?3, s.approved = s.approved + ?4, " +
+            "s.rejected = s.rejected + ?5, s.canceled = s.canceled + ?6, " +
+            "s.bookedMinutes = s.bookedMinutes + ?7, s.leadMinutes = s.leadMinutes + ?8, " +
+            "s.leadCount = s.leadCount + ?9 " +
+            "where s.itemId = ?1 and s.date = ?2")
+    int increment(Long itemId, LocalDate date, int requested, int approved, int rejected, int canceled,
+                  long bookedMinutes, long leadMinutes, int leadCount);
+
+    @Modifying
+    @Query(value = "INSERT INTO item_daily_stats (item_id, stat_date, owner_id, requested, approved, rejected, " +
+            "canceled, booked_minutes, lead_minutes, lead_count) VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, ?10)",
+            nativeQuery = true)
+    int insert(Long itemId, LocalDate date, Long ownerId, int requested, int approved, int rejected, int canceled,
+               long bookedMinutes, long leadMinutes, int leadCount);
+
+    @Modifying
+    @Query("delete from ItemDailyStats s where s.itemId = ?1")
+    int deleteByItemId(Long itemId);
+
+    List<ItemDailyStats> findByOwnerIdAndDateBetweenOrderByItemIdAscDateAsc(Long ownerId, LocalDate from,
+                                                                            LocalDate to);
+
+    List<ItemDailyStats> findByOwnerIdAndItemIdAndDateBetweenOrderByDateAsc(Long ownerId, Long itemId,
+                                                                            LocalDate from, LocalDate to);
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.ItemBookingCountDto;
+import ru.practicum.shareit.item.model.ItemPopularity;
+import ru.practicum.shareit.item.model.ItemPopularityId;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemPopularityRepository extends JpaRepository<ItemPopularity, ItemPopularityId> {
+
+    @Modifying
+    @Query("update ItemPopularity p set p.bookings = p.bookings + ?3 where p.itemId = ?1 and p.bucket = ?2")
+    int increment(Long itemId, LocalDateTime bucket, long delta);
+
+    @Query("select new ru.practicum.shareit.booking.dto.ItemBookingCountDto(p.itemId, sum(p.bookings)) " +
+            "from ItemPopularity p " +
+            "where p.bucket >= ?1 " +
+            "group by p.itemId")
+    List<ItemBookingCountDto> sumBookingsSince(LocalDateTime from);
+
+    @Modifying
+    @Query("delete from ItemPopularity p where p.bucket < ?1")
+    int deleteBefore(LocalDateTime time);
+}
@@ -1,15 +1,61 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
 
     @Query(" select i from Item i " +
             "where upper(i.name) like upper(concat('%', ?1, '%')) " +
             " or upper(i.description) like upper(concat('%', ?1, '%'))")
     List<Item> search(String text);
+
+    List<Item> findAllByAvailableTrue();
+
+    @Query("select i from Item i join fetch i.owner where i.id in ?1")
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> ids);
+
+    /**
+     * Блокирует строки вещей до конца транзакции, чтобы проверка пересечений и запись бронирований
+     * не шли параллельно для одной вещи. Строки берутся по возрастанию id, поэтому корзины
+     * с пересекающимися вещами не блокируют друг друга взаимно.
+     */
+    @Query(value = "SELECT item_id FROM items WHERE item_id IN ?1 ORDER BY item_id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(Collection<Long> ids);
+
+    /**
+     * Непомеченные вещи владельца, в том числе удалённого: условие {@code @Where} их бы скрыло.
+     */
+    @Query(value = "SELECT item_id FROM items WHERE owner_id = ?1 AND deleted = FALSE ORDER BY item_id",
+            nativeQuery = true)
+    List<Long> findIdsByOwnerId(Long ownerId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE items SET deleted = TRUE, version = version + 1 " +
+            "WHERE item_id = ?1 AND deleted = FALSE", nativeQuery = true)
+    int markDeleted(Long id);
+
+    @Modifying
+    @Query(value = "UPDATE items SET deleted = TRUE, version = version + 1 " +
+            "WHERE item_id IN ?1 AND deleted = FALSE", nativeQuery = true)
+    int markDeletedByIdIn(Collection<Long> ids);
+
+    @Query(value = "SELECT item_id FROM items WHERE deleted = TRUE ORDER BY item_id", nativeQuery = true)
+    List<Long> findDeletedIds(Pageable pageable);
+
+    /**
+     * Сколько вещей у владельца, включая помеченные удалёнными.
+     */
+    @Query(value = "SELECT COUNT(*) FROM items WHERE owner_id = ?1", nativeQuery = true)
+    long countAllByOwnerIdIncludingDeleted(Long ownerId);
+
+    @Modifying
+    @Query(value = "DELETE FROM items WHERE item_id = ?1 AND deleted = TRUE", nativeQuery = true)
+    int purge(Long id);
 }
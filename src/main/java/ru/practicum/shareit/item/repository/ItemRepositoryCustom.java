@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.dto.ItemDetailDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Обновляет одним запросом только переданные поля вещи владельца и увеличивает версию.
+     * Пустой результат означает, что вещи нет, она принадлежит другому пользователю
+     * или её версия не совпала с {@code version}.
+     */
+    Optional<Item> patch(Long id, Long ownerId, String name, String description, Boolean available, Long version);
+
+    /**
+     * Собирает карточку вещи с последним и следующим относительно {@code now} бронированиями
+     * и комментариями за одно обращение к базе. Бронирования и комментарии, которые не запрошены,
+     * не выбираются вовсе и остаются пустыми.
+     */
+    Optional<ItemDetailDto> findItemDetail(Long id, LocalDateTime now, boolean withBookings, boolean withComments);
+}
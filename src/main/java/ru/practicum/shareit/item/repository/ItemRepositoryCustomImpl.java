@@ -0,0 +1,207 @@
+package ru.practicum.shareit.item.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.db.SqlPlatform;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDetailDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@AllArgsConstructor
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    private static final String ITEM_COLUMNS = "SELECT i.item_id, i.item_name, i.description, i.available, "
+            + "i.owner_id, ";
+
+    /**
+     * Одноимённые столбцы двух бронирований получают псевдонимы: иначе Hibernate отказывается
+     * разбирать результат из-за повторяющихся имён.
+     */
+    private static final String BOOKING_COLUMNS = "lb.booking_id AS last_booking_id, lb.booker_id AS last_booker_id, "
+            + "nb.booking_id AS next_booking_id, nb.booker_id AS next_booker_id, ";
+
+    /**
+     * Пустые столбцы приводятся к типу явно: для нетипизированного NULL у Hibernate нет сопоставления
+     * ("No Dialect mapping for JDBC type: 0").
+     */
+    private static final String NO_BOOKING_COLUMNS = "CAST(NULL AS BIGINT) AS last_booking_id, "
+            + "CAST(NULL AS BIGINT) AS last_booker_id, CAST(NULL AS BIGINT) AS next_booking_id, "
+            + "CAST(NULL AS BIGINT) AS next_booker_id, ";
+
+    private static final String NO_COMMENT_COLUMNS = "CAST(NULL AS BIGINT) AS comment_id, "
+            + "CAST(NULL AS VARCHAR) AS comment_text, CAST(NULL AS VARCHAR) AS user_name, "
+            + "CAST(NULL AS TIMESTAMP) AS created ";
+
+    private static final String LIVE_BOOKER =
+            "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.user_id = b.booker_id AND u.deleted) ";
+
+    private static final String ITEM_FILTER = "WHERE i.item_id = :id AND i.deleted = FALSE "
+            + "AND NOT EXISTS (SELECT 1 FROM users o WHERE o.user_id = i.owner_id AND o.deleted) ";
+
+    /**
+     * Бронирования и комментарии выбираются боковыми подзапросами, комментарии сразу собираются в JSON,
+     * поэтому ответ — ровно одна строка.
+     */
+    private static final String POSTGRES_BOOKINGS = "LEFT JOIN LATERAL (SELECT b.booking_id, b.booker_id "
+            + "FROM bookings b "
+            + "WHERE b.item_id = i.item_id AND b.end_date < :now " + LIVE_BOOKER
+            + "ORDER BY b.end_date DESC, b.booking_id DESC LIMIT 1) lb ON TRUE "
+            + "LEFT JOIN LATERAL (SELECT b.booking_id, b.booker_id FROM bookings b "
+            + "WHERE b.item_id = i.item_id AND b.start_date > :now " + LIVE_BOOKER
+            + "ORDER BY b.start_date DESC, b.booking_id DESC LIMIT 1) nb ON TRUE ";
+
+    private static final String POSTGRES_COMMENTS = "LEFT JOIN LATERAL (SELECT json_agg(json_build_object("
+            + "'id', c.comment_id, 'text', c.comment_text, "
+            + "'authorName', u.user_name, 'created', c.created) ORDER BY c.comment_id) AS comments "
+            + "FROM comments c JOIN users u ON u.user_id = c.author_id AND u.deleted = FALSE "
+            + "WHERE c.item_id = i.item_id) cm ON TRUE ";
+
+    /**
+     * В H2 нет боковых подзапросов: бронирования присоединяются по id из скалярного подзапроса,
+     * а комментарии — обычным соединением, по строке на комментарий.
+     */
+    private static final String H2_BOOKINGS = "LEFT JOIN bookings lb ON lb.booking_id = (SELECT b.booking_id "
+            + "FROM bookings b "
+            + "WHERE b.item_id = i.item_id AND b.end_date < :now " + LIVE_BOOKER
+            + "ORDER BY b.end_date DESC, b.booking_id DESC FETCH FIRST ROW ONLY) "
+            + "LEFT JOIN bookings nb ON nb.booking_id = (SELECT b.booking_id FROM bookings b "
+            + "WHERE b.item_id = i.item_id AND b.start_date > :now " + LIVE_BOOKER
+            + "ORDER BY b.start_date DESC, b.booking_id DESC FETCH FIRST ROW ONLY) ";
+
+    private static final String H2_COMMENTS = "LEFT JOIN comments c ON c.item_id = i.item_id "
+            + "AND NOT EXISTS (SELECT 1 FROM users a WHERE a.user_id = c.author_id AND a.deleted) "
+            + "LEFT JOIN users u ON u.user_id = c.author_id ";
+
+    private final EntityManager entityManager;
+    private final SqlPlatform sqlPlatform;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Optional<Item> patch(Long id, Long ownerId, String name, String description, Boolean available,
+                                Long version) {
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (name != null) {
+            assignments.add("item_name = :name");
+            parameters.put("name", name);
+        }
+        if (description != null) {
+            assignments.add("description = :description");
+            parameters.put("description", description);
+        }
+        if (available != null) {
+            assignments.add("available = :available");
+            parameters.put("available", available);
+        }
+        assignments.add("version = version + 1");
+        StringBuilder sql = new StringBuilder("UPDATE items SET ")
+                .append(String.join(", ", assignments))
+                .append(" WHERE item_id = :id AND owner_id = :ownerId AND deleted = FALSE");
+        parameters.put("id", id);
+        parameters.put("ownerId", ownerId);
+        if (version != null) {
+            sql.append(" AND version = :version");
+            parameters.put("version", version);
+        }
+        Query query = entityManager.createNativeQuery(sqlPlatform.returning(sql.toString()), Item.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList().stream()
+                .map(Item.class::cast)
+                .findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<ItemDetailDto> findItemDetail(Long id, LocalDateTime now, boolean withBookings,
+                                                  boolean withComments) {
+        Query query = entityManager
+                .createNativeQuery(detailSql(withBookings, withComments))
+                .setParameter("id", id);
+        if (withBookings) {
+            query.setParameter("now", now);
+        }
+        List<Object[]> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] first = rows.get(0);
+        List<CommentDto> comments = sqlPlatform.isPostgres() ? parseComments((String) first[9]) : new ArrayList<>();
+        if (!sqlPlatform.isPostgres()) {
+            for (Object[] row : rows) {
+                if (row[9] != null) {
+                    comments.add(new CommentDto(toLong(row[9]), (String) row[10], (String) row[11],
+                            toLocalDateTime(row[12])));
+                }
+            }
+        }
+        ItemDtoWithBooking item = new ItemDtoWithBooking(toLong(first[0]), (String) first[1], (String) first[2],
+                (Boolean) first[3], toBooking(first[5], first[6]), toBooking(first[7], first[8]), comments);
+        return Optional.of(new ItemDetailDto(toLong(first[4]), item));
+    }
+
+    /**
+     * Собирает запрос карточки; невыбранные части заменяются типизированными столбцами NULL, чтобы номера столбцов
+     * в разборе результата не менялись.
+     */
+    private String detailSql(boolean withBookings, boolean withComments) {
+        StringBuilder sql = new StringBuilder(ITEM_COLUMNS)
+                .append(withBookings ? BOOKING_COLUMNS : NO_BOOKING_COLUMNS);
+        if (sqlPlatform.isPostgres()) {
+            sql.append(withComments ? "CAST(cm.comments AS TEXT) " : "CAST(NULL AS TEXT) ")
+                    .append("FROM items i ")
+                    .append(withBookings ? POSTGRES_BOOKINGS : "")
+                    .append(withComments ? POSTGRES_COMMENTS : "")
+                    .append(ITEM_FILTER);
+        } else {
+            sql.append(withComments ? "c.comment_id, c.comment_text, u.user_name, c.created " : NO_COMMENT_COLUMNS)
+                    .append("FROM items i ")
+                    .append(withBookings ? H2_BOOKINGS : "")
+                    .append(withComments ? H2_COMMENTS : "")
+                    .append(ITEM_FILTER)
+                    .append(withComments ? "ORDER BY c.comment_id" : "");
+        }
+        return sql.toString();
+    }
+
+    private List<CommentDto> parseComments(String json) {
+        List<CommentDto> comments = new ArrayList<>();
+        if (json == null) {
+            return comments;
+        }
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                comments.add(new CommentDto(node.get("id").asLong(), node.get("text").asText(),
+                        node.get("authorName").asText(), LocalDateTime.parse(node.get("created").asText())));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось разобрать комментарии вещи", e);
+        }
+        return comments;
+    }
+
+    private static BookingItemDto toBooking(Object id, Object bookerId) {
+        return id == null ? null : new BookingItemDto(toLong(id), toLong(bookerId));
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.ItemStatsBooking;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ItemStatsBookingRepository extends JpaRepository<ItemStatsBooking, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemStatsBooking s where s.bookingId = ?1")
+    Optional<ItemStatsBooking> findByIdForUpdate(Long bookingId);
+
+    /**
+     * Вставляет состояние без предварительного чтения: в отличие от {@code save}, одновременно
+     * вставленная строка не перезаписывается, а запрос падает на первичном ключе.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO item_stats_bookings (booking_id, status, requested_at, end_date, last_event_id) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5)", nativeQuery = true)
+    int insert(Long bookingId, String status, LocalDateTime requestedAt, LocalDateTime end, long lastEventId);
+
+    @Modifying
+    @Query("delete from ItemStatsBooking s where s.end < ?1")
+    int deleteEndedBefore(LocalDateTime time);
+}
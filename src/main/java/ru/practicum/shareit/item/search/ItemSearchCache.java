@@ -0,0 +1,214 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кеш результатов поиска вещей по нормализованному запросу с вытеснением W-TinyLFU.
+ *
+ * <p>При изменении вещи сразу, без обращения к базе, удаляются запросы, в результатах которых
+ * она уже есть, — так покрываются старые значения полей; для этого ведётся индекс вещь → запросы.
+ * Запросы, которые входят в новое название или описание, удаляются в фоне пачкой: вещи читаются
+ * одним запросом, а кандидаты берутся из индекса по первым трём символам запроса, так что кеш
+ * целиком не перебирается. Результат, посчитанный во время инвалидации, в кеш не кладётся.
+ *
+ * <p>Инвалидация пользователя удаляет запросы с его вещами по индексу владелец → запросы: так
+ * вещи удалённого владельца пропадают из выдачи сразу, а не после очистки.
+ */
+@Component
+@Slf4j
+public class ItemSearchCache implements InvalidationListener {
+
+    private static final int KEY_LENGTH = 3;
+
+    private final Cache<String, List<ItemDto>> cache;
+    private final ItemRepository itemRepository;
+    private final AtomicLong generation = new AtomicLong();
+    private final Object indexLock = new Object();
+    private final Map<Long, Set<String>> queriesByItem = new HashMap<>();
+    private final Map<Long, Set<String>> queriesByOwner = new HashMap<>();
+    private final Map<String, Set<String>> queriesByPrefix = new HashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    public ItemSearchCache(ItemSearchCacheProperties properties, ItemRepository itemRepository,
+                           MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .removalListener((String query, List<ItemDto> result, RemovalCause cause) -> unindex(query, result))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+    }
+
+    public static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public List<ItemDto> get(String query, Supplier<List<ItemDto>> loader) {
+        List<ItemDto> cached = cache.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+        long loadGeneration = generation.get();
+        List<ItemDto> result = loader.get();
+        synchronized (indexLock) {
+            if (generation.get() == loadGeneration) {
+                queriesByPrefix.computeIfAbsent(prefix(query), key -> new HashSet<>()).add(query);
+                for (ItemDto itemDto : result) {
+                    queriesByItem.computeIfAbsent(itemDto.getId(), key -> new HashSet<>()).add(query);
+                    if (itemDto.getOwner() != null) {
+                        queriesByOwner.computeIfAbsent(itemDto.getOwner().getId(), key -> new HashSet<>())
+                                .add(query);
+                    }
+                }
+                cache.put(query, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key.startsWith(CacheNames.USERS + ":")) {
+            invalidateOwner(Long.parseLong(key.substring(CacheNames.USERS.length() + 1)));
+            return;
+        }
+        if (!key.startsWith(CacheNames.ITEMS + ":")) {
+            return;
+        }
+        long itemId = Long.parseLong(key.substring(CacheNames.ITEMS.length() + 1));
+        Set<String> queries;
+        synchronized (indexLock) {
+            generation.incrementAndGet();
+            queries = queriesByItem.remove(itemId);
+        }
+        if (queries != null) {
+            cache.invalidateAll(queries);
+        }
+        changed.add(itemId);
+    }
+
+    /**
+     * Удаляет запросы, которые входят в новые название или описание изменённых вещей.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item.search.cache.refresh-interval-ms:100}")
+    public void applyChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Set<Long> itemIds = new HashSet<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+            itemIds.add(iterator.next());
+            iterator.remove();
+        }
+        Set<String> stale = new HashSet<>();
+        List<Item> items = itemRepository.findAllById(itemIds);
+        synchronized (indexLock) {
+            generation.incrementAndGet();
+            for (Item item : items) {
+                collectMatches(item.getName(), stale);
+                collectMatches(item.getDescription(), stale);
+            }
+        }
+        cache.invalidateAll(stale);
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (indexLock) {
+            generation.incrementAndGet();
+        }
+        cache.invalidateAll();
+    }
+
+    private void invalidateOwner(long ownerId) {
+        Set<String> queries;
+        synchronized (indexLock) {
+            generation.incrementAndGet();
+            queries = queriesByOwner.remove(ownerId);
+        }
+        if (queries != null) {
+            cache.invalidateAll(queries);
+        }
+    }
+
+    private void collectMatches(String text, Set<String> result) {
+        if (text == null) {
+            return;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < normalized.length(); i++) {
+            for (int length = 1; length <= KEY_LENGTH && i + length <= normalized.length(); length++) {
+                Set<String> queries = queriesByPrefix.get(normalized.substring(i, i + length));
+                if (queries == null) {
+                    continue;
+                }
+                for (String query : queries) {
+                    if (normalized.startsWith(query, i)) {
+                        result.add(query);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Убирает вытесненный запрос из индексов, если в кеше его уже нет. Лишняя запись в индексе
+     * приводит лишь к лишней инвалидации, недостающая — к устаревшему результату, поэтому при гонке
+     * с повторной загрузкой запись остаётся.
+     */
+    private void unindex(String query, List<ItemDto> result) {
+        if (query == null) {
+            return;
+        }
+        synchronized (indexLock) {
+            if (cache.asMap().containsKey(query)) {
+                return;
+            }
+            removeFrom(queriesByPrefix, prefix(query), query);
+            if (result != null) {
+                for (ItemDto itemDto : result) {
+                    removeFrom(queriesByItem, itemDto.getId(), query);
+                    if (itemDto.getOwner() != null) {
+                        removeFrom(queriesByOwner, itemDto.getOwner().getId(), query);
+                    }
+                }
+            }
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<String>> index, K key, String query) {
+        Set<String> queries = index.get(key);
+        if (queries != null && queries.remove(query) && queries.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static String prefix(String query) {
+        return query.length() > KEY_LENGTH ? query.substring(0, KEY_LENGTH) : query;
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.search.cache")
+public class ItemSearchCacheProperties {
+
+    /**
+     * Максимальное число закешированных запросов.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Сколько хранится результат; ограничивает устаревание порядка по популярности.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(1);
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.archive.BookingArchiveService;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.status.Status;
 import ru.practicum.shareit.exceptions.BookingException;
@@ -15,7 +16,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.logging.EventLog;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
@@ -29,6 +30,8 @@ public class CommentServiceImpl implements CommentService{
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveService bookingArchiveService;
+    private final EventLog eventLog;
 
     @Override
     @Transactional
@@ -39,25 +42,25 @@ public class CommentServiceImpl implements CommentService{
         }
         boolean bookingBoolean = bookingRepository
                 .searchBookingByBookerIdAndItemIdAndEndIsBefore(userId, itemId, LocalDateTime.now())
-                .stream().noneMatch(booking -> booking.getStatus().equals(Status.APPROVED));
+                .stream().noneMatch(booking -> booking.getStatus().equals(Status.APPROVED))
+                && !bookingArchiveService.existsApprovedByBookerIdAndItemId(userId, itemId);
         if (bookingBoolean) {
             log.error("Пользователь {} не брал в аренду вещь {}", userId, itemId);
             throw new BookingException(String.format("Пользователь %s не брал в аренду вещь %d", userId, itemId));
         }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Пользователя с %s не существует.", userId)));
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new EntityNotFoundException(
                         String.format("Вещь с %s не существует.", itemId)));
 
         Comment comment = CommentMapper.toComment(commentDto);
         comment.setItem(item);
-        comment.setAuthor(user);
+        comment.setAuthor(userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Пользователь %s не существует.", userId))));
         comment.setCreated(LocalDateTime.now());
         Comment commentSave = commentRepository.save(comment);
-        log.info("Оставлен коментарий с id {}: {}", commentSave.getId(), commentSave);
+        eventLog.log("comment-created", "commentId", commentSave.getId(), "itemId", itemId, "authorId", userId);
         return CommentMapper.toCommentDto(commentSave);
     }
 }
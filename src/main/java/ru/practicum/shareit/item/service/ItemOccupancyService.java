@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.dto.ItemOccupancyDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ItemOccupancyService {
+
+    List<ItemOccupancyDto> getOccupancy(Long ownerId, Long itemId, LocalDate from, LocalDate to);
+}
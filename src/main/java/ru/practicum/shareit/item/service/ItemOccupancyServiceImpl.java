@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.analytics.ItemAnalyticsProperties;
+import ru.practicum.shareit.item.dto.DailyOccupancyDto;
+import ru.practicum.shareit.item.dto.ItemOccupancyDto;
+import ru.practicum.shareit.item.model.ItemDailyStats;
+import ru.practicum.shareit.item.repository.ItemDailyStatsRepository;
+import ru.practicum.shareit.logging.EventLog;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class ItemOccupancyServiceImpl implements ItemOccupancyService {
+
+    private static final double MINUTES_PER_HOUR = 60.0;
+    private static final double MINUTES_PER_DAY = 24 * 60.0;
+
+    private final ItemDailyStatsRepository statsRepository;
+    private final ItemAnalyticsProperties properties;
+    private final EventLog eventLog;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemOccupancyDto> getOccupancy(Long ownerId, Long itemId, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            log.error("Начало периода {} позже конца {}", from, to);
+            throw new ValidationException("Начало периода не может быть позже конца.");
+        }
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days > properties.getMaxRangeDays()) {
+            log.error("Запрошен период {} дней", days);
+            throw new ValidationException(String.format("Период не может быть длиннее %s дней.",
+                    properties.getMaxRangeDays()));
+        }
+        List<ItemDailyStats> rows = itemId == null
+                ? statsRepository.findByOwnerIdAndDateBetweenOrderByItemIdAscDateAsc(ownerId, from, to)
+                : statsRepository.findByOwnerIdAndItemIdAndDateBetweenOrderByDateAsc(ownerId, itemId, from, to);
+        Map<Long, List<ItemDailyStats>> byItem = new LinkedHashMap<>();
+        for (ItemDailyStats row : rows) {
+            byItem.computeIfAbsent(row.getItemId(), id -> new ArrayList<>()).add(row);
+        }
+        List<ItemOccupancyDto> result = new ArrayList<>();
+        byItem.forEach((id, itemRows) -> result.add(toOccupancyDto(id, from, to, days, itemRows)));
+        eventLog.log("occupancy-viewed", "ownerId", ownerId, "days", days, "items", result.size());
+        return result;
+    }
+
+    private static ItemOccupancyDto toOccupancyDto(Long itemId, LocalDate from, LocalDate to, long days,
+                                                   List<ItemDailyStats> rows) {
+        long bookedMinutes = 0;
+        long requested = 0;
+        long approved = 0;
+        long rejected = 0;
+        long canceled = 0;
+        long leadMinutes = 0;
+        long leadCount = 0;
+        List<DailyOccupancyDto> daily = new ArrayList<>();
+        for (ItemDailyStats row : rows) {
+            bookedMinutes += row.getBookedMinutes();
+            requested += row.getRequested();
+            approved += row.getApproved();
+            rejected += row.getRejected();
+            canceled += row.getCanceled();
+            leadMinutes += row.getLeadMinutes();
+            leadCount += row.getLeadCount();
+            daily.add(new DailyOccupancyDto(row.getDate(), row.getBookedMinutes() / MINUTES_PER_HOUR,
+                    row.getBookedMinutes() / MINUTES_PER_DAY, row.getRequested(), row.getApproved(),
+                    row.getRejected(), row.getCanceled()));
+        }
+        return new ItemOccupancyDto(itemId, from, to, bookedMinutes / MINUTES_PER_HOUR,
+                bookedMinutes / (days * MINUTES_PER_DAY), requested, approved, rejected, canceled,
+                approved + rejected == 0 ? null : (double) approved / (approved + rejected),
+                leadCount == 0 ? null : leadMinutes / MINUTES_PER_HOUR / leadCount,
+                daily);
+    }
+}
@@ -1,18 +1,29 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.fields.FieldSelection;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.dto.ItemSuggestDto;
+import ru.practicum.shareit.item.dto.ItemTrendingDto;
 
 import java.util.List;
 
 public interface ItemService {
 
-    List<ItemDtoWithBooking> getAllByUserId(Long userId);
+    List<ItemDtoWithBooking> getAllByUserId(Long userId, FieldSelection fields);
 
-    ItemDtoWithBooking getItemById(Long userId, Long itemId);
+    ItemDtoWithBooking getItemById(Long userId, Long itemId, FieldSelection fields);
+
+    List<ItemDtoWithBooking> getItemsByIds(Long userId, List<Long> ids);
 
     List<ItemDto> getItemsByText(String text);
 
+    List<ItemDto> getRelatedItems(Long itemId);
+
+    List<ItemSuggestDto> getSuggestions(String prefix, Integer limit);
+
+    List<ItemTrendingDto> getTrending(String window, Integer size);
+
     ItemDto createItem(ItemDto itemDto, Long userId);
 
     void deleteItem(Long id);
@@ -4,25 +4,45 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.archive.BookingArchiveService;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.exceptions.ConcurrentUpdateException;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.fields.FieldSelection;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDetailDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.dto.ItemSuggestDto;
+import ru.practicum.shareit.item.dto.ItemTrendingDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.popularity.ItemPopularityCounter;
+import ru.practicum.shareit.item.popularity.TrendingWindow;
+import ru.practicum.shareit.item.related.RelatedItemsIndex;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.suggest.ItemSuggestIndex;
+import ru.practicum.shareit.logging.EventLog;
+import ru.practicum.shareit.singleflight.SingleFlight;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.mapper.BookingMapper.toBookingDtoForItem;
@@ -33,19 +53,32 @@ import static ru.practicum.shareit.item.mapper.ItemMapper.toItemDtoWithBooking;
 @Slf4j
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingArchiveService bookingArchiveService;
     private final CommentRepository commentRepository;
+    private final InvalidationBus invalidationBus;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemPopularityCounter itemPopularityCounter;
+    private final RelatedItemsIndex relatedItemsIndex;
+    private final SingleFlight singleFlight;
+    private final ItemSearchCache itemSearchCache;
+    private final EventLog eventLog;
 
     @Override
-    public List<ItemDtoWithBooking> getAllByUserId(Long userId) {
+    public List<ItemDtoWithBooking> getAllByUserId(Long userId, FieldSelection fields) {
         List<ItemDtoWithBooking> itemsDtoWithBookingList = itemRepository.findAll().stream()
                 .filter(item -> item.getOwner().getId().equals(userId))
                 .map(ItemMapper::toItemDtoWithBooking)
                 .collect(Collectors.toList());
         for (ItemDtoWithBooking itemDtoWithBooking : itemsDtoWithBookingList) {
-            createLastAndNextBooking(itemDtoWithBooking);
+            createLastAndNextBooking(itemDtoWithBooking, fields);
+            if (!fields.includes("comments")) {
+                continue;
+            }
             List<Comment> comments = commentRepository.findAllByItemId(itemDtoWithBooking.getId());
             if (!comments.isEmpty()) {
                 itemDtoWithBooking.setComments(comments
@@ -54,114 +87,219 @@ public class ItemServiceImpl implements ItemService {
             }
         }
         itemsDtoWithBookingList.sort(Comparator.comparing(ItemDtoWithBooking::getId));
-        log.info("Все вещи:");
+        eventLog.log("items-listed", "ownerId", userId, "count", itemsDtoWithBookingList.size());
         return itemsDtoWithBookingList;
     }
 
     @Override
-    public ItemDtoWithBooking getItemById(Long userId, Long itemId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new EntityNotFoundException(
-                String.format("Вещь %s не существует.", itemId)));
-        ItemDtoWithBooking itemDtoWithBooking = toItemDtoWithBooking(item);
-        if (item.getOwner().getId().equals(userId)) {
-            createLastAndNextBooking(itemDtoWithBooking);
-        }
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        if (!comments.isEmpty()) {
-            itemDtoWithBooking.setComments(comments
-                    .stream().map(CommentMapper::toCommentDto)
-                    .collect(Collectors.toList())
-            );
-        }
-        log.info("Вещь с id {}:{}", itemId, itemDtoWithBooking);
+    public ItemDtoWithBooking getItemById(Long userId, Long itemId, FieldSelection fields) {
+        boolean withBookings = fields.includes("lastBooking") || fields.includes("nextBooking");
+        boolean withComments = fields.includes("comments");
+        ItemDetailDto detail = singleFlight.execute("items-get", List.of(itemId, withBookings, withComments),
+                () -> itemRepository.findItemDetail(itemId, LocalDateTime.now(), withBookings, withComments)
+                        .orElseThrow(() -> new EntityNotFoundException(
+                                String.format("Вещь %s не существует.", itemId))));
+        ItemDtoWithBooking shared = detail.getItem();
+        boolean owner = detail.getOwnerId().equals(userId);
+        BookingItemDto lastBooking = owner ? shared.getLastBooking() : null;
+        if (owner && lastBooking == null && fields.includes("lastBooking")) {
+            lastBooking = lastArchivedBooking(itemId);
+        }
+        ItemDtoWithBooking itemDtoWithBooking = new ItemDtoWithBooking(shared.getId(), shared.getName(),
+                shared.getDescription(), shared.getAvailable(),
+                lastBooking,
+                owner ? shared.getNextBooking() : null,
+                new ArrayList<>(shared.getComments()));
+        eventLog.log("item-viewed", "itemId", itemId, "userId", userId, "owner", owner);
         return itemDtoWithBooking;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDtoWithBooking> getItemsByIds(Long userId, List<Long> ids) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            log.error("Запрошено больше {} вещей.", MAX_BATCH_SIZE);
+            throw new ValidationException(String.format("Нельзя запросить больше %s вещей за раз.", MAX_BATCH_SIZE));
+        }
+        if (uniqueIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Item> items = itemRepository.findAllWithOwnerByIdIn(uniqueIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Long> ownedIds = items.values().stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, BookingItemDto> lastBookings = new HashMap<>();
+        Map<Long, BookingItemDto> nextBookings = new HashMap<>();
+        if (!ownedIds.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            for (Booking booking : bookingRepository.findLastAndNextBookingsByItemIdIn(ownedIds, now)) {
+                Map<Long, BookingItemDto> target = booking.getEnd().isBefore(now) ? lastBookings : nextBookings;
+                target.putIfAbsent(booking.getItem().getId(), toBookingDtoForItem(booking));
+            }
+            for (Long id : ownedIds) {
+                if (!lastBookings.containsKey(id)) {
+                    lastBookings.put(id, lastArchivedBooking(id));
+                }
+            }
+        }
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(items.keySet()).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        List<ItemDtoWithBooking> result = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Item item = items.get(id);
+            if (item == null) {
+                continue;
+            }
+            ItemDtoWithBooking itemDtoWithBooking = toItemDtoWithBooking(item);
+            itemDtoWithBooking.setLastBooking(lastBookings.get(id));
+            itemDtoWithBooking.setNextBooking(nextBookings.get(id));
+            if (comments.containsKey(id)) {
+                itemDtoWithBooking.setComments(comments.get(id));
+            }
+            result.add(itemDtoWithBooking);
+        }
+        eventLog.log("items-fetched", "requested", uniqueIds.size(), "found", result.size());
+        return result;
+    }
+
     @Override
     public List<ItemDto> getItemsByText(String searchText) {
-        if (searchText.isEmpty()) {
-            log.info("Результат поиска :");
+        String query = ItemSearchCache.normalize(searchText);
+        eventLog.log("items-searched", "queryLength", query.length());
+        if (query.isEmpty()) {
             return new ArrayList<>();
         }
-        log.info("Результат поиска :");
-        return itemRepository.search(searchText)
-                .stream()
-                .filter(Item::getAvailable)
+        return new ArrayList<>(itemSearchCache.get(query, () -> singleFlight.execute("items-search", query,
+                () -> itemRepository.search(query)
+                        .stream()
+                        .filter(Item::getAvailable)
+                        .map(ItemMapper::toItemDto)
+                        .sorted(Comparator.comparingLong(itemDto -> -itemPopularityCounter.getScore(itemDto.getId())))
+                        .collect(Collectors.toList()))));
+    }
+
+    @Override
+    public List<ItemDto> getRelatedItems(Long itemId) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException(String.format("Вещь %s не существует.", itemId));
+        }
+        long[] relatedIds = relatedItemsIndex.related(itemId);
+        List<Long> ids = new ArrayList<>(relatedIds.length);
+        for (long relatedId : relatedIds) {
+            ids.add(relatedId);
+        }
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<ItemDto> related = ids.stream()
+                .map(items::get)
+                .filter(item -> item != null && item.getAvailable())
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
+        eventLog.log("related-items-viewed", "itemId", itemId, "count", related.size());
+        return related;
+    }
+
+    @Override
+    public List<ItemSuggestDto> getSuggestions(String prefix, Integer limit) {
+        if (limit <= 0) {
+            log.error("Количество подсказок должно быть положительным.");
+            throw new ValidationException("Количество подсказок должно быть положительным.");
+        }
+        List<ItemSuggestDto> suggestions = itemSuggestIndex.suggest(prefix, limit);
+        eventLog.log("items-suggested", "prefixLength", prefix.length(), "count", suggestions.size());
+        return suggestions;
+    }
+
+    @Override
+    public List<ItemTrendingDto> getTrending(String windowParam, Integer size) {
+        TrendingWindow window = TrendingWindow.from(windowParam);
+        if (window == null) {
+            log.error("Неизвестное окно популярности: {}", windowParam);
+            throw new ValidationException("Неизвестное окно популярности: " + windowParam);
+        }
+        if (size <= 0) {
+            log.error("Размер рейтинга должен быть положительным.");
+            throw new ValidationException("Размер рейтинга должен быть положительным.");
+        }
+        List<ItemTrendingDto> trending = itemPopularityCounter.getTrending(window, size);
+        eventLog.log("trending-viewed", "window", window, "count", trending.size());
+        return trending;
     }
 
     @Override
     @Transactional
     public ItemDto createItem(ItemDto itemDto, Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Пользователя с %s не существует.", userId)));
         if (itemDto.getName().isEmpty() || itemDto.getDescription() == null || itemDto.getAvailable() == null) {
             log.error("Данное поле не может быть пустым.");
             throw new ValidationException("Данное поле не может быть пустым.");
         }
         Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(userRepository.findById(userId).get());
+        item.setId(null);
+        item.setVersion(null);
+        item.setOwner(userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException(
+                        String.format("Пользователя с %s не существует.", userId))));
         Item itemCreate = itemRepository.save(item);
-        log.info("Добавлена вещь с id {}: {}", itemCreate.getId(), itemCreate);
+        invalidationBus.invalidate(CacheNames.ITEMS, itemCreate.getId());
+        eventLog.log("item-created", "itemId", itemCreate.getId(), "ownerId", userId);
         return ItemMapper.toItemDto(itemCreate);
     }
 
+    /**
+     * Только помечает вещь удалённой; её бронирования и комментарии удаляет в фоне
+     * {@link ru.practicum.shareit.purge.DeletionPurger}.
+     */
     @Override
     @Transactional
     public void deleteItem(Long id) {
-        itemRepository.findById(id).orElseThrow(() -> new EntityNotFoundException(
-                String.format("Пользователя с %s не существует.", id)));
-        log.info("Удалена вещь с id {}", id);
-        itemRepository.deleteById(id);
+        if (itemRepository.markDeleted(id) == 0) {
+            throw new EntityNotFoundException(String.format("Пользователя с %s не существует.", id));
+        }
+        eventLog.log("item-deleted", "itemId", id);
+        invalidationBus.invalidate(CacheNames.ITEMS, id);
     }
 
     @Override
     @Transactional
     public ItemDto updateItem(ItemDto itemDto, Long userId, Long itemId) {
-        Item item = ItemMapper.toItem(itemDto);
-        final Item itemUpdate = itemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Вещь с id %s не существует.", itemId)));
-        if (itemUpdate.getOwner().getId().equals(userId)) {
-            if (item.getAvailable() != null && item.getName() == null && item.getDescription() == null) {
-                itemUpdate.setAvailable(item.getAvailable());
-                itemRepository.save(itemUpdate);
-                log.info("Обновлена вещь с id {}:{}", itemId, itemUpdate);
-                return ItemMapper.toItemDto(itemUpdate);
-            } else if (item.getName() != null && item.getAvailable() == null && item.getDescription() == null) {
-                itemUpdate.setName(item.getName());
-                itemRepository.save(itemUpdate);
-                log.info("Обновлена вещь с id {}:{}", itemId, itemUpdate);
-                return ItemMapper.toItemDto(itemUpdate);
-            } else if (item.getDescription() != null && item.getName() == null && item.getAvailable() == null) {
-                itemUpdate.setDescription(item.getDescription());
-                itemRepository.save(itemUpdate);
-                log.info("Обновлена вещь с id {}:{}", itemId, itemUpdate);
-                return ItemMapper.toItemDto(itemUpdate);
+        final Item itemUpdate = itemRepository.patch(itemId, userId, itemDto.getName(), itemDto.getDescription(),
+                        itemDto.getAvailable(), itemDto.getVersion())
+                .orElseThrow(() -> {
+                    Item item = itemRepository.findById(itemId)
+                            .orElseThrow(() -> new EntityNotFoundException(
+                                    String.format("Вещь с id %s не существует.", itemId)));
+                    if (!item.getOwner().getId().equals(userId)) {
+                        log.error("Пользователя с id  {} не владеет вещью.", userId);
+                        return new EntityNotFoundException(
+                                String.format("Пользователя с id  %s не владеет вещью.", userId));
+                    }
+                    log.error("Версия вещи с id {} не совпадает с {}", itemId, itemDto.getVersion());
+                    return new ConcurrentUpdateException(
+                            String.format("Вещь %s была изменена другим запросом.", itemId));
+                });
+        invalidationBus.invalidate(CacheNames.ITEMS, itemId);
+        eventLog.log("item-updated", "itemId", itemId, "ownerId", userId, "version", itemUpdate.getVersion());
+        return ItemMapper.toItemDto(itemUpdate);
+    }
+
+    private void createLastAndNextBooking(ItemDtoWithBooking itemDtoWithBooking, FieldSelection fields) {
+        if (fields.includes("lastBooking")) {
+            List<Booking> lastBookings = bookingRepository
+                    .findBookingsByItemIdAndEndIsBeforeOrderByEndDesc(itemDtoWithBooking.getId(),
+                            LocalDateTime.now());
+            if (!lastBookings.isEmpty()) {
+                BookingItemDto lastBooking = toBookingDtoForItem(lastBookings.get(0));
+                itemDtoWithBooking.setLastBooking(lastBooking);
             } else {
-                itemUpdate.setName(item.getName());
-                itemUpdate.setDescription(item.getDescription());
-                itemUpdate.setAvailable(item.getAvailable());
-                itemRepository.save(itemUpdate);
-                log.info("Обновлена вещь с id {}:{}", itemId, itemUpdate);
-                return ItemMapper.toItemDto(itemUpdate);
+                itemDtoWithBooking.setLastBooking(lastArchivedBooking(itemDtoWithBooking.getId()));
             }
-        } else {
-            log.error("Пользователя с id  {} не владеет вещью.", userId);
-            throw new EntityNotFoundException(
-                    String.format("Пользователя с id  %s не владеет вещью.", userId));
         }
-    }
-
-    private void createLastAndNextBooking(ItemDtoWithBooking itemDtoWithBooking) {
-        List<Booking> lastBookings = bookingRepository
-                .findBookingsByItemIdAndEndIsBeforeOrderByEndDesc(itemDtoWithBooking.getId(),
-                        LocalDateTime.now());
-        if (!lastBookings.isEmpty()) {
-            BookingItemDto lastBooking = toBookingDtoForItem(lastBookings.get(0));
-            itemDtoWithBooking.setLastBooking(lastBooking);
+        if (!fields.includes("nextBooking")) {
+            return;
         }
         List<Booking> nextBookings = bookingRepository
                 .findBookingsByItemIdAndStartIsAfterOrderByStartDesc(itemDtoWithBooking.getId(),
@@ -171,4 +309,13 @@ public class ItemServiceImpl implements ItemService {
             itemDtoWithBooking.setNextBooking(nextBooking);
         }
     }
+
+    /**
+     * Последнее бронирование из архива — для вещей, чьи завершённые бронирования уже туда перенесены.
+     */
+    private BookingItemDto lastArchivedBooking(Long itemId) {
+        return bookingArchiveService.findLastByItemId(itemId)
+                .map(booking -> new BookingItemDto(booking.getId(), booking.getBookerId()))
+                .orElse(null);
+    }
 }
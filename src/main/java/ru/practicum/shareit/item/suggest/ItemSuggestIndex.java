@@ -0,0 +1,458 @@
+package ru.practicum.shareit.item.suggest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.ItemBookingCountDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationListener;
+import ru.practicum.shareit.item.dto.ItemSuggestDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.service.OutboxEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Префиксное дерево по словам названий доступных вещей.
+ *
+ * <p>Каждый узел хранит готовый список из {@code topK} самых популярных вещей своего поддерева,
+ * поэтому ответ на запрос — это проход по символам префикса без обхода поддерева. При изменении
+ * вещи списки пересчитываются только вдоль путей её слов, а рост популярности лишь продвигает вещь
+ * внутри готовых списков. Для запроса из нескольких слов, когда первых {@code topK} не хватает,
+ * кандидаты берутся из вещей с самым редким из предшествующих слов.
+ *
+ * <p>Изменения вещей приходят через шину инвалидации и применяются пачкой в фоне, чтобы не ходить
+ * в базу из потока запроса; популярность — из событий бронирований.
+ */
+@Component
+@Slf4j
+public class ItemSuggestIndex implements InvalidationListener, OutboxEventListener {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<IndexedItem> RANK = Comparator
+            .comparingLong((IndexedItem item) -> -item.popularity)
+            .thenComparingLong(item -> item.id);
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemSuggestProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedItem> items = new HashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private Node root = new Node();
+
+    public ItemSuggestIndex(ItemRepository itemRepository, BookingRepository bookingRepository,
+                            ItemSuggestProperties properties) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Long> popularity = bookingRepository.countBookingsGroupByItem().stream()
+                .collect(Collectors.toMap(ItemBookingCountDto::getItemId, ItemBookingCountDto::getCount));
+        List<Item> available = itemRepository.findAllByAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            items.clear();
+            root = new Node();
+            for (Item item : available) {
+                insert(item.getId(), item.getName(), popularity.getOrDefault(item.getId(), 0L));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс подсказок построен: {} вещей", available.size());
+    }
+
+    public List<ItemSuggestDto> suggest(String prefix, int limit) {
+        List<String> words = tokens(prefix);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String last = words.get(words.size() - 1);
+        List<String> preceding = words.subList(0, words.size() - 1);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < last.length() && node != null; i++) {
+                node = node.child(last.charAt(i));
+            }
+            List<ItemSuggestDto> result = new ArrayList<>();
+            if (node == null) {
+                return result;
+            }
+            for (long id : node.top) {
+                IndexedItem item = items.get(id);
+                if (item.tokens.containsAll(preceding)) {
+                    result.add(new ItemSuggestDto(item.id, item.name));
+                    if (result.size() == limit) {
+                        return result;
+                    }
+                }
+            }
+            if (preceding.isEmpty() || node.top.length < properties.getTopK()) {
+                return result;
+            }
+            return intersect(preceding, last, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (key.startsWith(CacheNames.ITEMS + ":")) {
+            changed.add(Long.parseLong(key.substring(CacheNames.ITEMS.length() + 1)));
+        }
+    }
+
+    /**
+     * Перечитывает изменённые вещи одним запросом и обновляет их в дереве.
+     */
+    @Scheduled(fixedDelayString = "${shareit.item.suggest.refresh-interval-ms:100}")
+    public void applyChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        Set<Long> itemIds = new HashSet<>();
+        for (Iterator<Long> iterator = changed.iterator(); iterator.hasNext(); ) {
+            itemIds.add(iterator.next());
+            iterator.remove();
+        }
+        Map<Long, Item> loaded = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                IndexedItem previous = delete(itemId);
+                Item item = loaded.get(itemId);
+                if (item != null && Boolean.TRUE.equals(item.getAvailable())) {
+                    insert(itemId, item.getName(), previous == null ? 0 : previous.popularity);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        rebuild();
+    }
+
+    @Override
+    public boolean isNodeLocal() {
+        return true;
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        if (event.getType() != OutboxEventType.CREATED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            IndexedItem item = items.get(event.getItemId());
+            if (item != null) {
+                item.popularity++;
+                for (String token : item.tokens) {
+                    promote(path(token, false), item);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(long id, String name, long popularity) {
+        if (items.size() >= properties.getMaxItems()) {
+            log.warn("Индекс подсказок заполнен, вещь {} не проиндексирована", id);
+            return;
+        }
+        IndexedItem item = new IndexedItem(id, name, new LinkedHashSet<>(tokens(name)), popularity);
+        items.put(id, item);
+        for (String token : item.tokens) {
+            List<Node> path = path(token, true);
+            path.get(path.size() - 1).addTerminal(id);
+            promote(path, item);
+        }
+    }
+
+    /**
+     * Убирает вещь из дерева. Узлы пересчитываются от глубоких к корню по всем словам сразу:
+     * у слов с общим префиксом общие предки, и предок читает уже пересчитанные списки детей.
+     */
+    private IndexedItem delete(long id) {
+        IndexedItem item = items.remove(id);
+        if (item == null) {
+            return null;
+        }
+        List<String> tokens = new ArrayList<>();
+        List<List<Node>> paths = new ArrayList<>();
+        int depth = 0;
+        for (String token : item.tokens) {
+            List<Node> path = path(token, false);
+            if (path != null) {
+                path.get(path.size() - 1).removeTerminal(id);
+                tokens.add(token);
+                paths.add(path);
+                depth = Math.max(depth, path.size() - 1);
+            }
+        }
+        for (int i = depth; i >= 0; i--) {
+            Set<Node> done = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (int t = 0; t < paths.size(); t++) {
+                List<Node> path = paths.get(t);
+                if (i >= path.size()) {
+                    continue;
+                }
+                Node node = path.get(i);
+                if (i > 0 && node.isEmpty()) {
+                    path.get(i - 1).removeChild(tokens.get(t).charAt(i - 1));
+                } else if (done.add(node) && node.contains(id)) {
+                    recompute(node);
+                }
+            }
+        }
+        return item;
+    }
+
+    private List<Node> path(String token, boolean create) {
+        List<Node> path = new ArrayList<>(token.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < token.length(); i++) {
+            node = create ? node.childOrCreate(token.charAt(i)) : node.child(token.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Вносит вещь в списки узлов пути, если она туда проходит. Остальные вещи своего места не меняют,
+     * поэтому при появлении вещи или росте её популярности полный пересчёт не нужен.
+     */
+    private void promote(List<Node> path, IndexedItem item) {
+        if (path == null) {
+            return;
+        }
+        int topK = properties.getTopK();
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            long[] top = node.top;
+            int position = -1;
+            for (int j = 0; j < top.length; j++) {
+                if (top[j] == item.id) {
+                    position = j;
+                    break;
+                }
+            }
+            if (position < 0) {
+                if (top.length == topK && RANK.compare(item, items.get(top[top.length - 1])) >= 0) {
+                    continue;
+                }
+                position = Math.min(top.length, topK - 1);
+                top = Arrays.copyOf(top, position + 1);
+            } else {
+                top = top.clone();
+            }
+            while (position > 0 && RANK.compare(item, items.get(top[position - 1])) < 0) {
+                top[position] = top[position - 1];
+                position--;
+            }
+            top[position] = item.id;
+            node.top = top;
+        }
+    }
+
+    /**
+     * Собирает список узла заново из его вещей и списков детей — после удаления вещи из списка.
+     */
+    private void recompute(Node node) {
+        Set<Long> seen = new HashSet<>();
+        List<IndexedItem> candidates = new ArrayList<>();
+        for (long id : node.terminals) {
+            if (seen.add(id)) {
+                candidates.add(items.get(id));
+            }
+        }
+        for (Node child : node.children) {
+            for (long id : child.top) {
+                if (seen.add(id)) {
+                    candidates.add(items.get(id));
+                }
+            }
+        }
+        candidates.sort(RANK);
+        int size = Math.min(candidates.size(), properties.getTopK());
+        long[] top = new long[size];
+        for (int j = 0; j < size; j++) {
+            top[j] = candidates.get(j).id;
+        }
+        node.top = top;
+    }
+
+    /**
+     * Точный ответ для нескольких слов: перебирает вещи с самым редким из предшествующих слов
+     * и оставляет те, где есть все слова и слово с последним префиксом.
+     */
+    private List<ItemSuggestDto> intersect(List<String> preceding, String last, int limit) {
+        long[] rarest = null;
+        for (String word : preceding) {
+            List<Node> path = path(word, false);
+            long[] terminals = path == null ? new long[0] : path.get(path.size() - 1).terminals;
+            if (rarest == null || terminals.length < rarest.length) {
+                rarest = terminals;
+            }
+        }
+        List<IndexedItem> matches = new ArrayList<>();
+        for (long id : rarest) {
+            IndexedItem item = items.get(id);
+            if (item.tokens.containsAll(preceding)
+                    && item.tokens.stream().anyMatch(token -> token.startsWith(last))) {
+                matches.add(item);
+            }
+        }
+        return matches.stream()
+                .sorted(RANK)
+                .limit(limit)
+                .map(item -> new ItemSuggestDto(item.id, item.name))
+                .collect(Collectors.toList());
+    }
+
+    private List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT).trim())) {
+            if (!token.isEmpty()) {
+                tokens.add(token.length() > properties.getMaxTokenLength()
+                        ? token.substring(0, properties.getMaxTokenLength())
+                        : token);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class IndexedItem {
+
+        private final long id;
+        private final String name;
+        private final Set<String> tokens;
+        private long popularity;
+
+        private IndexedItem(long id, String name, Set<String> tokens, long popularity) {
+            this.id = id;
+            this.name = name;
+            this.tokens = tokens;
+            this.popularity = popularity;
+        }
+    }
+
+    private static final class Node {
+
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private long[] terminals = new long[0];
+        private long[] top = new long[0];
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int position = -index - 1;
+            Node child = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = key;
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, keys.length - index - 1);
+            System.arraycopy(children, index + 1, newChildren, index, children.length - index - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        private void addTerminal(long id) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = id;
+        }
+
+        private void removeTerminal(long id) {
+            for (int i = 0; i < terminals.length; i++) {
+                if (terminals[i] == id) {
+                    long[] newTerminals = new long[terminals.length - 1];
+                    System.arraycopy(terminals, 0, newTerminals, 0, i);
+                    System.arraycopy(terminals, i + 1, newTerminals, i, terminals.length - i - 1);
+                    terminals = newTerminals;
+                    return;
+                }
+            }
+        }
+
+        private boolean contains(long id) {
+            for (long candidate : top) {
+                if (candidate == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isEmpty() {
+            return keys.length == 0 && terminals.length == 0;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.suggest;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.item.suggest")
+public class ItemSuggestProperties {
+
+    /**
+     * Сколько подсказок хранится в каждом узле дерева.
+     */
+    private int topK = 10;
+
+    /**
+     * Максимальное число вещей в индексе.
+     */
+    private int maxItems = 500_000;
+
+    /**
+     * Слова длиннее индексируются только первыми символами.
+     */
+    private int maxTokenLength = 32;
+}
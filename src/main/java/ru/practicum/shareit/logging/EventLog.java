@@ -0,0 +1,45 @@
+package ru.practicum.shareit.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Журнал событий сервисов в виде {@code event=<имя> ключ=значение ...}.
+ *
+ * <p>В поля попадают только идентификаторы и счётчики, а не сущности: их {@code toString} обходит
+ * связанные объекты. Каждое событие записывается с долей из {@link EventLogProperties}, так что
+ * частые чтения можно прореживать, не теряя редких изменений. Сам вывод асинхронный
+ * (см. {@code logback-spring.xml}) и при переполнении очереди отбрасывает записи, а не ждёт.
+ */
+@Component
+public class EventLog {
+
+    private static final Logger log = LoggerFactory.getLogger("shareit.events");
+
+    private final EventLogProperties properties;
+
+    public EventLog(EventLogProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * @param fields чередующиеся имена и значения полей
+     */
+    public void log(String event, Object... fields) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        double rate = properties.getSampleRate(event);
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("event=").append(event);
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            message.append(' ').append(fields[i]).append('=').append(fields[i + 1]);
+        }
+        log.info(message.toString());
+    }
+}
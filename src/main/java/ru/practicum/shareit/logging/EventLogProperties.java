@@ -0,0 +1,28 @@
+package ru.practicum.shareit.logging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.logging.events")
+public class EventLogProperties {
+
+    /**
+     * Доля записываемых событий без собственной настройки, от 0 до 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Доли для отдельных событий по их имени.
+     */
+    private Map<String, Double> sampleRates = new HashMap<>();
+
+    public double getSampleRate(String event) {
+        return sampleRates.getOrDefault(event, sampleRate);
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.outbox.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.outbox")
+public class OutboxProperties {
+
+    /**
+     * Максимальное число событий, забираемых диспетчером за один проход.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Число воркеров; события одной вещи всегда попадают к одному воркеру.
+     */
+    private int workers = 4;
+
+    /**
+     * Сколько раз повторять доставку события, прежде чем отказаться от него.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * Сколько хранить уже доставленные события.
+     */
+    private Duration retention = Duration.ofDays(1);
+
+    /**
+     * Сколько ждать событие с пропущенным id при рассылке слушателям узла: транзакция, получившая
+     * меньший id, может закоммититься позже соседней.
+     */
+    private Duration broadcastGapTimeout = Duration.ofSeconds(10);
+}
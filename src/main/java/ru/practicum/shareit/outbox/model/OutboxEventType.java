@@ -0,0 +1,8 @@
+package ru.practicum.shareit.outbox.model;
+
+public enum OutboxEventType {
+    CREATED,
+    APPROVED,
+    REJECTED,
+    DELETED
+}
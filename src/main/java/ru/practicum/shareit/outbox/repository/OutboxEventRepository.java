@@ -0,0 +1,54 @@
+package ru.practicum.shareit.outbox.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>, OutboxEventRepositoryCustom {
+
+    /**
+     * Id самого раннего недоставленного события для каждой из вещей: пары {@code [itemId, eventId]}.
+     */
+    @Query("select e.itemId, min(e.id) from OutboxEvent e where e.processed = false and e.itemId in ?1 "
+            + "group by e.itemId")
+    List<Object[]> findFirstPendingIds(Collection<Long> itemIds);
+
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select coalesce(max(e.id), 0) from OutboxEvent e")
+    long findMaxId();
+
+    @Query("select min(e.id) from OutboxEvent e")
+    Long findMinId();
+
+    long countByProcessedFalse();
+
+    List<OutboxEvent> findByOwnerIdAndIdGreaterThanAndTypeInOrderByIdAsc(Long ownerId, Long id,
+                                                                         Collection<OutboxEventType> types,
+                                                                         Pageable pageable);
+
+    List<OutboxEvent> findByTypeAndIdGreaterThanOrderByIdAsc(OutboxEventType type, Long id, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.processed = true where e.id in ?1")
+    int markProcessed(Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1 where e.id = ?1")
+    int incrementAttempts(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEvent e where e.processed = true and e.created < ?1")
+    int deleteProcessedBefore(LocalDateTime time);
+}
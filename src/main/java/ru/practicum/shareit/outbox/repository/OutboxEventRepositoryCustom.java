@@ -0,0 +1,14 @@
+package ru.practicum.shareit.outbox.repository;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+
+    /**
+     * Захватывает первые недоставленные события, пропуская строки, уже захваченные другим узлом.
+     * Блокировки держатся до конца вызывающей транзакции.
+     */
+    List<OutboxEvent> claimPending(int limit);
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.outbox.repository;
+
+import lombok.AllArgsConstructor;
+import ru.practicum.shareit.db.SqlPlatform;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@AllArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private final EntityManager entityManager;
+    private final SqlPlatform sqlPlatform;
+
+    @Override
+    public List<OutboxEvent> claimPending(int limit) {
+        String sql = sqlPlatform.forUpdateSkipLocked(
+                "SELECT * FROM outbox_events WHERE processed = FALSE ORDER BY event_id LIMIT :limit");
+        List<?> rows = entityManager.createNativeQuery(sql, OutboxEvent.class)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream()
+                .map(OutboxEvent.class::cast)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,263 @@
+package ru.practicum.shareit.outbox.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.outbox.config.OutboxProperties;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновая доставка событий из outbox слушателям {@link OutboxEventListener}.
+ *
+ * <p>Слушатели с общим состоянием получают событие на одном узле. Узел захватывает пачку
+ * не больше {@code batchSize} событий через {@code FOR UPDATE SKIP LOCKED} и держит блокировки,
+ * пока пачка не доставлена и не отмечена; упавший узел отпускает их, и пачку забирает другой.
+ * Событие откладывается, если более раннее событие той же вещи ещё не доставлено, — так порядок
+ * внутри вещи сохраняется и между узлами.
+ *
+ * <p>Слушатели узла ({@link OutboxEventListener#isNodeLocal()}) получают все события на каждом
+ * узле: узел читает таблицу по своему курсору, не трогая отметки о доставке. Пропуски в id
+ * перечитываются, пока не истечёт {@code broadcastGapTimeout}. Ошибки таких слушателей только
+ * логируются — их состояние восстанавливается из базы.
+ *
+ * <p>События раскладываются по воркерам по id вещи, поэтому порядок внутри вещи сохраняется.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<OutboxEventListener> listeners;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService[] workers;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private long cursor = -1;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ObjectProvider<OutboxEventListener> listeners,
+                            OutboxProperties properties,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.listeners = listeners;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = new ExecutorService[properties.getWorkers()];
+        for (int i = 0; i < workers.length; i++) {
+            String name = "outbox-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, name));
+        }
+        Gauge.builder("shareit.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Возраст самого старого недоставленного события")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .description("Число недоставленных событий")
+                .register(meterRegistry);
+        this.deliveredCounter = meterRegistry.counter("shareit.outbox.delivered");
+        this.failedCounter = meterRegistry.counter("shareit.outbox.failed");
+        this.batchTimer = meterRegistry.timer("shareit.outbox.batch");
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:200}")
+    public void dispatch() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.claimPending(properties.getBatchSize());
+            updateLag(batch);
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<OutboxEvent> ready = withoutBlockedItems(batch);
+            batchTimer.record(() -> {
+                Result result = deliver(ready, false);
+                result.failed.forEach(outboxEventRepository::incrementAttempts);
+                if (!result.processed.isEmpty()) {
+                    outboxEventRepository.markProcessed(result.processed);
+                }
+            });
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval-ms:200}")
+    public void broadcast() {
+        if (cursor < 0) {
+            cursor = outboxEventRepository.findMaxId();
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<OutboxEvent> events = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            for (OutboxEvent late : outboxEventRepository.findAllById(gaps.keySet())) {
+                gaps.remove(late.getId());
+                events.add(late);
+            }
+            gaps.values().removeIf(deadline -> deadline < now);
+        }
+        long deadline = now + properties.getBroadcastGapTimeout().toMillis();
+        List<OutboxEvent> fresh = outboxEventRepository
+                .findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, properties.getBatchSize()));
+        for (OutboxEvent event : fresh) {
+            long from = Math.max(cursor, event.getId() - properties.getBatchSize()) + 1;
+            for (long id = from; id < event.getId(); id++) {
+                gaps.put(id, deadline);
+            }
+            cursor = event.getId();
+        }
+        events.addAll(fresh);
+        if (!events.isEmpty()) {
+            events.sort(Comparator.comparing(OutboxEvent::getId));
+            deliver(events, true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        int deleted = outboxEventRepository
+                .deleteProcessedBefore(LocalDateTime.now().minus(properties.getRetention()));
+        if (deleted > 0) {
+            log.info("Удалено {} доставленных событий outbox", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * Убирает из пачки события вещей, у которых есть более раннее недоставленное событие вне пачки:
+     * его держит другой узел, и доставлять следующие раньше него нельзя.
+     */
+    private List<OutboxEvent> withoutBlockedItems(List<OutboxEvent> batch) {
+        Set<Long> itemIds = batch.stream().map(OutboxEvent::getItemId).collect(Collectors.toSet());
+        Map<Long, Long> firstPending = new HashMap<>();
+        for (Object[] row : outboxEventRepository.findFirstPendingIds(itemIds)) {
+            firstPending.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        Set<Long> seen = new HashSet<>();
+        Set<Long> blocked = new HashSet<>();
+        List<OutboxEvent> ready = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            if (seen.add(event.getItemId()) && firstPending.getOrDefault(event.getItemId(), event.getId())
+                    < event.getId()) {
+                blocked.add(event.getItemId());
+            }
+            if (!blocked.contains(event.getItemId())) {
+                ready.add(event);
+            }
+        }
+        return ready;
+    }
+
+    private Result deliver(List<OutboxEvent> batch, boolean nodeLocal) {
+        List<OutboxEventListener> targets = listeners.orderedStream()
+                .filter(listener -> listener.isNodeLocal() == nodeLocal)
+                .collect(Collectors.toList());
+        Map<Integer, List<OutboxEvent>> partitions = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            partitions.computeIfAbsent(Math.floorMod(event.getItemId(), workers.length), key -> new ArrayList<>())
+                    .add(event);
+        }
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Map.Entry<Integer, List<OutboxEvent>> partition : partitions.entrySet()) {
+            futures.add(workers[partition.getKey()]
+                    .submit(() -> deliverPartition(partition.getValue(), targets, nodeLocal)));
+        }
+        Result result = new Result();
+        for (Future<Result> future : futures) {
+            try {
+                Result partition = future.get();
+                result.processed.addAll(partition.processed);
+                result.failed.addAll(partition.failed);
+            } catch (ExecutionException e) {
+                log.error("Ошибка воркера outbox", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+
+    private Result deliverPartition(List<OutboxEvent> events, List<OutboxEventListener> targets, boolean nodeLocal) {
+        Result result = new Result();
+        Set<Long> blockedItems = new HashSet<>();
+        for (OutboxEvent event : events) {
+            if (blockedItems.contains(event.getItemId())) {
+                continue;
+            }
+            try {
+                targets.forEach(listener -> listener.onEvent(event));
+                deliveredCounter.increment();
+                result.processed.add(event.getId());
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                if (nodeLocal) {
+                    log.warn("Ошибка доставки события {} слушателям узла", event.getId(), e);
+                } else if (event.getAttempts() + 1 >= properties.getMaxAttempts()) {
+                    log.error("Событие {} не доставлено за {} попыток и будет пропущено",
+                            event.getId(), event.getAttempts() + 1, e);
+                    result.processed.add(event.getId());
+                } else {
+                    log.warn("Ошибка доставки события {}, повтор на следующем проходе", event.getId(), e);
+                    result.failed.add(event.getId());
+                    blockedItems.add(event.getItemId());
+                }
+            }
+        }
+        return result;
+    }
+
+    private void updateLag(List<OutboxEvent> batch) {
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            pending.set(0);
+            return;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreated(), LocalDateTime.now()).toMillis());
+        pending.set(batch.size() < properties.getBatchSize()
+                ? batch.size()
+                : outboxEventRepository.countByProcessedFalse());
+    }
+
+    private static final class Result {
+
+        private final List<Long> processed = new ArrayList<>();
+        private final List<Long> failed = new ArrayList<>();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+
+/**
+ * Потребитель событий бронирования.
+ *
+ * <p>Доставка гарантируется «хотя бы один раз», поэтому обработка должна быть идемпотентной.
+ * События одной вещи приходят строго в порядке их записи.
+ */
+public interface OutboxEventListener {
+
+    void onEvent(OutboxEvent event);
+
+    /**
+     * Слушатель с состоянием в памяти узла получает каждое событие на каждом узле. Остальные
+     * слушатели пишут в общее хранилище и получают событие на одном узле, захватившем его.
+     */
+    default boolean isNodeLocal() {
+        return false;
+    }
+}
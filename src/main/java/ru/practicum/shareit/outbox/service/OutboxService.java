@@ -0,0 +1,9 @@
+package ru.practicum.shareit.outbox.service;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+public interface OutboxService {
+
+    void publish(Booking booking, OutboxEventType type);
+}
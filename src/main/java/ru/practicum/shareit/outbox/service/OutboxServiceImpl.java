@@ -0,0 +1,37 @@
+package ru.practicum.shareit.outbox.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+
+@Service
+@AllArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(Booking booking, OutboxEventType type) {
+        OutboxEvent event = new OutboxEvent(
+                null,
+                type,
+                booking.getId(),
+                booking.getItem().getId(),
+                booking.getItem().getOwner().getId(),
+                booking.getBooker().getId(),
+                booking.getStart(),
+                booking.getEnd(),
+                LocalDateTime.now(),
+                0,
+                false);
+        outboxEventRepository.save(event);
+    }
+}
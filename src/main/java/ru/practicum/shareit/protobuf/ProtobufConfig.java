@@ -0,0 +1,19 @@
+package ru.practicum.shareit.protobuf;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class ProtobufConfig implements WebMvcConfigurer {
+
+    /**
+     * Добавляется в конец: запросы без явного {@code Accept: application/x-protobuf} по-прежнему получают JSON.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new ProtobufHttpMessageConverter());
+    }
+}
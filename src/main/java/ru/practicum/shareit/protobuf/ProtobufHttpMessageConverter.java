@@ -0,0 +1,173 @@
+package ru.practicum.shareit.protobuf;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.Parser;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.protobuf.message.BookingCreateProto;
+import ru.practicum.shareit.protobuf.message.BookingListProto;
+import ru.practicum.shareit.protobuf.message.CommentListProto;
+import ru.practicum.shareit.protobuf.message.CommentProto;
+import ru.practicum.shareit.protobuf.message.ItemListProto;
+import ru.practicum.shareit.protobuf.message.ItemProto;
+import ru.practicum.shareit.protobuf.message.ItemWithBookingListProto;
+import ru.practicum.shareit.protobuf.message.UserListProto;
+import ru.practicum.shareit.protobuf.message.UserProto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Читает и пишет DTO и списки DTO в формате {@code application/x-protobuf}.
+ *
+ * <p>Конвертер стоит после JSON, поэтому protobuf отдаётся только тем, кто явно просит его
+ * в {@code Accept}. Список пишется сообщением-обёрткой с повторяющимся полем, пустой список — пустым телом.
+ */
+public class ProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final Map<Class<?>, Function<Object, Message>> writers = new HashMap<>();
+    private final Map<Class<?>, Function<List<?>, Message>> listWriters = new HashMap<>();
+    private final Map<Class<?>, Function<InputStream, Object>> readers = new HashMap<>();
+
+    public ProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+        writes(UserDto.class, ProtobufMapper::toUserProto,
+                users -> UserListProto.newBuilder().addAllUsers(users).build());
+        writes(ItemDto.class, ProtobufMapper::toItemProto,
+                items -> ItemListProto.newBuilder().addAllItems(items).build());
+        writes(ItemDtoWithBooking.class, ProtobufMapper::toItemWithBookingProto,
+                items -> ItemWithBookingListProto.newBuilder().addAllItems(items).build());
+        writes(BookingDto.class, ProtobufMapper::toBookingProto,
+                bookings -> BookingListProto.newBuilder().addAllBookings(bookings).build());
+        writes(CommentDto.class, ProtobufMapper::toCommentProto,
+                comments -> CommentListProto.newBuilder().addAllComments(comments).build());
+        writers.put(ErrorResponse.class, error -> ProtobufMapper.toErrorProto((ErrorResponse) error));
+        reads(UserDto.class, UserProto.parser(), ProtobufMapper::toUserDto);
+        reads(ItemDto.class, ItemProto.parser(), ProtobufMapper::toItemDto);
+        reads(BookingCreateDto.class, BookingCreateProto.parser(), ProtobufMapper::toBookingCreateDto);
+        reads(CommentDto.class, CommentProto.parser(), ProtobufMapper::toCommentDto);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return writers.containsKey(clazz) || readers.containsKey(clazz);
+    }
+
+    /**
+     * Spring выбирает форматы ответа по классу значения, а у списка это {@code ArrayList}: без этого
+     * protobuf для списков не предлагался бы вовсе. Подходит ли тип элементов, проверяет {@link #canWrite}.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz)
+                ? getSupportedMediaTypes()
+                : super.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return type instanceof Class && readers.containsKey(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        Class<?> element = elementType(type);
+        return element != null ? listWriters.containsKey(element) : writers.containsKey(clazz);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        return readInternal((Class<?>) type, inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return readers.get(clazz).apply(inputMessage.getBody());
+        } catch (ProtobufReadException e) {
+            throw new HttpMessageNotReadableException("Некорректное protobuf-сообщение: " + e.getMessage(),
+                    e.getCause(), inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        Message message;
+        if (body instanceof Collection) {
+            Class<?> element = elementType(type);
+            List<?> list = List.copyOf((Collection<?>) body);
+            message = listWriters.get(element).apply(list);
+        } else {
+            message = writers.get(body.getClass()).apply(body);
+        }
+        message.writeTo(outputMessage.getBody());
+    }
+
+    private <D, M extends Message> void writes(Class<D> type, Function<D, M> toProto,
+                                               Function<List<M>, Message> toList) {
+        writers.put(type, dto -> toProto.apply(type.cast(dto)));
+        listWriters.put(type, list -> toList.apply(list.stream()
+                .map(type::cast)
+                .map(toProto)
+                .collect(Collectors.toList())));
+    }
+
+    private <D, M extends Message> void reads(Class<D> type, Parser<M> parser, Function<M, D> fromProto) {
+        readers.put(type, in -> {
+            try {
+                return fromProto.apply(parser.parseFrom(in));
+            } catch (InvalidProtocolBufferException e) {
+                throw new ProtobufReadException(e);
+            }
+        });
+    }
+
+    /**
+     * Тип элементов, если {@code type} — параметризованная коллекция, иначе {@code null}.
+     */
+    private static Class<?> elementType(@Nullable Type type) {
+        if (!(type instanceof ParameterizedType)) {
+            return null;
+        }
+        ParameterizedType parameterized = (ParameterizedType) type;
+        if (!(parameterized.getRawType() instanceof Class)
+                || !Collection.class.isAssignableFrom((Class<?>) parameterized.getRawType())) {
+            return null;
+        }
+        Type argument = parameterized.getActualTypeArguments()[0];
+        return argument instanceof Class ? (Class<?>) argument : null;
+    }
+
+    private static class ProtobufReadException extends RuntimeException {
+        ProtobufReadException(InvalidProtocolBufferException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package ru.practicum.shareit.protobuf;
+
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.exceptions.ErrorResponse;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.protobuf.message.BookingCreateProto;
+import ru.practicum.shareit.protobuf.message.BookingProto;
+import ru.practicum.shareit.protobuf.message.BookingShortProto;
+import ru.practicum.shareit.protobuf.message.BookingStatusProto;
+import ru.practicum.shareit.protobuf.message.CommentProto;
+import ru.practicum.shareit.protobuf.message.DateTimeProto;
+import ru.practicum.shareit.protobuf.message.ErrorProto;
+import ru.practicum.shareit.protobuf.message.ItemProto;
+import ru.practicum.shareit.protobuf.message.ItemWithBookingProto;
+import ru.practicum.shareit.protobuf.message.UserProto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Преобразует DTO в сообщения из {@code src/main/proto/shareit.proto} и обратно.
+ * Пустые поля DTO в сообщение не попадают, отсутствующие поля сообщения становятся {@code null}.
+ */
+public class ProtobufMapper {
+
+    public static UserProto toUserProto(UserDto userDto) {
+        UserProto.Builder builder = UserProto.newBuilder().setId(userDto.getId());
+        if (userDto.getName() != null) {
+            builder.setName(userDto.getName());
+        }
+        if (userDto.getEmail() != null) {
+            builder.setEmail(userDto.getEmail());
+        }
+        if (userDto.getVersion() != null) {
+            builder.setVersion(userDto.getVersion());
+        }
+        return builder.build();
+    }
+
+    public static UserDto toUserDto(UserProto proto) {
+        return new UserDto(
+                proto.getId(),
+                proto.hasName() ? proto.getName() : null,
+                proto.hasEmail() ? proto.getEmail() : null,
+                proto.hasVersion() ? proto.getVersion() : null);
+    }
+
+    public static ItemDto toItemDto(ItemProto proto) {
+        return new ItemDto(
+                proto.hasId() ? proto.getId() : null,
+                proto.hasName() ? proto.getName() : null,
+                proto.hasDescription() ? proto.getDescription() : null,
+                proto.hasAvailable() ? proto.getAvailable() : null,
+                null,
+                proto.hasRequest() ? proto.getRequest() : null,
+                proto.hasVersion() ? proto.getVersion() : null);
+    }
+
+    public static ItemProto toItemProto(ItemDto itemDto) {
+        ItemProto.Builder builder = ItemProto.newBuilder();
+        if (itemDto.getId() != null) {
+            builder.setId(itemDto.getId());
+        }
+        if (itemDto.getName() != null) {
+            builder.setName(itemDto.getName());
+        }
+        if (itemDto.getDescription() != null) {
+            builder.setDescription(itemDto.getDescription());
+        }
+        if (itemDto.getAvailable() != null) {
+            builder.setAvailable(itemDto.getAvailable());
+        }
+        if (itemDto.getOwner() != null) {
+            builder.setOwner(toUserProto(itemDto.getOwner()));
+        }
+        if (itemDto.getRequest() != null) {
+            builder.setRequest(itemDto.getRequest());
+        }
+        if (itemDto.getVersion() != null) {
+            builder.setVersion(itemDto.getVersion());
+        }
+        return builder.build();
+    }
+
+    public static ItemWithBookingProto toItemWithBookingProto(ItemDtoWithBooking itemDto) {
+        ItemWithBookingProto.Builder builder = ItemWithBookingProto.newBuilder();
+        if (itemDto.getId() != null) {
+            builder.setId(itemDto.getId());
+        }
+        if (itemDto.getName() != null) {
+            builder.setName(itemDto.getName());
+        }
+        if (itemDto.getDescription() != null) {
+            builder.setDescription(itemDto.getDescription());
+        }
+        if (itemDto.getAvailable() != null) {
+            builder.setAvailable(itemDto.getAvailable());
+        }
+        if (itemDto.getLastBooking() != null) {
+            builder.setLastBooking(toBookingShortProto(itemDto.getLastBooking()));
+        }
+        if (itemDto.getNextBooking() != null) {
+            builder.setNextBooking(toBookingShortProto(itemDto.getNextBooking()));
+        }
+        if (itemDto.getComments() != null) {
+            for (CommentDto comment : itemDto.getComments()) {
+                builder.addComments(toCommentProto(comment));
+            }
+        }
+        return builder.build();
+    }
+
+    public static BookingProto toBookingProto(BookingDto bookingDto) {
+        BookingProto.Builder builder = BookingProto.newBuilder();
+        if (bookingDto.getId() != null) {
+            builder.setId(bookingDto.getId());
+        }
+        if (bookingDto.getStart() != null) {
+            builder.setStart(toDateTimeProto(bookingDto.getStart()));
+        }
+        if (bookingDto.getEnd() != null) {
+            builder.setEnd(toDateTimeProto(bookingDto.getEnd()));
+        }
+        if (bookingDto.getItem() != null) {
+            builder.setItem(toItemProto(bookingDto.getItem()));
+        }
+        if (bookingDto.getBooker() != null) {
+            builder.setBooker(toUserProto(bookingDto.getBooker()));
+        }
+        if (bookingDto.getStatus() != null) {
+            builder.setStatus(BookingStatusProto.valueOf(bookingDto.getStatus().name()));
+        }
+        if (bookingDto.getSeriesId() != null) {
+            builder.setSeriesId(bookingDto.getSeriesId());
+        }
+        return builder.build();
+    }
+
+    public static BookingCreateDto toBookingCreateDto(BookingCreateProto proto) {
+        return new BookingCreateDto(
+                proto.hasId() ? proto.getId() : null,
+                proto.hasStart() ? toLocalDateTime(proto.getStart()) : null,
+                proto.hasEnd() ? toLocalDateTime(proto.getEnd()) : null,
+                proto.hasItemId() ? proto.getItemId() : null);
+    }
+
+    public static CommentProto toCommentProto(CommentDto commentDto) {
+        CommentProto.Builder builder = CommentProto.newBuilder();
+        if (commentDto.getId() != null) {
+            builder.setId(commentDto.getId());
+        }
+        if (commentDto.getText() != null) {
+            builder.setText(commentDto.getText());
+        }
+        if (commentDto.getAuthorName() != null) {
+            builder.setAuthorName(commentDto.getAuthorName());
+        }
+        if (commentDto.getCreated() != null) {
+            builder.setCreated(toDateTimeProto(commentDto.getCreated()));
+        }
+        return builder.build();
+    }
+
+    public static CommentDto toCommentDto(CommentProto proto) {
+        return new CommentDto(
+                proto.hasId() ? proto.getId() : null,
+                proto.hasText() ? proto.getText() : null,
+                proto.hasAuthorName() ? proto.getAuthorName() : null,
+                proto.hasCreated() ? toLocalDateTime(proto.getCreated()) : null);
+    }
+
+    public static ErrorProto toErrorProto(ErrorResponse errorResponse) {
+        ErrorProto.Builder builder = ErrorProto.newBuilder();
+        if (errorResponse.getError() != null) {
+            builder.setError(errorResponse.getError());
+        }
+        return builder.build();
+    }
+
+    private static UserProto toUserProto(User user) {
+        UserProto.Builder builder = UserProto.newBuilder();
+        if (user.getId() != null) {
+            builder.setId(user.getId());
+        }
+        if (user.getName() != null) {
+            builder.setName(user.getName());
+        }
+        if (user.getEmail() != null) {
+            builder.setEmail(user.getEmail());
+        }
+        if (user.getVersion() != null) {
+            builder.setVersion(user.getVersion());
+        }
+        return builder.build();
+    }
+
+    private static ItemProto toItemProto(Item item) {
+        return toItemProto(new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getOwner(), item.getRequest(), item.getVersion()));
+    }
+
+    private static BookingShortProto toBookingShortProto(BookingItemDto bookingItemDto) {
+        BookingShortProto.Builder builder = BookingShortProto.newBuilder();
+        if (bookingItemDto.getId() != null) {
+            builder.setId(bookingItemDto.getId());
+        }
+        if (bookingItemDto.getBookerId() != null) {
+            builder.setBookerId(bookingItemDto.getBookerId());
+        }
+        return builder.build();
+    }
+
+    private static DateTimeProto toDateTimeProto(LocalDateTime dateTime) {
+        return DateTimeProto.newBuilder()
+                .setSeconds(dateTime.toEpochSecond(ZoneOffset.UTC))
+                .setNanos(dateTime.getNano())
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(DateTimeProto proto) {
+        return LocalDateTime.ofEpochSecond(proto.getSeconds(), proto.getNanos(), ZoneOffset.UTC);
+    }
+}
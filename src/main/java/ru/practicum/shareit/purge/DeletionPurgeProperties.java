@@ -0,0 +1,28 @@
+package ru.practicum.shareit.purge;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.purge")
+public class DeletionPurgeProperties {
+
+    /**
+     * Сколько строк удаляется одной транзакцией.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Пауза между пачками, чтобы очистка не вытесняла рабочую нагрузку.
+     */
+    private Duration batchPause = Duration.ofMillis(50);
+
+    /**
+     * Сколько пачек выполняется за один проход; остальное доделает следующий.
+     */
+    private int maxBatchesPerRun = 200;
+}
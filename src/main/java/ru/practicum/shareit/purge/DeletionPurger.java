@@ -0,0 +1,161 @@
+package ru.practicum.shareit.purge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingSeriesRepository;
+import ru.practicum.shareit.booking.waitlist.WaitlistEntry;
+import ru.practicum.shareit.booking.waitlist.WaitlistEntryRepository;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemDailyStatsRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Физически удаляет пользователей и вещи, помеченные удалёнными, вместе с зависимыми строками.
+ *
+ * <p>Запрос на удаление только ставит пометку, поэтому отвечает за постоянное время. Здесь зависимые
+ * строки удаляются пачками по {@code batch-size} в отдельных транзакциях с паузой между ними, а
+ * за один проход выполняется не больше {@code max-batches-per-run} пачек. Вещи удалённого
+ * пользователя помечаются удалёнными здесь, пачками, — до этого их скрывает условие {@code @Where}
+ * вещи, — а строка пользователя удаляется, когда не останется ни одной его вещи. Каждый шаг
+ * повторяем, поэтому прерванная очистка продолжится при следующем проходе.
+ */
+@Component
+@Slf4j
+public class DeletionPurger {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final CommentRepository commentRepository;
+    private final ItemDailyStatsRepository itemDailyStatsRepository;
+    private final WaitlistEntryRepository waitlistRepository;
+    private final InvalidationBus invalidationBus;
+    private final DeletionPurgeProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private int budget;
+
+    public DeletionPurger(UserRepository userRepository, ItemRepository itemRepository,
+                          BookingRepository bookingRepository, BookingSeriesRepository bookingSeriesRepository,
+                          CommentRepository commentRepository, ItemDailyStatsRepository itemDailyStatsRepository,
+                          WaitlistEntryRepository waitlistRepository, InvalidationBus invalidationBus,
+                          DeletionPurgeProperties properties, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingSeriesRepository = bookingSeriesRepository;
+        this.commentRepository = commentRepository;
+        this.itemDailyStatsRepository = itemDailyStatsRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.invalidationBus = invalidationBus;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.purge.interval-ms:5000}")
+    public synchronized void purge() {
+        budget = properties.getMaxBatchesPerRun();
+        Pageable page = PageRequest.of(0, properties.getBatchSize());
+        for (Long userId : userRepository.findDeletedIds(page)) {
+            if (!purgeUser(userId)) {
+                return;
+            }
+        }
+        for (Long itemId : itemRepository.findDeletedIds(page)) {
+            if (!purgeItem(itemId)) {
+                return;
+            }
+        }
+    }
+
+    private boolean purgeUser(Long userId) {
+        boolean done = drain(page -> {
+            List<Long> ids = itemRepository.findIdsByOwnerId(userId, page);
+            if (!ids.isEmpty()) {
+                itemRepository.markDeletedByIdIn(ids);
+                ids.forEach(id -> invalidationBus.invalidate(CacheNames.ITEMS, id));
+            }
+            return ids.size();
+        }) && drain(page -> deleteBookings(bookingRepository.findIdsByBookerId(userId, page)))
+                && drain(page -> deleteComments(commentRepository.findIdsByAuthorId(userId, page)));
+        if (!done) {
+            return false;
+        }
+        Boolean purged = transactionTemplate.execute(status -> {
+            List<WaitlistEntry> entries = waitlistRepository.findByBookerId(userId);
+            waitlistRepository.deleteAllInBatch(entries);
+            entries.forEach(entry -> invalidationBus.invalidate(CacheNames.WAITLIST, entry.getItemId()));
+            bookingSeriesRepository.deleteByBookerId(userId);
+            return itemRepository.countAllByOwnerIdIncludingDeleted(userId) == 0 && userRepository.purge(userId) > 0;
+        });
+        if (Boolean.TRUE.equals(purged)) {
+            log.info("Удалённый пользователь {} очищен", userId);
+        }
+        return true;
+    }
+
+    private boolean purgeItem(Long itemId) {
+        boolean done = drain(page -> deleteBookings(bookingRepository.findIdsByItemId(itemId, page)))
+                && drain(page -> deleteComments(commentRepository.findIdsByItemId(itemId, page)));
+        if (!done) {
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            waitlistRepository.deleteByItemId(itemId);
+            invalidationBus.invalidate(CacheNames.WAITLIST, itemId);
+            bookingSeriesRepository.deleteByItemId(itemId);
+            itemDailyStatsRepository.deleteByItemId(itemId);
+            itemRepository.purge(itemId);
+        });
+        log.info("Удалённая вещь {} очищена", itemId);
+        return true;
+    }
+
+    private int deleteBookings(List<Long> ids) {
+        bookingRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    private int deleteComments(List<Long> ids) {
+        commentRepository.deleteAllByIdInBatch(ids);
+        return ids.size();
+    }
+
+    /**
+     * Выполняет пачки, пока они полные и не исчерпан бюджет прохода.
+     *
+     * @return {@code true}, если строк больше не осталось
+     */
+    private boolean drain(Function<Pageable, Integer> batch) {
+        Pageable page = PageRequest.of(0, properties.getBatchSize());
+        while (budget > 0) {
+            budget--;
+            Integer deleted = transactionTemplate.execute(status -> batch.apply(page));
+            if (deleted == null || deleted < properties.getBatchSize()) {
+                return true;
+            }
+            pause();
+        }
+        return false;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            budget = 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.singleflight;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.SingleFlightTimeoutException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Объединяет одинаковые одновременные вызовы.
+ *
+ * <p>Первый вызов с ключом выполняется, остальные, пришедшие до его завершения, ждут и получают
+ * тот же результат или то же исключение. Если первый вызов был прерван, ожидающие не наследуют
+ * отмену, а повторяют попытку, и один из них выполняет вызов заново. Результат общий для всех
+ * ожидающих, поэтому изменять его нельзя.
+ */
+@Component
+@Slf4j
+public class SingleFlight {
+
+    private static final Object RETRY = new Object();
+
+    private final SingleFlightProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<List<Object>, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    public SingleFlight(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String method, Object key, Supplier<T> call) {
+        if (!properties.isEnabled(method)) {
+            return call.get();
+        }
+        List<Object> flightKey = Arrays.asList(method, key);
+        while (true) {
+            CompletableFuture<Object> flight = new CompletableFuture<>();
+            CompletableFuture<Object> existing = flights.putIfAbsent(flightKey, flight);
+            if (existing == null) {
+                return lead(method, flightKey, flight, call);
+            }
+            Object result = await(method, key, existing);
+            if (result != RETRY) {
+                return (T) result;
+            }
+        }
+    }
+
+    private <T> T lead(String method, List<Object> flightKey, CompletableFuture<Object> flight, Supplier<T> call) {
+        try {
+            T result = call.get();
+            flight.complete(result);
+            count(method, "executed");
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(Thread.currentThread().isInterrupted() ? new CancellationException() : e);
+            count(method, "failed");
+            throw e;
+        } finally {
+            flights.remove(flightKey, flight);
+        }
+    }
+
+    private Object await(String method, Object key, CompletableFuture<Object> flight) {
+        try {
+            Object result = flight.get(properties.getTimeout(method).toMillis(), TimeUnit.MILLISECONDS);
+            count(method, "collapsed");
+            return result;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CancellationException) {
+                return RETRY;
+            }
+            count(method, "collapsed");
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            count(method, "timeout");
+            log.warn("Истекло ожидание результата {} для {}", method, key);
+            throw new SingleFlightTimeoutException(
+                    String.format("Не дождались ответа на одинаковый запрос за %s.", properties.getTimeout(method)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            count(method, "cancelled");
+            throw new CancellationException("Ожидание результата прервано");
+        }
+    }
+
+    private void count(String method, String outcome) {
+        meterRegistry.counter("shareit.singleflight.calls", "method", method, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.singleflight;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.single-flight")
+public class SingleFlightProperties {
+
+    /**
+     * Объединять ли одинаковые запросы в методах без собственной настройки.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Сколько ожидающий запрос ждёт результата выполняющегося.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+
+    /**
+     * Настройки отдельных методов; не заданные поля берутся из общих.
+     */
+    private Map<String, Method> methods = new HashMap<>();
+
+    public boolean isEnabled(String method) {
+        Method settings = methods.get(method);
+        return settings == null || settings.getEnabled() == null ? enabled : settings.getEnabled();
+    }
+
+    public Duration getTimeout(String method) {
+        Method settings = methods.get(method);
+        return settings == null || settings.getTimeout() == null ? timeout : settings.getTimeout();
+    }
+
+    @Getter
+    @Setter
+    public static class Method {
+
+        private Boolean enabled;
+
+        private Duration timeout;
+    }
+}
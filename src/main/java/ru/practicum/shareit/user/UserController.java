@@ -21,6 +21,11 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    @GetMapping(params = "ids")
+    public List<UserDto> getUsersByIds(@RequestParam(name = "ids") List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
     @GetMapping(value = "/{id}")
     public UserDto getUserById(@PathVariable Long id) {
         return userService.getUserById(id);
@@ -11,4 +11,5 @@ public class UserDto {
     private long id;
     private String name;
     private String email;
+    private Long version;
 }
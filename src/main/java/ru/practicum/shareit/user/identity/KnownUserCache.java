@@ -0,0 +1,67 @@
+package ru.practicum.shareit.user.identity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationListener;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id пользователей, существование которых уже проверено.
+ *
+ * <p>Запоминаются только найденные пользователи, поэтому новый пользователь виден сразу. Удаление
+ * публикует ключ {@code users:<id>} и вытесняет id на всех узлах; результат проверки, начатой
+ * до инвалидации, не запоминается.
+ */
+@Component
+public class KnownUserCache implements InvalidationListener {
+
+    private static final String PREFIX = CacheNames.USERS + ":";
+
+    private final Cache<Long, Boolean> known;
+    private final UserRepository userRepository;
+    private final AtomicLong generation = new AtomicLong();
+
+    public KnownUserCache(KnownUserCacheProperties properties, UserRepository userRepository,
+                          MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.known = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, known, "knownUsers");
+    }
+
+    public boolean exists(Long userId) {
+        if (known.getIfPresent(userId) != null) {
+            return true;
+        }
+        long loadGeneration = generation.get();
+        boolean exists = userRepository.existsById(userId);
+        if (exists && generation.get() == loadGeneration) {
+            known.put(userId, Boolean.TRUE);
+        }
+        return exists;
+    }
+
+    @Override
+    public void invalidate(String key) {
+        if (!key.startsWith(PREFIX)) {
+            return;
+        }
+        generation.incrementAndGet();
+        known.invalidate(Long.parseLong(key.substring(PREFIX.length())));
+    }
+
+    @Override
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        known.invalidateAll();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user.identity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.user.known-cache")
+public class KnownUserCacheProperties {
+
+    /**
+     * Максимальное число запомненных id пользователей.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * Сколько помнится существующий пользователь; ограничивает ошибку при потерянной инвалидации.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user.identity;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Id пользователя, выполняющего запрос, из заголовка {@code X-Sharer-User-Id}.
+ *
+ * <p>По умолчанию существование пользователя проверяется до вызова контроллера, и сервисам
+ * повторять эту проверку не нужно.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharerUserId {
+
+    /**
+     * Проверять ли, что пользователь существует. Выключается там, где неизвестный пользователь
+     * не ошибка: например, когда ответ зависит только от того, владелец ли он.
+     */
+    boolean verify() default true;
+}
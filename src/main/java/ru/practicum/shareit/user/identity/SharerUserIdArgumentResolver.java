@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.identity;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.shareit.exceptions.EntityNotFoundException;
+
+/**
+ * Разбирает {@link SharerUserId} и проверяет пользователя не больше одного раза за запрос:
+ * проверенный id запоминается в атрибуте запроса, а между запросами — в {@link KnownUserCache}.
+ */
+@Component
+public class SharerUserIdArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static final String HEADER = "X-Sharer-User-Id";
+
+    private static final String VERIFIED_ATTRIBUTE = SharerUserIdArgumentResolver.class.getName() + ".verified";
+
+    private final KnownUserCache knownUsers;
+
+    public SharerUserIdArgumentResolver(KnownUserCache knownUsers) {
+        this.knownUsers = knownUsers;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(SharerUserId.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+            throws MissingRequestHeaderException {
+        String value = webRequest.getHeader(HEADER);
+        if (value == null) {
+            throw new MissingRequestHeaderException(HEADER, parameter);
+        }
+        Long userId;
+        try {
+            userId = Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new MethodArgumentTypeMismatchException(value, Long.class, HEADER, parameter, e);
+        }
+        SharerUserId annotation = parameter.getParameterAnnotation(SharerUserId.class);
+        if (annotation != null && annotation.verify()
+                && !userId.equals(webRequest.getAttribute(VERIFIED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            if (!knownUsers.exists(userId)) {
+                throw new EntityNotFoundException(String.format("Пользователь %s не существует.", userId));
+            }
+            webRequest.setAttribute(VERIFIED_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return userId;
+    }
+}
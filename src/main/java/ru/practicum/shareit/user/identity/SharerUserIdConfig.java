@@ -0,0 +1,22 @@
+package ru.practicum.shareit.user.identity;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class SharerUserIdConfig implements WebMvcConfigurer {
+
+    private final SharerUserIdArgumentResolver resolver;
+
+    public SharerUserIdConfig(SharerUserIdArgumentResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(resolver);
+    }
+}
@@ -1,8 +1,27 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import java.util.List;
 
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    /**
+     * Помечает пользователя удалённым и освобождает его e-mail для новых регистраций.
+     */
+    @Modifying
+    @Query(value = "UPDATE users SET deleted = TRUE, email = CONCAT('deleted-', user_id), version = version + 1 " +
+            "WHERE user_id = ?1 AND deleted = FALSE", nativeQuery = true)
+    int markDeleted(Long id);
+
+    @Query(value = "SELECT user_id FROM users WHERE deleted = TRUE ORDER BY user_id", nativeQuery = true)
+    List<Long> findDeletedIds(Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM users WHERE user_id = ?1 AND deleted = TRUE", nativeQuery = true)
+    int purge(Long id);
 }
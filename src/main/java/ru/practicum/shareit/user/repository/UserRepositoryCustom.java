@@ -0,0 +1,14 @@
+package ru.practicum.shareit.user.repository;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Обновляет одним запросом только переданные поля и увеличивает версию.
+     * Пустой результат означает, что пользователя нет или его версия не совпала с {@code version}.
+     */
+    Optional<User> patch(Long id, String name, String email, Long version);
+}
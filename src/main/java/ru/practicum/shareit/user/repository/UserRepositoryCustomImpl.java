@@ -0,0 +1,48 @@
+package ru.practicum.shareit.user.repository;
+
+import lombok.AllArgsConstructor;
+import ru.practicum.shareit.db.SqlPlatform;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@AllArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final EntityManager entityManager;
+    private final SqlPlatform sqlPlatform;
+
+    @Override
+    public Optional<User> patch(Long id, String name, String email, Long version) {
+        List<String> assignments = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (name != null) {
+            assignments.add("user_name = :name");
+            parameters.put("name", name);
+        }
+        if (email != null) {
+            assignments.add("email = :email");
+            parameters.put("email", email);
+        }
+        assignments.add("version = version + 1");
+        StringBuilder sql = new StringBuilder("UPDATE users SET ")
+                .append(String.join(", ", assignments))
+                .append(" WHERE user_id = :id AND deleted = FALSE");
+        parameters.put("id", id);
+        if (version != null) {
+            sql.append(" AND version = :version");
+            parameters.put("version", version);
+        }
+        Query query = entityManager.createNativeQuery(sqlPlatform.returning(sql.toString()), User.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList().stream()
+                .map(User.class::cast)
+                .findFirst();
+    }
+}
@@ -10,6 +10,8 @@ public interface UserService {
 
     UserDto getUserById(Long id);
 
+    List<UserDto> getUsersByIds(List<Long> ids);
+
     UserDto createUser(UserDto userDto);
 
     UserDto updateUser(UserDto userDto, Long id);
@@ -3,22 +3,36 @@ package ru.practicum.shareit.user.service;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.cache.InvalidationBus;
+import ru.practicum.shareit.exceptions.ConcurrentUpdateException;
 import ru.practicum.shareit.exceptions.EntityNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.logging.EventLog;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final UserRepository userRepository;
+    private final InvalidationBus invalidationBus;
+    private final EventLog eventLog;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -27,18 +41,37 @@ public class UserServiceImpl implements UserService {
             UserDto userDto = UserMapper.toUserDto(user);
             userDtoList.add(userDto);
         }
-        log.info("Все пользователи:");
+        eventLog.log("users-listed", "count", userDtoList.size());
         return userDtoList;
     }
 
     @Override
     public UserDto getUserById(Long id) {
-        log.info("Пользователь с id {}", id);
+        eventLog.log("user-viewed", "userId", id);
         return UserMapper.toUserDto(userRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(
                         String.format("Пользователь %s не существует.", id))));
     }
 
+    @Override
+    public List<UserDto> getUsersByIds(List<Long> ids) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            log.error("Запрошено больше {} пользователей.", MAX_BATCH_SIZE);
+            throw new ValidationException(
+                    String.format("Нельзя запросить больше %s пользователей за раз.", MAX_BATCH_SIZE));
+        }
+        Map<Long, User> users = userRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDto> userDtoList = uniqueIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(UserMapper::toUserDto)
+                .collect(Collectors.toList());
+        eventLog.log("users-fetched", "requested", uniqueIds.size(), "found", userDtoList.size());
+        return userDtoList;
+    }
+
     @Override
     public UserDto createUser(UserDto userDto) {
         if (userDto.getEmail() == null) {
@@ -50,42 +83,45 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("Введен некорректный e-mail.");
         }
         User user = UserMapper.toUser(userDto);
+        user.setId(null);
+        user.setVersion(null);
         final User userCreate = userRepository.save(user);
-        log.info("Создан пользователь с id {}: {}", userCreate.getId(), userCreate);
+        eventLog.log("user-created", "userId", userCreate.getId());
         return UserMapper.toUserDto(userCreate);
     }
 
+    /**
+     * Только помечает пользователя удалённым; его вещи, бронирования и комментарии
+     * удаляет в фоне {@link ru.practicum.shareit.purge.DeletionPurger}. До очистки их скрывают
+     * условия {@code @Where} сущностей.
+     */
     @Override
+    @Transactional
     public void deleteUser(Long id) {
-        userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Пользователь %s не существует.", id)));
-        log.info("Удалён пользователь с id {}", id);
-        userRepository.deleteById(id);
+        if (userRepository.markDeleted(id) == 0) {
+            throw new EntityNotFoundException(String.format("Пользователь %s не существует.", id));
+        }
+        eventLog.log("user-deleted", "userId", id);
+        invalidationBus.invalidate(CacheNames.USERS, id);
     }
 
     @Override
+    @Transactional
     public UserDto updateUser(UserDto userDto, Long id) {
-        final User user = UserMapper.toUser(userDto);
-        final User userUpdate = userRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Пользователь с %s не существует.", id)));
-        if (user.getEmail() != null && user.getName() == null) {
-            userUpdate.setEmail(user.getEmail());
-            userRepository.save(userUpdate);
-            log.info("Обновлён пользователь с id {}: {}", id, userUpdate);
-            return UserMapper.toUserDto(userUpdate);
-        } else if (user.getName() != null && user.getEmail() == null) {
-            userUpdate.setName(user.getName());
-            userRepository.save(userUpdate);
-            log.info("Обновлён пользователь с id {}: {}", id, userUpdate);
-            return UserMapper.toUserDto(userUpdate);
-        } else {
-            userUpdate.setName(user.getName());
-            userUpdate.setEmail(user.getEmail());
-            userRepository.save(userUpdate);
-            log.info("Обновлён пользователь с id {}: {}", id, userUpdate);
-            return UserMapper.toUserDto(userUpdate);
+        if (userDto.getName() == null && userDto.getEmail() == null) {
+            return getUserById(id);
         }
+        final User userUpdate = userRepository.patch(id, userDto.getName(), userDto.getEmail(), userDto.getVersion())
+                .orElseThrow(() -> {
+                    if (!userRepository.existsById(id)) {
+                        return new EntityNotFoundException(String.format("Пользователь с %s не существует.", id));
+                    }
+                    log.error("Версия пользователя с id {} не совпадает с {}", id, userDto.getVersion());
+                    return new ConcurrentUpdateException(
+                            String.format("Пользователь %s был изменён другим запросом.", id));
+                });
+        invalidationBus.invalidate(CacheNames.USERS, id);
+        eventLog.log("user-updated", "userId", id, "version", userUpdate.getVersion());
+        return UserMapper.toUserDto(userUpdate);
     }
 }
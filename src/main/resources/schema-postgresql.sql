@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS bookings
+(
+    booking_id INTEGER NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    INTEGER REFERENCES items (item_id),
+    booker_id  INTEGER REFERENCES users (user_id),
+    status     VARCHAR(50) NOT NULL,
+    series_id  INTEGER REFERENCES booking_series (series_id),
+    PRIMARY KEY (booking_id, end_date)
+    ) PARTITION BY RANGE (end_date);
+
+CREATE TABLE IF NOT EXISTS bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX IF NOT EXISTS bookings_booker_end_idx ON bookings (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS bookings_item_end_idx ON bookings (item_id, end_date);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS bookings_series_idx ON bookings (series_id);
+
+CREATE INDEX IF NOT EXISTS users_deleted_idx ON users (user_id) WHERE deleted;
+CREATE INDEX IF NOT EXISTS items_deleted_idx ON items (item_id) WHERE deleted;
@@ -3,13 +3,27 @@ DROP TABLE IF EXISTS
     requests,
     items,
     bookings,
-    comments;
+    booking_series,
+    waitlist,
+    comments,
+    outbox_events,
+    item_popularity,
+    item_daily_stats,
+    item_stats_bookings,
+    booking_archive_generation,
+    idempotency_keys,
+    datagen_runs;
+
+DROP SEQUENCE IF EXISTS bookings_seq;
+CREATE SEQUENCE bookings_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users
 (
     user_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     user_name VARCHAR(50) NOT NULL,
-    email     VARCHAR(50) NOT NULL UNIQUE
+    email     VARCHAR(50) NOT NULL UNIQUE,
+    version   BIGINT DEFAULT 0 NOT NULL,
+    deleted   BOOLEAN DEFAULT FALSE NOT NULL
     );
 
 CREATE TABLE IF NOT EXISTS requests
@@ -26,19 +40,36 @@ CREATE TABLE IF NOT EXISTS items
     description VARCHAR(256) NOT NULL,
     available   BOOLEAN NOT NULL,
     owner_id    INTEGER REFERENCES users (user_id) NOT NULL,
-    request_id  INTEGER REFERENCES requests (requests_id)
+    request_id  INTEGER REFERENCES requests (requests_id),
+    version     BIGINT DEFAULT 0 NOT NULL,
+    deleted     BOOLEAN DEFAULT FALSE NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+
+CREATE TABLE IF NOT EXISTS booking_series
+(
+    series_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    item_id     INTEGER REFERENCES items (item_id) NOT NULL,
+    booker_id   INTEGER REFERENCES users (user_id) NOT NULL,
+    start_date  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    frequency   VARCHAR(20) NOT NULL,
+    occurrences INTEGER NOT NULL
     );
 
-CREATE TABLE IF NOT EXISTS bookings
+CREATE TABLE IF NOT EXISTS waitlist
 (
-    booking_id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    entry_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    item_id    INTEGER REFERENCES items (item_id) NOT NULL,
+    booker_id  INTEGER REFERENCES users (user_id) NOT NULL,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    item_id    INTEGER REFERENCES items (item_id),
-    booker_id  INTEGER REFERENCES users (user_id),
-    status     VARCHAR(50) NOT NULL
+    created    TIMESTAMP WITHOUT TIME ZONE NOT NULL
     );
 
+CREATE INDEX IF NOT EXISTS waitlist_item_idx ON waitlist (item_id, entry_id);
+
 CREATE TABLE IF NOT EXISTS comments
 (
     comment_id   INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -46,4 +77,82 @@ CREATE TABLE IF NOT EXISTS comments
     item_id      INTEGER REFERENCES items (item_id),
     author_id    INTEGER REFERENCES users (user_id),
     created      TIMESTAMP WITHOUT TIME ZONE NOT NULL
-    );
\ No newline at end of file
+    );
+
+CREATE INDEX IF NOT EXISTS comments_item_idx ON comments (item_id);
+CREATE INDEX IF NOT EXISTS comments_author_idx ON comments (author_id);
+
+CREATE TABLE IF NOT EXISTS outbox_events
+(
+    event_id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type VARCHAR(50) NOT NULL,
+    booking_id INTEGER NOT NULL,
+    item_id    INTEGER NOT NULL,
+    owner_id   INTEGER NOT NULL,
+    booker_id  INTEGER NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    created    TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    attempts   INTEGER DEFAULT 0 NOT NULL,
+    processed  BOOLEAN DEFAULT FALSE NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS outbox_events_pending_idx ON outbox_events (processed, event_id);
+CREATE INDEX IF NOT EXISTS outbox_events_owner_idx ON outbox_events (owner_id, event_id);
+
+CREATE TABLE IF NOT EXISTS item_popularity
+(
+    item_id  INTEGER NOT NULL,
+    bucket   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    bookings BIGINT NOT NULL,
+    PRIMARY KEY (item_id, bucket)
+    );
+
+CREATE INDEX IF NOT EXISTS item_popularity_bucket_idx ON item_popularity (bucket);
+
+CREATE TABLE IF NOT EXISTS item_daily_stats
+(
+    item_id        INTEGER NOT NULL,
+    stat_date      DATE NOT NULL,
+    owner_id       INTEGER NOT NULL,
+    requested      INTEGER DEFAULT 0 NOT NULL,
+    approved       INTEGER DEFAULT 0 NOT NULL,
+    rejected       INTEGER DEFAULT 0 NOT NULL,
+    canceled       INTEGER DEFAULT 0 NOT NULL,
+    booked_minutes BIGINT DEFAULT 0 NOT NULL,
+    lead_minutes   BIGINT DEFAULT 0 NOT NULL,
+    lead_count     INTEGER DEFAULT 0 NOT NULL,
+    PRIMARY KEY (item_id, stat_date)
+    );
+
+CREATE INDEX IF NOT EXISTS item_daily_stats_owner_idx ON item_daily_stats (owner_id, stat_date);
+
+CREATE TABLE IF NOT EXISTS item_stats_bookings
+(
+    booking_id    INTEGER NOT NULL PRIMARY KEY,
+    status        VARCHAR(50) NOT NULL,
+    requested_at  TIMESTAMP WITHOUT TIME ZONE,
+    end_date      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    last_event_id BIGINT NOT NULL
+    );
+
+CREATE INDEX IF NOT EXISTS item_stats_bookings_end_idx ON item_stats_bookings (end_date);
+
+CREATE TABLE IF NOT EXISTS booking_archive_generation
+(
+    singleton  BOOLEAN DEFAULT TRUE NOT NULL PRIMARY KEY CHECK (singleton),
+    generation VARCHAR(36) NOT NULL
+    );
+
+CREATE TABLE IF NOT EXISTS idempotency_keys
+(
+    scope       VARCHAR(32) NOT NULL,
+    user_id     BIGINT NOT NULL,
+    idem_key    VARCHAR(255) NOT NULL,
+    fingerprint VARCHAR(64) NOT NULL,
+    response    TEXT,
+    expires_at  TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (scope, user_id, idem_key)
+    );
+
+CREATE INDEX IF NOT EXISTS idempotency_keys_expires_idx ON idempotency_keys (expires_at);
@@ -0,0 +1,103 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Общая основа HTTP-тестов: один контекст на все тесты и помощники для создания данных через API.
+ * База общая, поэтому каждый тест заводит собственных пользователей и вещи.
+ */
+@SpringBootTest(properties = "shareit.booking.archive.directory=target/test-archive/${random.uuid}")
+@AutoConfigureMockMvc
+public abstract class ApiTest {
+
+    protected static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected BookingRepository bookingRepository;
+
+    @Autowired
+    protected ItemRepository itemRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    protected long createUser() throws Exception {
+        long n = SEQUENCE.incrementAndGet();
+        return read(mockMvc.perform(json(post("/users"),
+                        Map.of("name", "user" + n, "email", "user" + n + "-" + System.nanoTime() + "@mail.ru")))
+                .andExpect(status().isOk()))
+                .get("id").asLong();
+    }
+
+    protected long createItem(long ownerId, String name, String description) throws Exception {
+        return read(mockMvc.perform(json(post("/items").header(USER_HEADER, ownerId),
+                        Map.of("name", name, "description", description, "available", true)))
+                .andExpect(status().isOk()))
+                .get("id").asLong();
+    }
+
+    protected long createBooking(long bookerId, long itemId, LocalDateTime start, LocalDateTime end)
+            throws Exception {
+        return read(mockMvc.perform(json(post("/bookings").header(USER_HEADER, bookerId),
+                        Map.of("itemId", itemId, "start", start.toString(), "end", end.toString())))
+                .andExpect(status().isOk()))
+                .get("id").asLong();
+    }
+
+    /**
+     * Сохраняет бронирование в обход проверок API, например, уже завершившееся.
+     */
+    protected long saveBooking(long bookerId, long itemId, LocalDateTime start, LocalDateTime end, Status status) {
+        Booking booking = new Booking(null, start, end, itemRepository.findById(itemId).orElseThrow(),
+                userRepository.findById(bookerId).orElseThrow(), status, null);
+        return bookingRepository.save(booking).getId();
+    }
+
+    protected void approve(long ownerId, long bookingId, boolean approved) throws Exception {
+        mockMvc.perform(patch("/bookings/{id}", bookingId)
+                        .header(USER_HEADER, ownerId)
+                        .param("approved", String.valueOf(approved)))
+                .andExpect(status().isOk());
+    }
+
+    protected MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body)
+            throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body));
+    }
+
+    protected JsonNode read(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse()
+                .getContentAsString(StandardCharsets.UTF_8));
+    }
+}
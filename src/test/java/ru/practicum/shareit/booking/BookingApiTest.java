@@ -0,0 +1,217 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.booking.status.State;
+import ru.practicum.shareit.booking.status.Status;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingApiTest extends ApiTest {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void batchBooksSeveralItemsAtOnce() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long tent = createItem(ownerId, "Палатка", "Палатка на двоих");
+        long stove = createItem(ownerId, "Горелка", "Газовая горелка");
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+
+        JsonNode bookings = read(mockMvc.perform(json(post("/bookings/batch").header(USER_HEADER, bookerId),
+                        List.of(booking(tent, start), booking(stove, start))))
+                .andExpect(status().isOk()));
+
+        assertThat(bookings).extracting(booking -> booking.get("item").get("id").asLong())
+                .containsExactlyInAnyOrder(tent, stove);
+        assertThat(bookings).extracting(booking -> booking.get("status").asText()).containsOnly("WAITING");
+    }
+
+    @Test
+    void batchIsRejectedWhenAnyItemIsTaken() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long tent = createItem(ownerId, "Палатка", "Палатка на троих");
+        long stove = createItem(ownerId, "Котелок", "Туристический котелок");
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        approve(ownerId, createBooking(createUser(), stove, start, start.plusDays(1)), true);
+
+        mockMvc.perform(json(post("/bookings/batch").header(USER_HEADER, bookerId),
+                        List.of(booking(tent, start), booking(stove, start))))
+                .andExpect(status().isBadRequest());
+
+        assertThat(bookingRepository.findBookingsByItemIdAndStartIsAfterOrderByStartDesc(tent,
+                LocalDateTime.now())).isEmpty();
+    }
+
+    @Test
+    void batchWaitsForLockedItem() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Байдарка", "Двухместная байдарка");
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<?> holder = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.lockByIdIn(List.of(itemId));
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await();
+
+        Future<Integer> batch = pool.submit(() -> mockMvc.perform(json(post("/bookings/batch")
+                        .header(USER_HEADER, bookerId), List.of(booking(itemId, start))))
+                .andReturn().getResponse().getStatus());
+        Thread.sleep(300);
+        assertThat(batch).isNotDone();
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertThat(batch.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+        pool.shutdown();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED", "APPROVED"})
+    void listsWithoutItemAndBookerMatchFullLists(String state) throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Мангал", "Складной мангал");
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(bookerId, itemId, now.minusDays(6), now.minusDays(5), Status.APPROVED);
+        saveBooking(bookerId, itemId, now.minusHours(1), now.plusHours(1), Status.APPROVED);
+        saveBooking(bookerId, itemId, now.plusDays(2), now.plusDays(3), Status.WAITING);
+        saveBooking(bookerId, itemId, now.plusDays(4), now.plusDays(5), Status.REJECTED);
+
+        for (String path : List.of("/bookings", "/bookings/owner")) {
+            long userId = path.endsWith("owner") ? ownerId : bookerId;
+            JsonNode full = read(mockMvc.perform(get(path).header(USER_HEADER, userId).param("state", state))
+                    .andExpect(status().isOk()));
+            JsonNode sparse = read(mockMvc.perform(get(path).header(USER_HEADER, userId).param("state", state)
+                            .param("fields", "id,start,end,status"))
+                    .andExpect(status().isOk()));
+
+            assertThat(summary(sparse)).isEqualTo(summary(full));
+            assertThat(sparse).allSatisfy(booking -> assertThat(booking.has("item") || booking.has("booker"))
+                    .isFalse());
+        }
+        assertThat(bookingRepository.findWithoutRelations(bookerId, false, State.valueOf(state), now))
+                .allSatisfy(booking -> assertThat(booking.getItem() == null && booking.getBooker() == null).isTrue());
+    }
+
+    @Test
+    void seriesIsCreatedAndApprovedTogether() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Корт", "Теннисный корт");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        JsonNode series = read(mockMvc.perform(json(post("/bookings/series").header(USER_HEADER, bookerId),
+                        Map.of("itemId", itemId, "start", start.toString(), "end", start.plusHours(2).toString(),
+                                "frequency", "WEEKLY", "occurrences", 3)))
+                .andExpect(status().isOk()));
+        assertThat(series.get("bookings")).hasSize(3);
+
+        JsonNode approved = read(mockMvc.perform(patch("/bookings/series/{id}", series.get("id").asLong())
+                        .header(USER_HEADER, ownerId)
+                        .param("approved", "true"))
+                .andExpect(status().isOk()));
+        assertThat(approved.get("bookings")).extracting(booking -> booking.get("status").asText())
+                .containsOnly("APPROVED");
+
+        JsonNode fetched = read(mockMvc.perform(get("/bookings/series/{id}", series.get("id").asLong())
+                        .header(USER_HEADER, bookerId))
+                .andExpect(status().isOk()));
+        assertThat(fetched.get("bookings")).hasSize(3);
+    }
+
+    @Test
+    void monthlySeriesKeepsOccurrenceLengthAcrossFebruary() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Дача", "Дача на выходные");
+        LocalDateTime start = LocalDateTime.of(LocalDate.now().getYear() + 1, 1, 30, 12, 0);
+
+        JsonNode series = read(mockMvc.perform(json(post("/bookings/series").header(USER_HEADER, bookerId),
+                        Map.of("itemId", itemId, "start", start.toString(),
+                                "end", start.plusDays(1).withHour(8).toString(),
+                                "frequency", "MONTHLY", "occurrences", 3)))
+                .andExpect(status().isOk()));
+
+        assertThat(series.get("bookings")).hasSize(3).allSatisfy(booking -> assertThat(Duration.between(
+                        LocalDateTime.parse(booking.get("start").asText()),
+                        LocalDateTime.parse(booking.get("end").asText())))
+                .isEqualTo(Duration.ofHours(20)));
+        assertThat(LocalDateTime.parse(series.get("bookings").get(1).get("start").asText()).getMonth())
+                .isEqualTo(Month.FEBRUARY);
+    }
+
+    @Test
+    void waitlistIsJoinedOnlyForTakenSlots() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long waiterId = createUser();
+        long itemId = createItem(ownerId, "Лодка", "Моторная лодка");
+        LocalDateTime start = LocalDateTime.now().plusDays(3);
+
+        mockMvc.perform(json(post("/bookings/waitlist").header(USER_HEADER, waiterId), booking(itemId, start)))
+                .andExpect(status().isBadRequest());
+
+        approve(ownerId, createBooking(bookerId, itemId, start, start.plusDays(1)), true);
+        JsonNode entry = read(mockMvc.perform(json(post("/bookings/waitlist").header(USER_HEADER, waiterId),
+                        booking(itemId, start)))
+                .andExpect(status().isOk()));
+        assertThat(entry.get("position").asInt()).isEqualTo(1);
+
+        JsonNode entries = read(mockMvc.perform(get("/bookings/waitlist").header(USER_HEADER, waiterId))
+                .andExpect(status().isOk()));
+        assertThat(entries).extracting(found -> found.get("id").asLong())
+                .containsExactly(entry.get("id").asLong());
+
+        mockMvc.perform(delete("/bookings/waitlist/{id}", entry.get("id").asLong()).header(USER_HEADER, waiterId))
+                .andExpect(status().isOk());
+        assertThat(read(mockMvc.perform(get("/bookings/waitlist").header(USER_HEADER, waiterId))
+                .andExpect(status().isOk()))).isEmpty();
+    }
+
+    private Map<String, Object> booking(long itemId, LocalDateTime start) {
+        return Map.of("itemId", itemId, "start", start.toString(), "end", start.plusDays(1).toString());
+    }
+
+    private List<String> summary(JsonNode bookings) {
+        return StreamSupport.stream(bookings.spliterator(), false)
+                .map(booking -> booking.get("id").asLong() + " " + booking.get("status").asText())
+                .collect(Collectors.toList());
+    }
+}
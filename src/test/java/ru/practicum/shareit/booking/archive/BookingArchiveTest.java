@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.archive;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.cache.CacheNames;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingArchiveTest extends ApiTest {
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingArchiveGeneration bookingArchiveGeneration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void archivedBookingsServeOwnerListsAndLastBooking() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Лодка", "Надувная лодка");
+        LocalDateTime end = LocalDateTime.now().minusYears(2);
+        long bookingId = saveBooking(bookerId, itemId, end.minusDays(3), end, Status.APPROVED);
+
+        bookingArchiver.archive();
+
+        assertThat(bookingRepository.findById(bookingId)).isEmpty();
+        assertThat(ownerBookings(ownerId, "PAST")).extracting(booking -> booking.get("id").asLong())
+                .containsExactly(bookingId);
+        assertThat(ownerBookings(ownerId, "CURRENT")).isEmpty();
+        assertThat(ownerBookings(ownerId, "FUTURE")).isEmpty();
+
+        JsonNode owned = read(mockMvc.perform(get("/items").header(USER_HEADER, ownerId))
+                .andExpect(status().isOk()));
+        assertThat(owned.get(0).get("lastBooking").get("id").asLong()).isEqualTo(bookingId);
+        assertThat(owned.get(0).get("lastBooking").get("bookerId").asLong()).isEqualTo(bookerId);
+
+        JsonNode card = read(mockMvc.perform(get("/items/{id}", itemId).header(USER_HEADER, ownerId))
+                .andExpect(status().isOk()));
+        assertThat(card.get("lastBooking").get("id").asLong()).isEqualTo(bookingId);
+        assertThat(card.get("lastBooking").get("bookerId").asLong()).isEqualTo(bookerId);
+    }
+
+    @Test
+    void storeReadsMonthsThroughIndexesAndPicksUpOtherWriters() throws Exception {
+        BookingArchiveStore writer = new BookingArchiveStore(directory, 1, new SimpleMeterRegistry());
+        YearMonth first = YearMonth.of(2020, 1);
+        for (int i = 0; i < 3; i++) {
+            YearMonth month = first.plusMonths(i);
+            writer.append(month, List.of(booking(10 + i, month, 100 + i, 7, 1000 + i),
+                    booking(20 + i, month, 200, 8, 2000)));
+        }
+        assertThat(Files.exists(directory.resolve("bookings-2020-01.idx.gz"))).isTrue();
+
+        BookingArchiveStore reader = new BookingArchiveStore(directory, 1, new SimpleMeterRegistry());
+        assertThat(reader.findByBookerId(7)).extracting(ArchivedBooking::getId)
+                .containsExactlyInAnyOrder(10L, 11L, 12L);
+        assertThat(reader.findByOwnerId(2000)).extracting(ArchivedBooking::getId)
+                .containsExactlyInAnyOrder(20L, 21L, 22L);
+        assertThat(reader.findById(11)).map(ArchivedBooking::getItemId).contains(101L);
+        assertThat(reader.findLastByItemId(200)).map(ArchivedBooking::getId).contains(22L);
+        assertThat(reader.hasOwner(1001)).isTrue();
+        assertThat(reader.hasOwner(3000)).isFalse();
+
+        YearMonth later = first.plusMonths(5);
+        writer.append(later, List.of(booking(30, later, 300, 9, 3000)));
+        assertThat(reader.hasOwner(3000)).isFalse();
+        reader.invalidate(CacheNames.BOOKING_ARCHIVE + ":" + later);
+        assertThat(reader.hasOwner(3000)).isTrue();
+        assertThat(reader.findByBookerId(9)).extracting(ArchivedBooking::getId).containsExactly(30L);
+    }
+
+    @Test
+    void recreatedDatabaseDoesNotSeePreviousArchive() {
+        BookingArchiveProperties properties = new BookingArchiveProperties();
+        properties.setDirectory(directory.toString());
+        String generation = bookingArchiveGeneration.current();
+        BookingArchiveStore previous = new BookingArchiveStore(properties, bookingArchiveGeneration,
+                new SimpleMeterRegistry());
+        YearMonth month = YearMonth.of(2020, 1);
+        previous.append(month, List.of(booking(40, month, 400, 1, 2)));
+        assertThat(bookingArchiveGeneration.current()).isEqualTo(generation);
+
+        try {
+            jdbcTemplate.update("DELETE FROM booking_archive_generation");
+            String current = bookingArchiveGeneration.current();
+            BookingArchiveStore recreated = new BookingArchiveStore(properties, bookingArchiveGeneration,
+                    new SimpleMeterRegistry());
+
+            assertThat(current).isNotEqualTo(generation);
+            assertThat(recreated.isEmpty()).isTrue();
+            assertThat(recreated.findByBookerId(1)).isEmpty();
+        } finally {
+            jdbcTemplate.update("UPDATE booking_archive_generation SET generation = ?", generation);
+        }
+    }
+
+    private List<JsonNode> ownerBookings(long ownerId, String state) throws Exception {
+        JsonNode bookings = read(mockMvc.perform(get("/bookings/owner")
+                        .header(USER_HEADER, ownerId)
+                        .param("state", state))
+                .andExpect(status().isOk()));
+        return objectMapper.convertValue(bookings, objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, JsonNode.class));
+    }
+
+    private ArchivedBooking booking(long id, YearMonth month, long itemId, long bookerId, long ownerId) {
+        LocalDateTime end = month.atDay(10).atStartOfDay();
+        return new ArchivedBooking(id, end.minusDays(2), end, itemId, bookerId, ownerId, Status.APPROVED);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.booking.archive.BookingArchiver;
+import ru.practicum.shareit.booking.status.Status;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BookingSummaryTest extends ApiTest {
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Test
+    void perItemRowsIncludeArchivedBookings() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long active = createItem(ownerId, "Дрель", "Ударная дрель");
+        long old = createItem(ownerId, "Пила", "Циркулярная пила");
+        LocalDateTime now = LocalDateTime.now();
+        createBooking(bookerId, active, now.plusDays(1), now.plusDays(2));
+        long archived = saveBooking(bookerId, old, now.minusYears(3), now.minusYears(3).plusDays(1),
+                Status.APPROVED);
+
+        assertConsistent(summary(ownerId));
+        bookingArchiver.archive();
+
+        assertThat(bookingRepository.findById(archived)).isEmpty();
+        JsonNode summary = summary(ownerId);
+        assertConsistent(summary);
+        assertThat(summary.get("counts").get("ALL").asLong()).isEqualTo(2);
+        assertThat(summary.get("counts").get("PAST").asLong()).isEqualTo(1);
+        assertThat(summary.get("counts").get("APPROVED").asLong()).isEqualTo(1);
+        assertThat(summary.get("counts").get("FUTURE").asLong()).isEqualTo(1);
+        assertThat(summary.get("items")).hasSize(2);
+    }
+
+    private JsonNode summary(long ownerId) throws Exception {
+        return read(mockMvc.perform(get("/bookings/owner/summary")
+                        .header(USER_HEADER, ownerId)
+                        .param("byItem", "true"))
+                .andExpect(status().isOk()));
+    }
+
+    private void assertConsistent(JsonNode summary) {
+        for (String state : new String[]{"all", "past", "future", "waiting", "rejected", "approved"}) {
+            long sum = 0;
+            for (JsonNode item : summary.get("items")) {
+                sum += item.get(state).asLong();
+            }
+            assertThat(sum).as(state).isEqualTo(summary.get("counts").get(state.toUpperCase()).asLong());
+        }
+    }
+}
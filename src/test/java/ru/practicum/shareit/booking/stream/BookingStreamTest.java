@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class BookingStreamTest extends ApiTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BookingStreamProperties properties;
+
+    @Test
+    void replaysMissedEventsAfterLastEventId() throws Exception {
+        long ownerId = createUser();
+        List<Long> ids = saveEvents(ownerId, 3);
+
+        String body = subscribe(ownerId, ids.get(0) - 1, "id:" + ids.get(2));
+
+        for (Long id : ids) {
+            assertThat(body).contains("id:" + id);
+        }
+        assertThat(body).doesNotContain("event:" + OwnerConnection.RESET);
+    }
+
+    @Test
+    void sendsResetWhenMissedEventsDoNotFitIntoQueue() throws Exception {
+        long ownerId = createUser();
+        List<Long> ids = saveEvents(ownerId, properties.getQueueCapacity() + 1);
+
+        String body = subscribe(ownerId, ids.get(0) - 1, "event:" + OwnerConnection.RESET);
+
+        assertThat(body).doesNotContain("id:" + ids.get(0) + "\n");
+    }
+
+    private String subscribe(long ownerId, long lastEventId, String expected) throws Exception {
+        MvcResult result = mockMvc.perform(get("/bookings/owner/stream")
+                        .header(USER_HEADER, ownerId)
+                        .header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        for (int i = 0; i < 100 && !response.getContentAsString(StandardCharsets.UTF_8).contains(expected); i++) {
+            Thread.sleep(50);
+        }
+        String body = response.getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).contains(expected);
+        return body;
+    }
+
+    private List<Long> saveEvents(long ownerId, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(new OutboxEvent(null, OutboxEventType.CREATED, (long) i, -ownerId, ownerId, 1L,
+                    now.plusDays(1), now.plusDays(2), now, 0, true));
+        }
+        return outboxEventRepository.saveAll(events).stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList());
+    }
+}
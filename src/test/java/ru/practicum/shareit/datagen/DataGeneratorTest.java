@@ -0,0 +1,49 @@
+package ru.practicum.shareit.datagen;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:datagen-${random.uuid}",
+        "shareit.booking.archive.directory=target/test-archive/${random.uuid}",
+        "shareit.datagen.users=50",
+        "shareit.datagen.requests=10",
+        "shareit.datagen.items=100",
+        "shareit.datagen.bookings=2000",
+        "shareit.datagen.comments=300"
+})
+@ActiveProfiles({"test", "datagen"})
+class DataGeneratorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlDataSourceScriptDatabaseInitializer schemaInitializer;
+
+    @Test
+    void commentsAreWrittenByBookersOfFinishedApprovedBookings() {
+        assertThat(count("SELECT COUNT(*) FROM comments")).isEqualTo(300);
+        assertThat(count("SELECT COUNT(*) FROM comments c WHERE NOT EXISTS (SELECT 1 FROM bookings b "
+                + "WHERE b.item_id = c.item_id AND b.booker_id = c.author_id AND b.status = 'APPROVED' "
+                + "AND b.end_date < c.created)")).isZero();
+    }
+
+    @Test
+    void nextStartKeepsGeneratedData() {
+        long users = count("SELECT COUNT(*) FROM users");
+
+        assertThat(schemaInitializer.initializeDatabase()).isFalse();
+        assertThat(count("SELECT COUNT(*) FROM users")).isEqualTo(users).isPositive();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.idempotency;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.booking.dto.BookingCreateDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.exceptions.IdempotencyException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class IdempotencyStoreTest extends ApiTest {
+
+    private static final TypeReference<Integer> INTEGER = new TypeReference<>() { };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void repeatedRequestReturnsStoredResult() {
+        IdempotencyStore store = node();
+        String key = UUID.randomUUID().toString();
+        AtomicInteger calls = new AtomicInteger();
+
+        Integer first = store.execute("items", 1L, key, Map.of("name", "Дрель"), INTEGER, calls::incrementAndGet);
+        Integer second = store.execute("items", 1L, key, Map.of("name", "Дрель"), INTEGER, calls::incrementAndGet);
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void repeatedRequestOnAnotherNodeReturnsStoredResult() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger calls = new AtomicInteger();
+
+        Integer first = node().execute("items", 1L, key, "body", INTEGER, calls::incrementAndGet);
+        Integer second = node().execute("items", 1L, key, "body", INTEGER, calls::incrementAndGet);
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(1);
+        assertThat(calls).hasValue(1);
+        assertThatThrownBy(() -> node().execute("items", 1L, key, "другое тело", INTEGER, () -> 2))
+                .isInstanceOf(IdempotencyException.class);
+    }
+
+    @Test
+    void differentBodyWithSameHashCodeIsRejected() {
+        IdempotencyStore store = node();
+        String key = UUID.randomUUID().toString();
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode());
+        store.execute("items", 1L, key, Map.of("name", "Aa"), INTEGER, () -> 1);
+
+        assertThatThrownBy(() -> store.execute("items", 1L, key, Map.of("name", "BB"), INTEGER, () -> 2))
+                .isInstanceOf(IdempotencyException.class);
+    }
+
+    @Test
+    void failedRequestCanBeRetried() {
+        String key = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> node().execute("items", 1L, key, "body", INTEGER, () -> {
+            throw new IllegalStateException("сбой");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(node().execute("items", 1L, key, "body", INTEGER, () -> 3)).isEqualTo(3);
+    }
+
+    @Test
+    void expiredKeyIsClaimedAgain() {
+        String key = UUID.randomUUID().toString();
+        node().execute("items", 1L, key, "body", INTEGER, () -> 1);
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = ? WHERE idem_key = ?",
+                Timestamp.valueOf("2000-01-01 00:00:00"), key);
+
+        assertThat(node().execute("items", 1L, key, "другое тело", INTEGER, () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void bookingCreatedOnOneNodeIsReplayedOnAnother() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Палатка", "Трёхместная палатка");
+        String key = UUID.randomUUID().toString();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        BookingCreateDto request = new BookingCreateDto(null, start, start.plusDays(2), itemId);
+        long bookingId = read(mockMvc.perform(json(post("/bookings"), request)
+                        .header(USER_HEADER, bookerId).header("Idempotency-Key", key))
+                .andExpect(status().isOk())).get("id").asLong();
+
+        BookingDto replayed = new IdempotencyStore(new IdempotencyProperties(), objectMapper, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry()).execute("bookings", bookerId, key, request,
+                new TypeReference<BookingDto>() { }, () -> {
+                    throw new IllegalStateException("действие не должно выполняться повторно");
+                });
+
+        assertThat(replayed.getId()).isEqualTo(bookingId);
+        assertThat(replayed.getItem().getId()).isEqualTo(itemId);
+        assertThat(replayed.getBooker().getId()).isEqualTo(bookerId);
+    }
+
+    /**
+     * Отдельный экземпляр со своим локальным кешем — как ещё один узел приложения над той же базой.
+     */
+    private IdempotencyStore node() {
+        return new IdempotencyStore(new IdempotencyProperties(), new ObjectMapper(), jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry());
+    }
+}
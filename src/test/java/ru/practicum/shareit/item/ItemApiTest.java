@@ -0,0 +1,195 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.booking.status.Status;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ItemApiTest extends ApiTest {
+
+    @Test
+    void patchWithStaleVersionIsRejected() throws Exception {
+        long ownerId = createUser();
+        JsonNode created = read(mockMvc.perform(json(post("/items").header(USER_HEADER, ownerId),
+                        Map.of("name", "Палатка", "description", "Двухместная палатка", "available", true)))
+                .andExpect(status().isOk()));
+        long itemId = created.get("id").asLong();
+        long version = created.get("version").asLong();
+
+        JsonNode updated = read(mockMvc.perform(json(patch("/items/{id}", itemId).header(USER_HEADER, ownerId),
+                        Map.of("name", "Шатёр", "version", version)))
+                .andExpect(status().isOk()));
+        assertThat(updated.get("version").asLong()).isEqualTo(version + 1);
+
+        mockMvc.perform(json(patch("/items/{id}", itemId).header(USER_HEADER, ownerId),
+                        Map.of("name", "Тент", "version", version)))
+                .andExpect(status().isConflict());
+        assertThat(item(ownerId, itemId).get("name").asText()).isEqualTo("Шатёр");
+    }
+
+    @Test
+    void patchKeepsOmittedFields() throws Exception {
+        long ownerId = createUser();
+        long itemId = createItem(ownerId, "Удочка", "Карбоновая удочка");
+
+        mockMvc.perform(json(patch("/items/{id}", itemId).header(USER_HEADER, ownerId), Map.of("available", false)))
+                .andExpect(status().isOk());
+        JsonNode hidden = item(ownerId, itemId);
+        assertThat(hidden.get("available").asBoolean()).isFalse();
+        assertThat(hidden.get("name").asText()).isEqualTo("Удочка");
+        assertThat(hidden.get("description").asText()).isEqualTo("Карбоновая удочка");
+
+        mockMvc.perform(json(patch("/items/{id}", itemId).header(USER_HEADER, ownerId),
+                        Map.of("description", "Телескопическая удочка")))
+                .andExpect(status().isOk());
+        JsonNode described = item(ownerId, itemId);
+        assertThat(described.get("available").asBoolean()).isFalse();
+        assertThat(described.get("name").asText()).isEqualTo("Удочка");
+        assertThat(described.get("description").asText()).isEqualTo("Телескопическая удочка");
+    }
+
+    @Test
+    void patchByAnotherUserIsNotFound() throws Exception {
+        long ownerId = createUser();
+        long otherId = createUser();
+        long itemId = createItem(ownerId, "Мангал", "Складной мангал");
+
+        mockMvc.perform(json(patch("/items/{id}", itemId).header(USER_HEADER, otherId), Map.of("name", "Чужой")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void itemsByIdsShowBookingsOnlyToOwner() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Каяк", "Одноместный каяк");
+        long otherItemId = createItem(ownerId, "Весло", "Весло для каяка");
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = saveBooking(bookerId, itemId, now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        long nextId = createBooking(bookerId, itemId, now.plusDays(3), now.plusDays(4));
+
+        JsonNode owned = read(mockMvc.perform(get("/items").header(USER_HEADER, ownerId)
+                        .param("ids", itemId + "," + otherItemId + "," + itemId))
+                .andExpect(status().isOk()));
+        assertThat(owned).extracting(item -> item.get("id").asLong()).containsExactly(itemId, otherItemId);
+        assertThat(owned.get(0).get("lastBooking").get("id").asLong()).isEqualTo(lastId);
+        assertThat(owned.get(0).get("nextBooking").get("id").asLong()).isEqualTo(nextId);
+
+        JsonNode foreign = read(mockMvc.perform(get("/items").header(USER_HEADER, bookerId)
+                        .param("ids", String.valueOf(itemId)))
+                .andExpect(status().isOk()));
+        assertThat(foreign.get(0).get("lastBooking").isNull()).isTrue();
+        assertThat(foreign.get(0).get("nextBooking").isNull()).isTrue();
+    }
+
+    @Test
+    void itemCardShowsBookingsOnlyToOwner() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Сапборд", "Надувной сапборд");
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = saveBooking(bookerId, itemId, now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        long nextId = createBooking(bookerId, itemId, now.plusDays(3), now.plusDays(4));
+
+        JsonNode owned = read(mockMvc.perform(get("/items/{id}", itemId).header(USER_HEADER, ownerId))
+                .andExpect(status().isOk()));
+        assertThat(owned.get("name").asText()).isEqualTo("Сапборд");
+        assertThat(owned.get("lastBooking").get("id").asLong()).isEqualTo(lastId);
+        assertThat(owned.get("lastBooking").get("bookerId").asLong()).isEqualTo(bookerId);
+        assertThat(owned.get("nextBooking").get("id").asLong()).isEqualTo(nextId);
+
+        JsonNode foreign = read(mockMvc.perform(get("/items/{id}", itemId).header(USER_HEADER, bookerId))
+                .andExpect(status().isOk()));
+        assertThat(foreign.get("name").asText()).isEqualTo("Сапборд");
+        assertThat(foreign.get("lastBooking").isNull()).isTrue();
+        assertThat(foreign.get("nextBooking").isNull()).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"id", "id,name", "lastBooking", "nextBooking", "comments", "name,lastBooking,nextBooking",
+            "name,comments", "lastBooking,comments", "id,name,description,available,lastBooking,nextBooking,comments"})
+    void itemCardReturnsOnlySelectedFields(String fields) throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Шезлонг", "Складной шезлонг");
+        LocalDateTime now = LocalDateTime.now();
+        long lastId = saveBooking(bookerId, itemId, now.minusDays(5), now.minusDays(4), Status.APPROVED);
+        long nextId = createBooking(bookerId, itemId, now.plusDays(3), now.plusDays(4));
+        mockMvc.perform(json(post("/items/{id}/comment", itemId).header(USER_HEADER, bookerId),
+                        Map.of("text", "Удобный шезлонг")))
+                .andExpect(status().isOk());
+        Set<String> selected = Set.of(fields.split(","));
+
+        JsonNode card = read(mockMvc.perform(get("/items/{id}", itemId).header(USER_HEADER, ownerId)
+                        .param("fields", fields))
+                .andExpect(status().isOk()));
+
+        assertThat(card.get("id").asLong()).isEqualTo(itemId);
+        assertThat(card.has("name")).isEqualTo(selected.contains("name"));
+        assertThat(card.has("description")).isEqualTo(selected.contains("description"));
+        if (selected.contains("name")) {
+            assertThat(card.get("name").asText()).isEqualTo("Шезлонг");
+        }
+        assertThat(card.has("lastBooking")).isEqualTo(selected.contains("lastBooking"));
+        if (selected.contains("lastBooking")) {
+            assertThat(card.get("lastBooking").get("id").asLong()).isEqualTo(lastId);
+        }
+        assertThat(card.has("nextBooking")).isEqualTo(selected.contains("nextBooking"));
+        if (selected.contains("nextBooking")) {
+            assertThat(card.get("nextBooking").get("id").asLong()).isEqualTo(nextId);
+        }
+        assertThat(card.has("comments")).isEqualTo(selected.contains("comments"));
+        if (selected.contains("comments")) {
+            assertThat(card.get("comments")).extracting(comment -> comment.get("text").asText())
+                    .containsExactly("Удобный шезлонг");
+        }
+    }
+
+    @Test
+    void commentCarriesAuthorName() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Самокат", "Городской самокат");
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(bookerId, itemId, now.minusDays(3), now.minusDays(2), Status.APPROVED);
+        String authorName = read(mockMvc.perform(get("/users/{id}", bookerId)).andExpect(status().isOk()))
+                .get("name").asText();
+
+        JsonNode comment = read(mockMvc.perform(json(post("/items/{id}/comment", itemId)
+                        .header(USER_HEADER, bookerId), Map.of("text", "Отличный самокат")))
+                .andExpect(status().isOk()));
+
+        assertThat(comment.get("authorName").asText()).isEqualTo(authorName);
+        assertThat(comment.get("text").asText()).isEqualTo("Отличный самокат");
+    }
+
+    @Test
+    void relatedItemsAreListed() throws Exception {
+        long ownerId = createUser();
+        long itemId = createItem(ownerId, "Проектор", "Проектор для дома");
+
+        JsonNode related = read(mockMvc.perform(get("/items/{id}/related", itemId))
+                .andExpect(status().isOk()));
+
+        assertThat(related.isArray()).isTrue();
+        assertThat(related).extracting(item -> item.get("id").asLong()).doesNotContain(itemId);
+    }
+
+    private JsonNode item(long userId, long itemId) throws Exception {
+        return read(mockMvc.perform(get("/items").header(USER_HEADER, userId).param("ids", String.valueOf(itemId)))
+                .andExpect(status().isOk()))
+                .get(0);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.item.popularity.ItemPopularityCounter;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+import ru.practicum.shareit.outbox.service.OutboxDispatcher;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ItemTrendingTest extends ApiTest {
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ItemPopularityCounter itemPopularityCounter;
+
+    @Test
+    void bookingIsCountedOnceHoweverManyDispatchersRun() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Гамак", "Гамак для дачи");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        createBooking(bookerId, itemId, start, start.plusDays(1));
+
+        for (int i = 0; i < 3; i++) {
+            outboxDispatcher.dispatch();
+        }
+        itemPopularityCounter.flush();
+
+        assertThat(outboxEventRepository.countByProcessedFalse()).isZero();
+        assertThat(itemPopularityCounter.getScore(itemId)).isEqualTo(1);
+    }
+
+    @Test
+    void unknownWindowIsRejectedInRussian() throws Exception {
+        JsonNode error = read(mockMvc.perform(get("/items/trending").param("window", "DECADE"))
+                .andExpect(status().isBadRequest()));
+
+        assertThat(error.get("error").asText()).isEqualTo("Неизвестное окно популярности: DECADE");
+    }
+}
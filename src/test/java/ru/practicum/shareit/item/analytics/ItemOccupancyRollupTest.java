@@ -0,0 +1,83 @@
+package ru.practicum.shareit.item.analytics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemOccupancyRollupTest extends ApiTest {
+
+    private static final int THREADS = 8;
+    private static final AtomicLong IDS = new AtomicLong(9_000_000);
+
+    @Autowired
+    private ItemOccupancyRollup rollup;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentDeliveryOfSameEventsIsCountedOnce() throws Exception {
+        long bookingId = IDS.incrementAndGet();
+        long itemId = IDS.incrementAndGet();
+        LocalDateTime start = LocalDateTime.of(2031, 3, 1, 10, 0);
+        OutboxEvent created = event(IDS.incrementAndGet(), OutboxEventType.CREATED, bookingId, itemId, start);
+        OutboxEvent approved = event(IDS.incrementAndGet(), OutboxEventType.APPROVED, bookingId, itemId, start);
+
+        deliverConcurrently(created);
+        deliverConcurrently(approved);
+
+        Map<String, Object> totals = jdbcTemplate.queryForMap("SELECT SUM(requested) AS requested, "
+                + "SUM(approved) AS approved, SUM(booked_minutes) AS booked FROM item_daily_stats WHERE item_id = ?",
+                itemId);
+        assertThat(((Number) totals.get("requested")).longValue()).isEqualTo(1);
+        assertThat(((Number) totals.get("approved")).longValue()).isEqualTo(1);
+        assertThat(((Number) totals.get("booked")).longValue()).isEqualTo(120);
+    }
+
+    /**
+     * Доставляет событие из нескольких потоков сразу, а упавшие доставки повторяет, как диспетчер outbox.
+     */
+    private void deliverConcurrently(OutboxEvent event) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit(() -> {
+                ready.await();
+                try {
+                    rollup.onEvent(event);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            }));
+        }
+        ready.countDown();
+        for (Future<Boolean> future : futures) {
+            if (!future.get()) {
+                rollup.onEvent(event);
+            }
+        }
+        pool.shutdown();
+    }
+
+    private OutboxEvent event(long id, OutboxEventType type, long bookingId, long itemId, LocalDateTime start) {
+        return new OutboxEvent(id, type, bookingId, itemId, 1L, 2L, start, start.plusHours(2),
+                start.minusDays(1), 0, false);
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemSearchCacheTest {
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemSearchCache cache =
+            new ItemSearchCache(new ItemSearchCacheProperties(), itemRepository, new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void changedItemEvictsQueriesItWasFoundBy() {
+        search("дрель", dto(1L, "Дрель"));
+        search("пила", dto(2L, "Пила"));
+
+        cache.invalidate(CacheNames.ITEMS + ":1");
+
+        verify(itemRepository, never()).findAllById(any());
+        verify(itemRepository, never()).findById(any());
+        search("дрель", dto(1L, "Дрель"));
+        search("пила", dto(2L, "Пила"));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void queriesMatchingNewTextAreEvictedInBackground() {
+        search("лодк");
+        search("надувн");
+        search("пила");
+        Item item = new Item();
+        item.setId(3L);
+        item.setName("Лодка");
+        item.setDescription("Надувная лодка");
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
+
+        cache.invalidate(CacheNames.ITEMS + ":3");
+        search("лодк");
+        assertThat(loads).hasValue(3);
+
+        cache.applyChanges();
+        search("лодк");
+        search("надувн");
+        search("пила");
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void ownerInvalidationEvictsQueriesWithTheirItems() {
+        search("дрель", dto(1L, "Дрель", owner(10L)));
+        search("пила", dto(2L, "Пила", owner(20L)));
+
+        cache.invalidate(CacheNames.USERS + ":10");
+
+        search("дрель");
+        search("пила");
+        assertThat(loads).hasValue(3);
+    }
+
+    private void search(String query, ItemDto... result) {
+        cache.get(query, () -> {
+            loads.incrementAndGet();
+            return List.of(result);
+        });
+    }
+
+    private ItemDto dto(long id, String name) {
+        return dto(id, name, null);
+    }
+
+    private ItemDto dto(long id, String name, User owner) {
+        return new ItemDto(id, name, name, true, owner, null, 0L);
+    }
+
+    private User owner(long id) {
+        User owner = new User();
+        owner.setId(id);
+        return owner;
+    }
+}
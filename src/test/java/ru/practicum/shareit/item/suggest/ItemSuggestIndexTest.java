@@ -0,0 +1,148 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.ItemBookingCountDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.cache.CacheNames;
+import ru.practicum.shareit.item.dto.ItemSuggestDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemSuggestIndexTest {
+
+    private static final String[] WORDS = {"дрель", "дрова", "красная", "синяя", "пила", "пилка", "лодка"};
+
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private final Map<Long, Item> stored = new HashMap<>();
+    private final Map<Long, Long> popularity = new HashMap<>();
+    private ItemSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ItemSuggestProperties properties = new ItemSuggestProperties();
+        properties.setTopK(2);
+        when(itemRepository.findAllByAvailableTrue()).thenAnswer(invocation -> new ArrayList<>(stored.values()));
+        when(itemRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Item> found = new ArrayList<>();
+            for (Object id : (Iterable<?>) invocation.getArgument(0)) {
+                if (stored.containsKey(id)) {
+                    found.add(stored.get(id));
+                }
+            }
+            return found;
+        });
+        when(bookingRepository.countBookingsGroupByItem()).thenAnswer(invocation -> popularity.entrySet().stream()
+                .map(entry -> new ItemBookingCountDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+        index = new ItemSuggestIndex(itemRepository, bookingRepository, properties);
+    }
+
+    @Test
+    void multiWordPrefixFindsItemsOutsideLastWordTop() {
+        save(1L, "красная дрель", 0);
+        save(2L, "синяя дрель", 5);
+        save(3L, "дрова", 7);
+        index.rebuild();
+
+        assertThat(index.suggest("др", 10)).extracting(ItemSuggestDto::getId).containsExactly(3L, 2L);
+        assertThat(index.suggest("красная др", 10)).extracting(ItemSuggestDto::getId).containsExactly(1L);
+    }
+
+    @Test
+    void invalidationDefersDatabaseLookupToBackgroundRefresh() {
+        index.rebuild();
+        save(1L, "пила", 0);
+
+        index.invalidate(CacheNames.ITEMS + ":1");
+
+        verify(itemRepository, never()).findAllById(any());
+        verify(itemRepository, never()).findById(any());
+        assertThat(index.suggest("пил", 10)).isEmpty();
+        index.applyChanges();
+        assertThat(index.suggest("пил", 10)).extracting(ItemSuggestDto::getId).containsExactly(1L);
+    }
+
+    @Test
+    void incrementalUpdatesMatchFullRebuild() {
+        Random random = new Random(7);
+        for (long id = 1; id <= 40; id++) {
+            save(id, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)], 0);
+        }
+        index.rebuild();
+        for (int step = 0; step < 400; step++) {
+            long id = 1 + random.nextInt(40);
+            if (random.nextInt(10) == 0) {
+                if (stored.remove(id) == null) {
+                    save(id, WORDS[random.nextInt(WORDS.length)], 0);
+                }
+                popularity.remove(id);
+                index.invalidate(CacheNames.ITEMS + ":" + id);
+                index.applyChanges();
+            } else {
+                if (stored.containsKey(id)) {
+                    popularity.merge(id, 1L, Long::sum);
+                }
+                index.onEvent(created(id));
+            }
+        }
+
+        for (String query : List.of("д", "др", "дре", "п", "пил", "пилк", "к", "красная д", "синяя п", "лодка")) {
+            assertThat(index.suggest(query, 2)).extracting(ItemSuggestDto::getId)
+                    .as(query)
+                    .containsExactlyElementsOf(expected(query, 2));
+        }
+    }
+
+    private List<Long> expected(String query, int limit) {
+        List<String> words = Arrays.asList(query.split(" "));
+        String last = words.get(words.size() - 1);
+        List<String> preceding = words.subList(0, words.size() - 1);
+        return stored.values().stream()
+                .filter(item -> {
+                    List<String> tokens = Arrays.asList(item.getName().split(" "));
+                    return tokens.containsAll(preceding) && tokens.stream().anyMatch(token -> token.startsWith(last));
+                })
+                .sorted(Comparator.comparingLong((Item item) -> -popularity.getOrDefault(item.getId(), 0L))
+                        .thenComparingLong(Item::getId))
+                .limit(limit)
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void save(long id, String name, long bookings) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setAvailable(true);
+        stored.put(id, item);
+        if (bookings > 0) {
+            popularity.put(id, bookings);
+        }
+    }
+
+    private OutboxEvent created(long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        return new OutboxEvent(null, OutboxEventType.CREATED, 1L, itemId, 1L, 2L, now, now, now, 0, false);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datagen.ZipfDistribution;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнивает чтение карточки вещи четырьмя запросами и одним запросом {@code findItemDetail}.
+ *
+ * <p>Запускается вместе с нагрузочным прогоном: {@code mvn test -P load-test}. Параметры —
+ * системные свойства {@code load.seed}, {@code load.items}, {@code load.bookings},
+ * {@code load.comments} (на вещь) и {@code load.requests}.
+ */
+@Tag("load")
+@Slf4j
+@SpringBootTest
+class ItemDetailBenchmark {
+
+    private static final int USERS = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareItemDetailPaths() {
+        long seed = Long.getLong("load.seed", 42L);
+        int items = Integer.getInteger("load.items", 500);
+        int bookings = Integer.getInteger("load.bookings", 20);
+        int comments = Integer.getInteger("load.comments", 5);
+        int requests = Integer.getInteger("load.requests", 20000);
+
+        Random random = new Random(seed);
+        List<Long> itemIds = seed(items, bookings, comments, random);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        LongConsumer multiQuery = itemId -> transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            itemRepository.findById(itemId).orElseThrow();
+            bookingRepository.findBookingsByItemIdAndEndIsBeforeOrderByEndDesc(itemId, now);
+            bookingRepository.findBookingsByItemIdAndStartIsAfterOrderByStartDesc(itemId, now);
+            commentRepository.findAllByItemId(itemId).stream()
+                    .map(CommentMapper::toCommentDto)
+                    .collect(Collectors.toList());
+        });
+        LongConsumer singleQuery = itemId -> transactionTemplate.executeWithoutResult(status ->
+                itemRepository.findItemDetail(itemId, LocalDateTime.now(), true, true).orElseThrow());
+
+        run("multi-query", multiQuery, itemIds, requests / 10, seed);
+        run("single-query", singleQuery, itemIds, requests / 10, seed);
+        log.info("\n{}", run("multi-query", multiQuery, itemIds, requests, seed));
+        log.info("\n{}", run("single-query", singleQuery, itemIds, requests, seed));
+    }
+
+    private static String run(String name, LongConsumer path, List<Long> itemIds, int requests, long seed) {
+        Random random = new Random(seed);
+        ZipfDistribution popularity = new ZipfDistribution(itemIds.size(), 1.0);
+        LatencyRecorder recorder = new LatencyRecorder();
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            long itemId = itemIds.get(popularity.sample(random));
+            long sent = System.nanoTime();
+            path.accept(itemId);
+            recorder.record(name, System.nanoTime() - sent, true);
+        }
+        return recorder.report((System.nanoTime() - started) / 1_000_000_000.0);
+    }
+
+    /**
+     * Данные вставляются без явных id, чтобы не сбить счётчики id для других прогонов в том же контексте.
+     */
+    private List<Long> seed(int items, int bookingsPerItem, int commentsPerItem, Random random) {
+        List<Object[]> userRows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userRows.add(new Object[]{"bench" + i, "bench" + i + "@detail.test"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_name, email) VALUES (?, ?)", userRows);
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT user_id FROM users WHERE email LIKE '%@detail.test' ORDER BY user_id", Long.class);
+
+        List<Object[]> itemRows = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            itemRows.add(new Object[]{"Вещь " + i, "Описание для замера " + i, true,
+                    userIds.get(random.nextInt(USERS))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (item_name, description, available, owner_id) "
+                + "VALUES (?, ?, ?, ?)", itemRows);
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT item_id FROM items "
+                + "WHERE description LIKE 'Описание для замера %' ORDER BY item_id", Long.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Object[]> commentRows = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusDays(random.nextInt(365) - 182);
+                bookingRows.add(new Object[]{Timestamp.valueOf(start),
+                        Timestamp.valueOf(start.plusDays(1 + random.nextInt(7))), itemId,
+                        userIds.get(random.nextInt(USERS)), "APPROVED"});
+            }
+            for (int i = 0; i < commentsPerItem; i++) {
+                commentRows.add(new Object[]{"Отзыв " + i, itemId, userIds.get(random.nextInt(USERS)),
+                        Timestamp.valueOf(now.minusDays(random.nextInt(365)))});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (booking_id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (NEXT VALUE FOR bookings_seq, ?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (comment_text, item_id, author_id, created) "
+                + "VALUES (?, ?, ?, ?)", commentRows);
+        return itemIds;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Собирает задержки по эндпоинтам и печатает пропускную способность и перцентили.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, success);
+    }
+
+    String report(double seconds) {
+        StringBuilder report = new StringBuilder(String.format("%-22s %8s %7s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms"));
+        samples.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> report.append(entry.getValue().format(entry.getKey(), seconds)));
+        return report.toString();
+    }
+
+    private static class Samples {
+
+        private long[] values = new long[1024];
+        private int size;
+        private int errors;
+
+        synchronized void add(long nanos, boolean success) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized String format(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return String.format("%-22s %8d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                    endpoint, size, errors, size / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.shareit.datagen.ZipfDistribution;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Наполняет приложение данными через REST API: у немногих владельцев большие каталоги,
+ * названия вещей берутся из небольшого словаря, чтобы поиск попадал в популярные термины.
+ *
+ * <p>У каждой доступной вещи есть хотя бы одно бронирование, остальные {@code bookings} распределены
+ * по популярности вещей; примерно половина подтверждается владельцем. Даты отсчитываются от
+ * переданного момента, а не от текущего времени, поэтому при том же seed данные совпадают.
+ */
+class LoadDataSeeder {
+
+    static final String[] VOCABULARY = {
+        "дрель", "drill", "перфоратор", "лестница", "ladder", "палатка", "tent", "велосипед", "bike",
+        "шуруповёрт", "saw", "пила", "каяк", "kayak", "проектор", "projector", "гитара", "guitar"
+    };
+
+    static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+
+    LoadDataSeeder(HttpClient client, ObjectMapper objectMapper, String baseUrl) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+    }
+
+    SeedData seed(int users, int items, int bookings, Random random, LocalDateTime now)
+            throws IOException, InterruptedException {
+        SeedData data = new SeedData();
+        for (int i = 0; i < users; i++) {
+            data.userIds.add(post("/users", null,
+                    String.format("{\"name\":\"user%d\",\"email\":\"user%d@load.test\"}", i, i)));
+        }
+        ZipfDistribution owners = new ZipfDistribution(users, 1.1);
+        for (int i = 0; i < items; i++) {
+            long ownerId = data.userIds.get(owners.sample(random));
+            String word = VOCABULARY[random.nextInt(VOCABULARY.length)];
+            boolean available = random.nextInt(10) != 0;
+            data.itemIds.add(post("/items", ownerId, String.format(
+                    "{\"name\":\"%s %d\",\"description\":\"%s для нагрузочного теста\",\"available\":%b}",
+                    word, i, word, available)));
+            data.itemOwners.add(ownerId);
+            data.itemAvailable.add(available);
+        }
+        Map<Integer, Integer> slots = new HashMap<>();
+        for (int i = 0; i < items; i++) {
+            if (data.itemAvailable.get(i)) {
+                book(data, i, slots, random, now);
+            }
+        }
+        ZipfDistribution itemPopularity = new ZipfDistribution(items, 1.0);
+        for (int i = 0; i < bookings; i++) {
+            int item = itemPopularity.sample(random);
+            if (data.itemAvailable.get(item)) {
+                book(data, item, slots, random, now);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Бронирует вещь на следующий свободный восьмидневный слот, чтобы подтверждённые бронирования
+     * одной вещи не пересекались.
+     */
+    private void book(SeedData data, int item, Map<Integer, Integer> slots, Random random, LocalDateTime now)
+            throws IOException, InterruptedException {
+        long ownerId = data.itemOwners.get(item);
+        long bookerId = data.bookerFor(ownerId, random);
+        int slot = slots.merge(item, 1, Integer::sum);
+        LocalDateTime start = now.plusDays(8L * slot);
+        long bookingId = post("/bookings", bookerId, String.format(
+                "{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}", data.itemIds.get(item),
+                start.format(DATE_TIME), start.plusDays(1 + random.nextInt(7)).format(DATE_TIME)));
+        if (random.nextBoolean()) {
+            send(HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + bookingId + "?approved=true"))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody()), ownerId, "/bookings/" + bookingId);
+        }
+    }
+
+    private long post(String path, Long userId, String body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        return objectMapper.readTree(send(request, userId, path)).get("id").asLong();
+    }
+
+    private String send(HttpRequest.Builder request, Long userId, String path)
+            throws IOException, InterruptedException {
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось выполнить " + path + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    static class SeedData {
+
+        final List<Long> userIds = new ArrayList<>();
+        final List<Long> itemIds = new ArrayList<>();
+        final List<Long> itemOwners = new ArrayList<>();
+        final List<Boolean> itemAvailable = new ArrayList<>();
+
+        /**
+         * Случайный пользователь, не являющийся владельцем: свою вещь бронировать нельзя.
+         */
+        long bookerFor(long ownerId, Random random) {
+            int index = random.nextInt(userIds.size());
+            if (userIds.get(index) == ownerId) {
+                index = (index + 1) % userIds.size();
+            }
+            return userIds.get(index);
+        }
+
+        /**
+         * Ближайшая к {@code item} доступная для бронирования вещь.
+         */
+        int availableFrom(int item) {
+            for (int i = 0; i < itemIds.size(); i++) {
+                int candidate = (item + i) % itemIds.size();
+                if (itemAvailable.get(candidate)) {
+                    return candidate;
+                }
+            }
+            return item;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import ru.practicum.shareit.datagen.ZipfDistribution;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный прогон REST API на встроенной H2.
+ *
+ * <p>Запускается отдельно: {@code mvn test -P load-test}. Параметры задаются системными свойствами
+ * {@code load.seed}, {@code load.profile}, {@code load.users}, {@code load.items}, {@code load.bookings},
+ * {@code load.requests}, {@code load.concurrency} и {@code load.clock}. Даты бронирований отсчитываются
+ * от фиксированного {@code load.clock}, поэтому при одинаковом seed запросы воспроизводятся побайтно.
+ * Успешными считаются только ответы 2xx.
+ */
+@Tag("load")
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong userSequence = new AtomicLong();
+
+    @Test
+    void runWorkload() throws Exception {
+        long seed = Long.getLong("load.seed", 42L);
+        WorkloadProfile profile = WorkloadProfile.valueOf(System.getProperty("load.profile", "MIXED"));
+        int users = Integer.getInteger("load.users", 200);
+        int items = Integer.getInteger("load.items", 2000);
+        int bookings = Integer.getInteger("load.bookings", 2000);
+        int requests = Integer.getInteger("load.requests", 20000);
+        int concurrency = Integer.getInteger("load.concurrency", 32);
+        Clock clock = Clock.fixed(Instant.parse(System.getProperty("load.clock", "2030-01-01T00:00:00Z")),
+                ZoneOffset.UTC);
+
+        String baseUrl = "http://localhost:" + port;
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Random random = new Random(seed);
+        LocalDateTime now = LocalDateTime.now(clock);
+        LoadDataSeeder.SeedData data = new LoadDataSeeder(client, objectMapper, baseUrl)
+                .seed(users, items, bookings, random, now);
+
+        ZipfDistribution itemPopularity = new ZipfDistribution(items, 1.0);
+        ZipfDistribution termPopularity = new ZipfDistribution(LoadDataSeeder.VOCABULARY.length, 1.2);
+        LatencyRecorder recorder = new LatencyRecorder();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long started = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            Operation operation = profile.next(random);
+            HttpRequest request = buildRequest(operation, baseUrl, data, itemPopularity, termPopularity,
+                    random, now);
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        recorder.record(operation.getEndpoint(), System.nanoTime() - sent,
+                                error == null && response.statusCode() / 100 == 2);
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        log.info("Профиль {}, seed {}, {} запросов за {} с ({} req/s)\n{}", profile, seed, requests,
+                String.format("%.1f", seconds), String.format("%.1f", requests / seconds), recorder.report(seconds));
+    }
+
+    private HttpRequest buildRequest(Operation operation, String baseUrl, LoadDataSeeder.SeedData data,
+                                     ZipfDistribution itemPopularity, ZipfDistribution termPopularity,
+                                     Random random, LocalDateTime now) {
+        long anyUser = data.userIds.get(random.nextInt(data.userIds.size()));
+        int item = itemPopularity.sample(random);
+        long itemId = data.itemIds.get(item);
+        long ownerId = data.itemOwners.get(item);
+        switch (operation) {
+            case GET_USER:
+                return get(baseUrl + "/users/" + anyUser, null);
+            case CREATE_USER:
+                long number = userSequence.incrementAndGet();
+                return post(baseUrl + "/users", null,
+                        String.format("{\"name\":\"new%d\",\"email\":\"new%d@load.test\"}", number, number));
+            case GET_OWNER_ITEMS:
+                return get(baseUrl + "/items", ownerId);
+            case SEARCH_ITEMS:
+                String term = LoadDataSeeder.VOCABULARY[termPopularity.sample(random)];
+                return get(baseUrl + "/items/search?text=" + URLEncoder.encode(term, StandardCharsets.UTF_8),
+                        anyUser);
+            case CREATE_BOOKING:
+                int bookable = data.availableFrom(item);
+                LocalDateTime start = now.plusYears(1).plusDays(random.nextInt(60));
+                return post(baseUrl + "/bookings", data.bookerFor(data.itemOwners.get(bookable), random),
+                        String.format("{\"itemId\":%d,\"start\":\"%s\",\"end\":\"%s\"}",
+                                data.itemIds.get(bookable), start.format(LoadDataSeeder.DATE_TIME),
+                                start.plusDays(1 + random.nextInt(7)).format(LoadDataSeeder.DATE_TIME)));
+            case GET_BOOKINGS:
+                return get(baseUrl + "/bookings?state=ALL", anyUser);
+            case GET_OWNER_BOOKINGS:
+                return get(baseUrl + "/bookings/owner?state=WAITING", ownerId);
+            default:
+                return get(baseUrl + "/items/" + itemId, anyUser);
+        }
+    }
+
+    private static HttpRequest get(String url, Long userId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return request.build();
+    }
+
+    private static HttpRequest post(String url, Long userId, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (userId != null) {
+            request.header("X-Sharer-User-Id", String.valueOf(userId));
+        }
+        return request.build();
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.load;
+
+enum Operation {
+    GET_USER("GET /users/{id}"),
+    CREATE_USER("POST /users"),
+    GET_ITEM("GET /items/{itemId}"),
+    GET_OWNER_ITEMS("GET /items"),
+    SEARCH_ITEMS("GET /items/search"),
+    CREATE_BOOKING("POST /bookings"),
+    GET_BOOKINGS("GET /bookings"),
+    GET_OWNER_BOOKINGS("GET /bookings/owner");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+}
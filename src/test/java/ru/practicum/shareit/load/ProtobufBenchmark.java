@@ -0,0 +1,135 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.protobuf.ProtobufHttpMessageConverter;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Сравнивает JSON и protobuf на типичных ответах: процессорное время записи одного ответа
+ * и его размер в байтах.
+ *
+ * <p>Запускается вместе с нагрузочным прогоном: {@code mvn test -P load-test}. Параметры —
+ * системные свойства {@code load.seed}, {@code load.page} (записей в ответе) и {@code load.requests}.
+ */
+@Tag("load")
+@Slf4j
+@SpringBootTest
+class ProtobufBenchmark {
+
+    private static final Type BOOKINGS = ResolvableType.forClassWithGenerics(List.class, BookingDto.class).getType();
+    private static final Type ITEMS = ResolvableType.forClassWithGenerics(List.class, ItemDtoWithBooking.class)
+            .getType();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compareJsonAndProtobuf() {
+        long seed = Long.getLong("load.seed", 42L);
+        int page = Integer.getInteger("load.page", 100);
+        int requests = Integer.getInteger("load.requests", 20000);
+
+        Random random = new Random(seed);
+        List<BookingDto> bookings = bookings(page, random);
+        List<ItemDtoWithBooking> items = items(page, random);
+        GenericHttpMessageConverter<Object> json = new MappingJackson2HttpMessageConverter(objectMapper);
+        GenericHttpMessageConverter<Object> protobuf = new ProtobufHttpMessageConverter();
+
+        round(json, protobuf, bookings, items, requests / 10);
+        log.info("\n{}", round(json, protobuf, bookings, items, requests));
+    }
+
+    private static String round(GenericHttpMessageConverter<Object> json, GenericHttpMessageConverter<Object> protobuf,
+                                List<BookingDto> bookings, List<ItemDtoWithBooking> items, int requests) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        StringBuilder sizes = new StringBuilder(String.format("%-22s %12s%n", "response", "bytes"));
+        long started = System.nanoTime();
+        sizes.append(run("json bookings", json, MediaType.APPLICATION_JSON, bookings, BOOKINGS, requests, recorder));
+        sizes.append(run("protobuf bookings", protobuf, ProtobufHttpMessageConverter.PROTOBUF, bookings, BOOKINGS,
+                requests, recorder));
+        sizes.append(run("json items", json, MediaType.APPLICATION_JSON, items, ITEMS, requests, recorder));
+        sizes.append(run("protobuf items", protobuf, ProtobufHttpMessageConverter.PROTOBUF, items, ITEMS,
+                requests, recorder));
+        return "CPU time per response\n"
+                + recorder.report((System.nanoTime() - started) / 1_000_000_000.0)
+                + sizes;
+    }
+
+    /**
+     * Записывает ответ {@code requests} раз, собирая процессорное время потока, и возвращает строку с размером.
+     */
+    private static String run(String name, GenericHttpMessageConverter<Object> converter, MediaType mediaType,
+                              Object body, Type type, int requests, LatencyRecorder recorder) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int bytes = 0;
+        for (int i = 0; i < requests; i++) {
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            long cpu = threads.getCurrentThreadCpuTime();
+            try {
+                converter.write(body, type, mediaType, output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            recorder.record(name, threads.getCurrentThreadCpuTime() - cpu, true);
+            bytes = output.getBodyAsBytes().length;
+        }
+        return String.format("%-22s %12d%n", name, bytes);
+    }
+
+    private static List<BookingDto> bookings(int count, Random random) {
+        List<BookingDto> bookings = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            User owner = new User((long) random.nextInt(1000), "Владелец " + i, "owner" + i + "@bench.test", 0L);
+            User booker = new User((long) random.nextInt(1000), "Арендатор " + i, "booker" + i + "@bench.test", 0L);
+            Item item = new Item((long) random.nextInt(10000), "Вещь " + i, "Описание вещи для замера " + i,
+                    true, owner, null, 1L);
+            LocalDateTime start = now.plusHours(random.nextInt(10000));
+            bookings.add(new BookingDto((long) i, start, start.plusDays(1 + random.nextInt(7)), item, booker,
+                    Status.APPROVED, null));
+        }
+        return bookings;
+    }
+
+    private static List<ItemDtoWithBooking> items(int count, Random random) {
+        List<ItemDtoWithBooking> items = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            List<CommentDto> comments = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                comments.add(new CommentDto((long) (i * 3 + c), "Отзыв о вещи " + i, "Автор " + c,
+                        now.minusDays(random.nextInt(365))));
+            }
+            items.add(new ItemDtoWithBooking((long) i, "Вещь " + i, "Описание вещи для замера " + i, true,
+                    new BookingItemDto((long) random.nextInt(100000), (long) random.nextInt(1000)),
+                    new BookingItemDto((long) random.nextInt(100000), (long) random.nextInt(1000)), comments));
+        }
+        return items;
+    }
+}
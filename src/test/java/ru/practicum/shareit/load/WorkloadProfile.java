@@ -0,0 +1,41 @@
+package ru.practicum.shareit.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Доли операций в нагрузке. Выбирается системным свойством {@code load.profile}.
+ */
+enum WorkloadProfile {
+    MIXED(5, 1, 30, 10, 25, 10, 10, 9),
+    READ_HEAVY(5, 0, 45, 10, 30, 2, 4, 4),
+    WRITE_HEAVY(2, 5, 15, 5, 10, 45, 9, 9);
+
+    private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+    private final int total;
+
+    WorkloadProfile(int getUser, int createUser, int getItem, int getOwnerItems, int searchItems,
+                    int createBooking, int getBookings, int getOwnerBookings) {
+        weights.put(Operation.GET_USER, getUser);
+        weights.put(Operation.CREATE_USER, createUser);
+        weights.put(Operation.GET_ITEM, getItem);
+        weights.put(Operation.GET_OWNER_ITEMS, getOwnerItems);
+        weights.put(Operation.SEARCH_ITEMS, searchItems);
+        weights.put(Operation.CREATE_BOOKING, createBooking);
+        weights.put(Operation.GET_BOOKINGS, getBookings);
+        weights.put(Operation.GET_OWNER_BOOKINGS, getOwnerBookings);
+        total = weights.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    Operation next(Random random) {
+        int point = random.nextInt(total);
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            point -= weight.getValue();
+            if (point < 0) {
+                return weight.getKey();
+            }
+        }
+        return Operation.GET_ITEM;
+    }
+}
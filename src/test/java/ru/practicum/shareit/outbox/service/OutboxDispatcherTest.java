@@ -0,0 +1,148 @@
+package ru.practicum.shareit.outbox.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import ru.practicum.shareit.outbox.model.OutboxEvent;
+import ru.practicum.shareit.outbox.model.OutboxEventType;
+import ru.practicum.shareit.outbox.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox-dispatcher",
+        "shareit.outbox.poll-interval-ms=3600000",
+        "shareit.outbox.batch-size=10"})
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    @Qualifier("sharedRecorder")
+    private RecordingListener shared;
+
+    @Autowired
+    @Qualifier("localRecorder")
+    private RecordingListener local;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher.broadcast();
+        outboxEventRepository.deleteAll();
+        shared.events.clear();
+        local.events.clear();
+    }
+
+    @Test
+    void concurrentDispatchersDeliverEachEventOnceInItemOrder() throws Exception {
+        List<Long> ids = saveEvents(100, 7);
+
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int node = 0; node < 2; node++) {
+            futures.add(nodes.submit(() -> {
+                for (int i = 0; i < 200 && outboxEventRepository.countByProcessedFalse() > 0; i++) {
+                    dispatcher.dispatch();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        nodes.shutdown();
+
+        assertThat(shared.ids()).containsExactlyInAnyOrderElementsOf(ids);
+        assertItemOrder(shared);
+        assertThat(local.events).isEmpty();
+    }
+
+    @Test
+    void nodeLocalListenersReceiveEventsClaimedElsewhere() {
+        List<Long> ids = saveEvents(25, 3);
+        outboxEventRepository.markProcessed(ids.subList(0, 10));
+
+        for (int i = 0; i < 3; i++) {
+            dispatcher.broadcast();
+        }
+
+        assertThat(local.ids()).containsExactlyInAnyOrderElementsOf(ids);
+        assertItemOrder(local);
+        assertThat(shared.events).isEmpty();
+    }
+
+    private void assertItemOrder(RecordingListener listener) {
+        Map<Long, List<Long>> byItem = new HashMap<>();
+        for (OutboxEvent event : listener.events) {
+            byItem.computeIfAbsent(event.getItemId(), key -> new ArrayList<>()).add(event.getId());
+        }
+        byItem.values().forEach(itemIds -> assertThat(itemIds).isSorted());
+    }
+
+    private List<Long> saveEvents(int count, int items) {
+        List<OutboxEvent> events = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            events.add(new OutboxEvent(null, OutboxEventType.CREATED, (long) i, (long) (i % items + 1000), 1L, 2L,
+                    now.plusDays(1), now.plusDays(2), now, 0, false));
+        }
+        return outboxEventRepository.saveAll(events).stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList());
+    }
+
+    static class RecordingListener implements OutboxEventListener {
+
+        private final boolean nodeLocal;
+        private final List<OutboxEvent> events = new ArrayList<>();
+
+        RecordingListener(boolean nodeLocal) {
+            this.nodeLocal = nodeLocal;
+        }
+
+        @Override
+        public synchronized void onEvent(OutboxEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public boolean isNodeLocal() {
+            return nodeLocal;
+        }
+
+        synchronized List<Long> ids() {
+            return events.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+        }
+    }
+
+    @TestConfiguration
+    static class Listeners {
+
+        @Bean
+        RecordingListener sharedRecorder() {
+            return new RecordingListener(false);
+        }
+
+        @Bean
+        RecordingListener localRecorder() {
+            return new RecordingListener(true);
+        }
+    }
+}
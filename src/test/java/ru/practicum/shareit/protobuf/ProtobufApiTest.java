@@ -0,0 +1,49 @@
+package ru.practicum.shareit.protobuf;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.protobuf.message.ItemWithBookingListProto;
+import ru.practicum.shareit.protobuf.message.UserListProto;
+import ru.practicum.shareit.protobuf.message.UserProto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProtobufApiTest extends ApiTest {
+
+    @Test
+    void listsAreWrittenAsProtobuf() throws Exception {
+        long ownerId = createUser();
+        long itemId = createItem(ownerId, "Гитара", "Акустическая гитара");
+
+        byte[] items = mockMvc.perform(get("/items").header(USER_HEADER, ownerId)
+                        .param("ids", String.valueOf(itemId))
+                        .accept(ProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ProtobufHttpMessageConverter.PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+        ItemWithBookingListProto itemList = ItemWithBookingListProto.parseFrom(items);
+        assertThat(itemList.getItemsList()).hasSize(1);
+        assertThat(itemList.getItems(0).getId()).isEqualTo(itemId);
+        assertThat(itemList.getItems(0).getName()).isEqualTo("Гитара");
+
+        byte[] users = mockMvc.perform(get("/users").param("ids", String.valueOf(ownerId))
+                        .accept(ProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(UserListProto.parseFrom(users).getUsers(0).getId()).isEqualTo(ownerId);
+    }
+
+    @Test
+    void singleDtoIsWrittenAsProtobuf() throws Exception {
+        long userId = createUser();
+
+        byte[] user = mockMvc.perform(get("/users/{id}", userId).accept(ProtobufHttpMessageConverter.PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(UserProto.parseFrom(user).getId()).isEqualTo(userId);
+    }
+}
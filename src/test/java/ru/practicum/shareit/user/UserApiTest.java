@@ -0,0 +1,154 @@
+package ru.practicum.shareit.user;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ApiTest;
+import ru.practicum.shareit.booking.status.Status;
+import ru.practicum.shareit.purge.DeletionPurger;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserApiTest extends ApiTest {
+
+    @Autowired
+    private DeletionPurger deletionPurger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void patchWithStaleVersionIsRejected() throws Exception {
+        long userId = createUser();
+        long version = user(userId).get("version").asLong();
+
+        JsonNode updated = read(mockMvc.perform(json(patch("/users/{id}", userId),
+                        Map.of("name", "Первый", "version", version)))
+                .andExpect(status().isOk()));
+        assertThat(updated.get("version").asLong()).isEqualTo(version + 1);
+
+        mockMvc.perform(json(patch("/users/{id}", userId), Map.of("name", "Второй", "version", version)))
+                .andExpect(status().isConflict());
+        assertThat(user(userId).get("name").asText()).isEqualTo("Первый");
+    }
+
+    @Test
+    void patchKeepsOmittedFields() throws Exception {
+        long userId = createUser();
+        JsonNode created = user(userId);
+
+        mockMvc.perform(json(patch("/users/{id}", userId), Map.of("name", "Новое имя")))
+                .andExpect(status().isOk());
+        JsonNode renamed = user(userId);
+        assertThat(renamed.get("name").asText()).isEqualTo("Новое имя");
+        assertThat(renamed.get("email").asText()).isEqualTo(created.get("email").asText());
+
+        String email = "patched-" + userId + "@mail.ru";
+        mockMvc.perform(json(patch("/users/{id}", userId), Map.of("email", email)))
+                .andExpect(status().isOk());
+        JsonNode moved = user(userId);
+        assertThat(moved.get("name").asText()).isEqualTo("Новое имя");
+        assertThat(moved.get("email").asText()).isEqualTo(email);
+
+        JsonNode unchanged = read(mockMvc.perform(json(patch("/users/{id}", userId), new HashMap<>()))
+                .andExpect(status().isOk()));
+        assertThat(unchanged.get("version").asLong()).isEqualTo(moved.get("version").asLong());
+    }
+
+    @Test
+    void usersAreFetchedByIds() throws Exception {
+        long first = createUser();
+        long second = createUser();
+
+        JsonNode users = read(mockMvc.perform(get("/users").param("ids", first + "," + second))
+                .andExpect(status().isOk()));
+
+        assertThat(users).extracting(user -> user.get("id").asLong()).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    void deletedOwnerItemsAreHiddenBeforePurge() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long itemId = createItem(ownerId, "Батут", "Батут удалённого владельца");
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(bookerId, itemId, now.plusDays(1), now.plusDays(2), Status.WAITING);
+        mockMvc.perform(get("/items/search").param("text", "батут удалённого")).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/users/{id}", ownerId)).andExpect(status().isOk());
+
+        JsonNode found = read(mockMvc.perform(get("/items/search").param("text", "батут удалённого"))
+                .andExpect(status().isOk()));
+        assertThat(found).isEmpty();
+        JsonNode listed = read(mockMvc.perform(get("/items").header(USER_HEADER, bookerId)
+                        .param("ids", String.valueOf(itemId)))
+                .andExpect(status().isOk()));
+        assertThat(listed).isEmpty();
+        mockMvc.perform(get("/items/{id}", itemId).header(USER_HEADER, bookerId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(json(post("/bookings").header(USER_HEADER, bookerId),
+                        Map.of("itemId", itemId, "start", now.plusDays(5).toString(),
+                                "end", now.plusDays(6).toString())))
+                .andExpect(status().isNotFound());
+        JsonNode bookings = read(mockMvc.perform(get("/bookings").header(USER_HEADER, bookerId))
+                .andExpect(status().isOk()));
+        assertThat(bookings).isEmpty();
+
+        deletionPurger.purge();
+        assertThat(rows("SELECT COUNT(*) FROM bookings WHERE item_id = ?", itemId)).isZero();
+        deletionPurger.purge();
+        assertThat(rows("SELECT COUNT(*) FROM users WHERE user_id = ?", ownerId)).isZero();
+    }
+
+    @Test
+    void deletedBookerKeepsOwnerListsReadableBeforePurge() throws Exception {
+        long ownerId = createUser();
+        long bookerId = createUser();
+        long otherId = createUser();
+        long itemId = createItem(ownerId, "Гироскутер", "Гироскутер");
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(bookerId, itemId, now.minusDays(3), now.minusDays(2), Status.APPROVED);
+        long remainingId = saveBooking(otherId, itemId, now.plusDays(3), now.plusDays(4), Status.WAITING);
+        mockMvc.perform(json(post("/items/{id}/comment", itemId).header(USER_HEADER, bookerId),
+                        Map.of("text", "Удобный")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/users/{id}", bookerId)).andExpect(status().isOk());
+
+        JsonNode bookings = read(mockMvc.perform(get("/bookings/owner").header(USER_HEADER, ownerId))
+                .andExpect(status().isOk()));
+        assertThat(bookings).extracting(booking -> booking.get("id").asLong()).containsExactly(remainingId);
+        JsonNode listed = read(mockMvc.perform(get("/items").header(USER_HEADER, ownerId)
+                        .param("ids", String.valueOf(itemId)))
+                .andExpect(status().isOk()));
+        assertThat(listed.get(0).get("lastBooking").isNull()).isTrue();
+        assertThat(listed.get(0).get("comments")).isEmpty();
+        JsonNode card = read(mockMvc.perform(get("/items/{id}", itemId).header(USER_HEADER, ownerId))
+                .andExpect(status().isOk()));
+        assertThat(card.get("lastBooking").isNull()).isTrue();
+        assertThat(card.get("nextBooking").get("id").asLong()).isEqualTo(remainingId);
+        assertThat(card.get("comments")).isEmpty();
+
+        deletionPurger.purge();
+        assertThat(rows("SELECT COUNT(*) FROM users WHERE user_id = ?", bookerId)).isZero();
+        assertThat(rows("SELECT COUNT(*) FROM comments WHERE item_id = ?", itemId)).isZero();
+    }
+
+    private long rows(String sql, long id) {
+        return jdbcTemplate.queryForObject(sql, Long.class, id);
+    }
+
+    private JsonNode user(long userId) throws Exception {
+        return read(mockMvc.perform(get("/users/{id}", userId)).andExpect(status().isOk()));
+    }
+}